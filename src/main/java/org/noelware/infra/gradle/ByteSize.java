@@ -0,0 +1,59 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle;
+
+import java.util.Locale;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utilities for sizes that are written the same way as JVM memory sizes (i.e, <code>512m</code> or <code>50g</code>).
+ */
+@ApiStatus.Internal
+public class ByteSize {
+    private ByteSize() {}
+
+    /**
+     * Parses a size (i.e, <code>512m</code> or <code>2g</code>) into bytes. A size without a unit is in bytes.
+     * @param value The size
+     * @return the size in bytes
+     */
+    public static long parse(@NotNull String value) {
+        final String normalized = value.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) throw new IllegalArgumentException("Size can't be empty");
+
+        final char unit = normalized.charAt(normalized.length() - 1);
+        final long multiplier =
+                switch (unit) {
+                    case 'k' -> 1024L;
+                    case 'm' -> 1024L * 1024;
+                    case 'g' -> 1024L * 1024 * 1024;
+                    case 't' -> 1024L * 1024 * 1024 * 1024;
+                    default -> 1L;
+                };
+
+        final String digits = Character.isDigit(unit) ? normalized : normalized.substring(0, normalized.length() - 1);
+        return Long.parseLong(digits) * multiplier;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle;
+
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Utilities for the boolean flags that are set with system properties or environment variables, which are
+ * enabled with <code>yes</code>, <code>true</code>, <code>1</code>, or <code>si</code>.
+ */
+@ApiStatus.Internal
+public class Flags {
+    private static final Pattern BOOLEAN_REGEX = Pattern.compile("^(yes|true|1|si|si*)$");
+
+    private Flags() {}
+
+    /**
+     * @param value The value of the flag, can be <code>null</code> if it wasn't set
+     * @return if the flag is enabled
+     */
+    public static boolean isEnabled(@Nullable String value) {
+        return value != null && BOOLEAN_REGEX.matcher(value).matches();
+    }
+}
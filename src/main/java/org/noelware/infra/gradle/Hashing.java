@@ -0,0 +1,72 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utilities for hashing the contents of files and strings.
+ */
+@ApiStatus.Internal
+public class Hashing {
+    private static final HexFormat HEX = HexFormat.of();
+
+    private Hashing() {}
+
+    /**
+     * @param bytes The bytes to hash
+     * @return the hex-encoded SHA-256 of the bytes
+     */
+    @NotNull
+    public static String sha256(byte @NotNull [] bytes) {
+        return HEX.formatHex(sha256Digest().digest(bytes));
+    }
+
+    /**
+     * @param value The string to hash
+     * @return the hex-encoded SHA-256 of the string, encoded as UTF-8
+     */
+    @NotNull
+    public static String sha256(@NotNull String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return a new SHA-256 {@link MessageDigest}, for when the bytes to hash are streamed in
+     */
+    @NotNull
+    public static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be available on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -25,12 +25,11 @@ package org.noelware.infra.gradle;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Calendar;
-import java.util.Objects;
-import org.gradle.api.GradleException;
-import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.license.LicenseHeaderService;
+import org.noelware.infra.gradle.license.LicenseTemplate;
 import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
 
 /**
@@ -70,28 +69,20 @@ public enum Licenses {
     }
 
     /**
-     * Generate and render a license heading
-     * @param extension The extension metadata
-     * @return license heading
+     * Lazily renders the license heading from the extension's configured license and metadata.
+     * @param service The {@link LicenseHeaderService} that caches the rendered headings
+     * @param ext The extension metadata
+     * @return {@link Provider} of the license heading
      */
     @ApiStatus.Internal
-    public String render(@NotNull Project project, @NotNull NoelwareModuleExtension ext) {
-        try {
-            final String projectName = ext.getProjectName()
-                    .convention(project.getRootProject().getName())
-                    .get();
-            final String projectDesc = ext.getProjectDescription()
-                    .convention(project.getDescription() != null ? project.getDescription() : "A dummy project!")
-                    .get();
-            final String projectEmoji = ext.getProjectEmoji().convention("").get();
-            final String currentYear = ext.getCurrentYear()
-                    .convention(String.valueOf(Calendar.getInstance().get(Calendar.YEAR)))
-                    .get();
-
-            return getTemplate(projectName, projectDesc, currentYear, projectEmoji);
-        } catch (IOException e) {
-            throw new GradleException("Unable to generate license", e);
-        }
+    public static Provider<String> render(
+            @NotNull Provider<LicenseHeaderService> service, @NotNull NoelwareModuleExtension ext) {
+        return service.zip(ext.getLicense(), (headers, license) -> headers.render(
+                license,
+                ext.getProjectName().get(),
+                ext.getProjectDescription().get(),
+                ext.getCurrentYear().get(),
+                ext.getProjectEmoji().get()));
     }
 
     /**
@@ -104,22 +95,6 @@ public enum Licenses {
      * @throws IOException If we couldn't create a {@link InputStream} of the template
      */
     public String getTemplate(String name, String description, String currentYear, String emoji) throws IOException {
-        final String tmplFile =
-                switch (this) {
-                    case APACHE -> "/templates/apache.heading.tmpl";
-                    case MIT -> "/templates/mit.heading.tmpl";
-                };
-
-        try (final InputStream stream = Objects.requireNonNull(getClass().getResourceAsStream(tmplFile))) {
-            String result = new String(stream.readAllBytes())
-                    .replace("{{ Name }}", name)
-                    .replace("{{ Description }}", description)
-                    .replace("{{ CurrentYear }}", currentYear);
-
-            if (!emoji.isBlank()) result = result.replace("{{ Emoji }}", emoji);
-            else result = result.replace("{{ Emoji }} ", "");
-
-            return result;
-        }
+        return LicenseTemplate.of(this).render(name, description, currentYear, emoji);
     }
 }
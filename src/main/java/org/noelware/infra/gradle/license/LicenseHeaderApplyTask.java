@@ -0,0 +1,101 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Adds (or replaces) the license heading of every source file. The sources are split into partitions
+ * that are processed in parallel by the Worker API, and only the heading of each file is rewritten, so
+ * bumping the year or switching the license doesn't need a full Spotless format pass.
+ */
+public abstract class LicenseHeaderApplyTask extends DefaultTask {
+    /**
+     * @return {@link ConfigurableFileCollection} of the source files to apply the heading to
+     */
+    @InputFiles
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * @return {@link Property<String>} of the rendered license heading
+     */
+    @Input
+    public abstract Property<String> getHeader();
+
+    /**
+     * @return {@link Property<String>} of the regular expression that marks where the heading ends
+     */
+    @Input
+    public abstract Property<String> getDelimiter();
+
+    /**
+     * @return {@link Property<Integer>} of how many partitions the sources are split into, defaults to
+     * the amount of available processors.
+     */
+    @Internal
+    public abstract Property<Integer> getPartitions();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    public LicenseHeaderApplyTask() {
+        getPartitions().convention(Runtime.getRuntime().availableProcessors());
+
+        // The sources are also what this task modifies, so it should always run
+        getOutputs().upToDateWhen((task) -> false);
+    }
+
+    @TaskAction
+    public void apply() {
+        final List<File> files = new ArrayList<>(getSources().getAsFileTree().getFiles());
+        if (files.isEmpty()) return;
+
+        final int partitions = Math.max(1, Math.min(getPartitions().get(), files.size()));
+        final WorkQueue queue = getWorkerExecutor().noIsolation();
+
+        // Files are dealt round-robin so large directories are spread over every partition
+        for (int partition = 0; partition < partitions; partition++) {
+            final List<File> slice = new ArrayList<>(files.size() / partitions + 1);
+            for (int i = partition; i < files.size(); i += partitions) slice.add(files.get(i));
+
+            queue.submit(LicenseHeaderWorkAction.class, (params) -> {
+                params.getFiles().from(slice);
+                params.getHeader().set(getHeader());
+                params.getDelimiter().set(getDelimiter());
+            });
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+
+/**
+ * Checks that every source file starts with the rendered license heading. Unlike <code>spotlessCheck</code>, this only
+ * looks at the files that changed since the last run, and only at the leading bytes of each file.
+ */
+public abstract class LicenseHeaderCheckTask extends DefaultTask {
+    private static final int MAX_REPORTED_FAILURES = 25;
+
+    /**
+     * @return {@link ConfigurableFileCollection} of the source files to check
+     */
+    @Incremental
+    @SkipWhenEmpty
+    @IgnoreEmptyDirectories
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * @return {@link Property<String>} of the rendered license heading
+     */
+    @Input
+    public abstract Property<String> getHeader();
+
+    /**
+     * @return {@link Property<String>} of the regular expression that marks where the heading ends
+     */
+    @Input
+    public abstract Property<String> getDelimiter();
+
+    /**
+     * @return {@link RegularFileProperty} of where the index of checked files is kept
+     */
+    @OutputFile
+    public abstract RegularFileProperty getIndexFile();
+
+    @TaskAction
+    public void check(InputChanges changes) {
+        final String header = getHeader().get();
+        final String delimiter = getDelimiter().get();
+        final File indexFile = getIndexFile().get().getAsFile();
+        final LicenseHeaderIndex index = LicenseHeaderIndex.load(indexFile, header, delimiter);
+
+        final List<File> pending = new ArrayList<>();
+        if (changes.isIncremental()) {
+            for (FileChange change : changes.getFileChanges(getSources())) {
+                if (change.getFileType() != FileType.FILE) continue;
+                if (change.getChangeType() == ChangeType.REMOVED) {
+                    index.remove(change.getFile());
+                } else {
+                    pending.add(change.getFile());
+                }
+            }
+        } else {
+            // Even when Gradle can't tell us what changed, the index still knows which files
+            // were already checked against the same heading.
+            final Set<String> present = new HashSet<>();
+            for (File file : getSources().getAsFileTree().getFiles()) {
+                present.add(file.getAbsolutePath());
+                if (index.lookup(file) == null) pending.add(file);
+            }
+
+            index.retainAll(present);
+        }
+
+        final byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        final Pattern pattern = LicenseHeaders.delimiter(delimiter);
+        final Map<File, Boolean> results = pending.parallelStream()
+                .collect(Collectors.toConcurrentMap((file) -> file, (file) -> {
+                    try {
+                        return LicenseHeaders.hasHeader(file.toPath(), headerBytes, pattern);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+
+        results.forEach(index::put);
+        index.save(indexFile);
+
+        getLogger().info("Checked the license heading of {} file(s)", results.size());
+
+        final List<String> failures = index.failures();
+        if (failures.isEmpty()) return;
+
+        final StringBuilder message =
+                new StringBuilder("%d file(s) are missing the license heading:%n".formatted(failures.size()));
+
+        failures.stream()
+                .limit(MAX_REPORTED_FAILURES)
+                .forEach((failure) -> message.append("    * ").append(failure).append(System.lineSeparator()));
+
+        if (failures.size() > MAX_REPORTED_FAILURES) {
+            message.append("    ... and %d more%n".formatted(failures.size() - MAX_REPORTED_FAILURES));
+        }
+
+        message.append("Run `applyLicenseHeaders` to add the license heading to them.");
+        throw new GradleException(message.toString());
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Represents the index that the <code>licenseHeaderCheck</code> tasks keep under <code>build/</code>. It is keyed by
+ * the hash of the heading and delimiter that were checked against, and remembers the size, a hash of the leading bytes
+ * that the check looks at, and the result of every file it checked. Only the leading bytes of a file are hashed, so a
+ * lookup is cheap, and files are only checked again if their heading changed or the heading they're checked against
+ * did. Modification times aren't used, since they don't change on every edit on coarse-grained filesystems.
+ */
+public class LicenseHeaderIndex {
+    private static final Logger LOG = Logging.getLogger(LicenseHeaderIndex.class);
+    private static final int VERSION = 2;
+
+    private final byte[] hash;
+    private final int headerLength;
+    private final Map<String, Entry> entries;
+
+    private LicenseHeaderIndex(byte[] hash, int headerLength, Map<String, Entry> entries) {
+        this.hash = hash;
+        this.headerLength = headerLength;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the index from a file. If the file doesn't exist, is corrupted, or was written for a different
+     * heading or delimiter, then an empty index is returned.
+     *
+     * @param file The index file
+     * @param header The rendered heading
+     * @param delimiter The delimiter
+     * @return the {@link LicenseHeaderIndex}
+     */
+    @NotNull
+    public static LicenseHeaderIndex load(@NotNull File file, @NotNull String header, @NotNull String delimiter) {
+        final byte[] hash = hashOf(header, delimiter);
+        final int headerLength = header.getBytes(StandardCharsets.UTF_8).length;
+        final Map<String, Entry> entries = new TreeMap<>();
+        if (!file.exists()) return new LicenseHeaderIndex(hash, headerLength, entries);
+
+        try (final DataInputStream stream =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (stream.readInt() != VERSION || !Arrays.equals(stream.readNBytes(hash.length), hash))
+                return new LicenseHeaderIndex(hash, headerLength, entries);
+
+            final int size = stream.readInt();
+            for (int i = 0; i < size; i++) {
+                final String path = stream.readUTF();
+                final long length = stream.readLong();
+                final byte[] digest = stream.readNBytes(stream.readUnsignedByte());
+                entries.put(path, new Entry(length, digest, stream.readBoolean()));
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read license header index [{}], starting from scratch", file, e);
+            entries.clear();
+        }
+
+        return new LicenseHeaderIndex(hash, headerLength, entries);
+    }
+
+    /**
+     * Returns the result of a file if it was already checked and its heading hasn't changed since.
+     *
+     * @param file The source file
+     * @return if the file had the heading, or <code>null</code> if it needs to be checked
+     */
+    @Nullable
+    public Boolean lookup(@NotNull File file) {
+        final Entry entry = entries.get(file.getAbsolutePath());
+        if (entry == null || entry.size() != file.length()) return null;
+
+        final byte[] digest = digestOf(file);
+        return digest != null && Arrays.equals(entry.digest(), digest) ? entry.passed() : null;
+    }
+
+    /**
+     * Records the result of a file.
+     *
+     * @param file The source file
+     * @param passed If the file had the heading
+     */
+    public void put(@NotNull File file, boolean passed) {
+        final byte[] digest = digestOf(file);
+        if (digest == null) {
+            entries.remove(file.getAbsolutePath());
+            return;
+        }
+
+        entries.put(file.getAbsolutePath(), new Entry(file.length(), digest, passed));
+    }
+
+    /**
+     * Removes a file from the index.
+     * @param file The source file
+     */
+    public void remove(@NotNull File file) {
+        entries.remove(file.getAbsolutePath());
+    }
+
+    /**
+     * Only keeps the files that are in the given set, so files that were removed from the sources
+     * while the task was running non-incrementally don't stick around.
+     *
+     * @param files The absolute paths of the files to keep
+     */
+    public void retainAll(@NotNull Set<String> files) {
+        entries.keySet().retainAll(files);
+    }
+
+    /**
+     * @return the absolute paths of all files that don't have the heading
+     */
+    @NotNull
+    public List<String> failures() {
+        return entries.entrySet().stream()
+                .filter((entry) -> !entry.getValue().passed())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Saves this index to a file.
+     * @param file The index file
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public void save(@NotNull File file) {
+        file.getParentFile().mkdirs();
+
+        try (final DataOutputStream stream =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            stream.writeInt(VERSION);
+            stream.write(hash);
+            stream.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                stream.writeUTF(entry.getKey());
+                stream.writeLong(entry.getValue().size());
+                stream.writeByte(entry.getValue().digest().length);
+                stream.write(entry.getValue().digest());
+                stream.writeBoolean(entry.getValue().passed());
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to write license header index [{}]", file, e);
+        }
+    }
+
+    @Nullable
+    private byte[] digestOf(File file) {
+        try {
+            return LicenseHeaders.digestOfHeading(file.toPath(), headerLength);
+        } catch (IOException e) {
+            LOG.warn("Unable to hash the heading of [{}]", file, e);
+            return null;
+        }
+    }
+
+    private static byte[] hashOf(String header, String delimiter) {
+        final MessageDigest digest = Hashing.sha256Digest();
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(delimiter.getBytes(StandardCharsets.UTF_8));
+
+        return digest.digest();
+    }
+
+    private record Entry(long size, byte[] digest, boolean passed) {}
+}
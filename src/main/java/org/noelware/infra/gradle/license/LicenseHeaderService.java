@@ -0,0 +1,142 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Licenses;
+
+/**
+ * Build-scoped {@link BuildService} that keeps a bounded cache of rendered license headings, so every
+ * Spotless format in every project of the build shares the same rendered heading rather than rendering
+ * its own.
+ */
+public abstract class LicenseHeaderService implements BuildService<LicenseHeaderService.Params>, AutoCloseable {
+    private static final Logger LOG = Logging.getLogger(LicenseHeaderService.class);
+    private static final String NAME = "noelwareLicenseHeaders";
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<Key, String> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > getParameters().getMaxEntries().get();
+        }
+    };
+
+    /**
+     * Registers the {@link LicenseHeaderService} for the build if it wasn't already.
+     * @param project The project that is requesting the service
+     * @return {@link Provider} of the service
+     */
+    public static Provider<LicenseHeaderService> register(@NotNull Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, LicenseHeaderService.class, (spec) -> spec.getParameters()
+                        .getMaxEntries()
+                        .convention(64));
+    }
+
+    /**
+     * Renders a license heading, or returns the heading that was already rendered with the same
+     * license and metadata.
+     *
+     * @param license The license to render
+     * @param name The name of the project
+     * @param description The description of this project
+     * @param currentYear Current year
+     * @param emoji project emoji
+     * @return license heading
+     */
+    @NotNull
+    public String render(
+            @NotNull Licenses license,
+            @NotNull String name,
+            @NotNull String description,
+            @NotNull String currentYear,
+            @NotNull String emoji) {
+        final Key key = new Key(license, name, description, currentYear, emoji);
+        synchronized (cache) {
+            final String cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+
+        final String rendered;
+        try {
+            rendered = LicenseTemplate.of(license).render(name, description, currentYear, emoji);
+        } catch (IOException e) {
+            throw new GradleException("Unable to generate license", e);
+        }
+
+        synchronized (cache) {
+            cache.put(key, rendered);
+        }
+
+        return rendered;
+    }
+
+    /**
+     * @return how many headings were served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return how many headings had to be rendered
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() {
+        LOG.info("License heading cache: {} hits, {} misses", getHits(), getMisses());
+    }
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link Property<Integer>} of how many rendered headings are kept, defaults to 64
+         */
+        Property<Integer> getMaxEntries();
+    }
+
+    private record Key(Licenses license, String name, String description, String currentYear, String emoji) {}
+}
@@ -0,0 +1,128 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.regex.Pattern;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/**
+ * {@link WorkAction} that replaces the license heading of a partition of source files. Only the heading is
+ * rewritten: the rest of the file is streamed over as-is into a temporary file, which then replaces the
+ * original file.
+ */
+public abstract class LicenseHeaderWorkAction implements WorkAction<LicenseHeaderWorkAction.Params> {
+    private static final Logger LOG = Logging.getLogger(LicenseHeaderWorkAction.class);
+
+    @Override
+    public void execute() {
+        final byte[] header = getParameters().getHeader().get().getBytes(StandardCharsets.UTF_8);
+        final Pattern delimiter = LicenseHeaders.delimiter(getParameters().getDelimiter().get());
+
+        int updated = 0;
+        for (File file : getParameters().getFiles()) {
+            try {
+                if (apply(file.toPath(), header, delimiter)) updated++;
+            } catch (IOException e) {
+                throw new GradleException("Unable to apply license heading to [%s]".formatted(file), e);
+            }
+        }
+
+        LOG.info("Applied license heading to {} file(s)", updated);
+    }
+
+    private static boolean apply(Path file, byte[] header, Pattern delimiter) throws IOException {
+        if (LicenseHeaders.hasHeader(file, header, delimiter)) return false;
+
+        final long headerEnd = LicenseHeaders.headerEnd(file, delimiter);
+        if (headerEnd == -1) {
+            LOG.warn("Skipping [{}] since it doesn't have a line that matches the license delimiter", file);
+            return false;
+        }
+
+        final Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "." + file.getFileName(), ".tmp");
+        try {
+            // Temporary files are only readable by the owner, so keep the permissions of the original file
+            final PosixFileAttributeView attributes = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (attributes != null) {
+                Files.setPosixFilePermissions(temp, attributes.readAttributes().permissions());
+            }
+
+            try (final FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                    final FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(header);
+                while (buffer.hasRemaining()) target.write(buffer);
+
+                final long size = source.size();
+                long position = headerEnd;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return true;
+    }
+
+    public interface Params extends WorkParameters {
+        /**
+         * @return {@link ConfigurableFileCollection} of the files in this partition
+         */
+        ConfigurableFileCollection getFiles();
+
+        /**
+         * @return {@link Property<String>} of the rendered license heading
+         */
+        Property<String> getHeader();
+
+        /**
+         * @return {@link Property<String>} of the regular expression that marks where the heading ends
+         */
+        Property<String> getDelimiter();
+    }
+}
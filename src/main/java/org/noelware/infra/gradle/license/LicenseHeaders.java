@@ -0,0 +1,155 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Utilities to look at the license heading of a source file without reading the whole file, the
+ * same way Spotless' license header step decides where the heading ends: everything before the
+ * first line that matches the delimiter is the heading.
+ */
+@ApiStatus.Internal
+public class LicenseHeaders {
+    /**
+     * How many bytes after the heading are looked at to find the delimiter. Spotless requires the
+     * delimiter to come right after the heading, so this only needs to fit the delimiter itself.
+     */
+    private static final int DELIMITER_WINDOW = 256;
+
+    /**
+     * How many bytes are looked at to find the delimiter of a file that doesn't have the heading yet.
+     */
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    private LicenseHeaders() {}
+
+    /**
+     * Compiles the given delimiter the same way Spotless does, so it only matches at the start of a line.
+     * @param delimiter The delimiter
+     * @return compiled {@link Pattern}
+     */
+    @NotNull
+    public static Pattern delimiter(@NotNull String delimiter) {
+        return Pattern.compile('^' + delimiter, Pattern.UNIX_LINES | Pattern.MULTILINE);
+    }
+
+    /**
+     * Checks if the file starts with the given heading, which is directly followed by the delimiter. Only the
+     * leading bytes of the file are memory-mapped, so this costs the same for small and large sources.
+     *
+     * @param file The source file
+     * @param header The rendered heading, encoded as UTF-8
+     * @param delimiter The compiled delimiter, from {@link #delimiter(String)}
+     * @return if the file has the heading
+     * @throws IOException If the file couldn't be read
+     */
+    public static boolean hasHeader(@NotNull Path file, byte @NotNull [] header, @NotNull Pattern delimiter)
+            throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < header.length) return false;
+
+            final MappedByteBuffer mapped =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, header.length + DELIMITER_WINDOW));
+
+            if (mapped.slice(0, header.length).mismatch(ByteBuffer.wrap(header)) != -1) return false;
+
+            final CharBuffer rest = decode(mapped.slice(header.length, mapped.limit() - header.length));
+            return delimiter.matcher(rest).lookingAt();
+        }
+    }
+
+    /**
+     * Hashes the leading bytes of a file that {@link #hasHeader(Path, byte[], Pattern)} looks at, so the result of
+     * the check can be reused for as long as they don't change.
+     *
+     * @param file The source file
+     * @param headerLength The length of the rendered heading, in bytes
+     * @return the SHA-256 digest of the leading bytes
+     * @throws IOException If the file couldn't be read
+     */
+    public static byte @NotNull [] digestOfHeading(@NotNull Path file, int headerLength) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), headerLength + DELIMITER_WINDOW));
+
+            final MessageDigest digest = Hashing.sha256Digest();
+            digest.update(mapped);
+
+            return digest.digest();
+        }
+    }
+
+    /**
+     * Finds where the existing heading of a file ends, which is the byte offset of the first line that
+     * matches the delimiter. Only the leading bytes of the file are memory-mapped.
+     *
+     * @param file The source file
+     * @param delimiter The compiled delimiter, from {@link #delimiter(String)}
+     * @return the offset (in bytes) of where the heading ends, or <code>-1</code> if the delimiter wasn't found
+     * @throws IOException If the file couldn't be read
+     */
+    public static long headerEnd(@NotNull Path file, @NotNull Pattern delimiter) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer mapped =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), SCAN_WINDOW));
+
+            final CharBuffer chars = decode(mapped);
+            final Matcher matcher = delimiter.matcher(chars);
+            if (!matcher.find()) return -1;
+
+            // The characters before the match need to be encoded again to know how many bytes they took
+            return StandardCharsets.UTF_8
+                    .encode(chars.subSequence(0, matcher.start()))
+                    .remaining();
+        }
+    }
+
+    private static CharBuffer decode(ByteBuffer bytes) throws IOException {
+        // The window can end in the middle of a character, which is fine since we only care
+        // about what comes before it.
+        final CharsetDecoder decoder = StandardCharsets.UTF_8
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        return decoder.decode(bytes);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Licenses;
+
+/**
+ * Represents a license heading template (<code>/templates/*.heading.tmpl</code>) that was parsed once into
+ * a list of literal and placeholder segments, so rendering a heading is a single pass over the segments
+ * rather than a {@link String#replace(CharSequence, CharSequence)} pass per placeholder.
+ */
+public class LicenseTemplate {
+    private static final Map<Licenses, LicenseTemplate> TEMPLATES = new EnumMap<>(Licenses.class);
+    private final List<Segment> segments;
+    private final int literalLength;
+
+    private LicenseTemplate(List<Segment> segments) {
+        this.segments = Collections.unmodifiableList(segments);
+        this.literalLength = segments.stream()
+                .filter((segment) -> segment.kind() == Kind.LITERAL)
+                .mapToInt((segment) -> segment.text().length())
+                .sum();
+    }
+
+    /**
+     * Returns the parsed template for the given license, the template is only read from the
+     * classpath the first time it is requested.
+     *
+     * @param license The license to get the template of
+     * @return parsed {@link LicenseTemplate}
+     * @throws IOException If we couldn't read the template from the classpath
+     */
+    @NotNull
+    public static LicenseTemplate of(@NotNull Licenses license) throws IOException {
+        synchronized (TEMPLATES) {
+            final LicenseTemplate cached = TEMPLATES.get(license);
+            if (cached != null) return cached;
+
+            final String tmplFile =
+                    switch (license) {
+                        case APACHE -> "/templates/apache.heading.tmpl";
+                        case MIT -> "/templates/mit.heading.tmpl";
+                    };
+
+            try (final InputStream stream =
+                    Objects.requireNonNull(LicenseTemplate.class.getResourceAsStream(tmplFile))) {
+                final LicenseTemplate template = parse(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+                TEMPLATES.put(license, template);
+
+                return template;
+            }
+        }
+    }
+
+    /**
+     * Parses a template into its segments.
+     * @param template The template contents
+     * @return parsed {@link LicenseTemplate}
+     */
+    @NotNull
+    public static LicenseTemplate parse(@NotNull String template) {
+        final List<Segment> segments = new ArrayList<>();
+        int cursor = 0;
+
+        while (cursor < template.length()) {
+            final int start = template.indexOf("{{", cursor);
+            final int end = start == -1 ? -1 : template.indexOf("}}", start);
+            if (start == -1 || end == -1) {
+                segments.add(new Segment(Kind.LITERAL, template.substring(cursor)));
+                break;
+            }
+
+            final Kind kind = Kind.fromPlaceholder(template.substring(start + 2, end).trim());
+            if (kind == null) {
+                // Not a placeholder we know about, so keep it as-is.
+                segments.add(new Segment(Kind.LITERAL, template.substring(cursor, end + 2)));
+                cursor = end + 2;
+                continue;
+            }
+
+            if (start > cursor) segments.add(new Segment(Kind.LITERAL, template.substring(cursor, start)));
+            cursor = end + 2;
+
+            // The emoji owns the space after it, so it can be dropped with the emoji if the project
+            // doesn't have one.
+            if (kind == Kind.EMOJI && template.startsWith(" ", cursor)) {
+                segments.add(new Segment(kind, " "));
+                cursor++;
+            } else {
+                segments.add(new Segment(kind, ""));
+            }
+        }
+
+        return new LicenseTemplate(segments);
+    }
+
+    /**
+     * Renders this template.
+     * @param name The name of the project
+     * @param description The description of this project
+     * @param currentYear Current year
+     * @param emoji project emoji, this can be blank
+     * @return rendered license heading
+     */
+    @NotNull
+    public String render(
+            @NotNull String name, @NotNull String description, @NotNull String currentYear, @NotNull String emoji) {
+        final StringBuilder builder =
+                new StringBuilder(literalLength + name.length() + description.length() + emoji.length() + 8);
+
+        for (Segment segment : segments) {
+            switch (segment.kind()) {
+                case LITERAL -> builder.append(segment.text());
+                case NAME -> builder.append(name);
+                case DESCRIPTION -> builder.append(description);
+                case CURRENT_YEAR -> builder.append(currentYear);
+                case EMOJI -> {
+                    if (!emoji.isBlank()) builder.append(emoji).append(segment.text());
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * @return the segments of this template
+     */
+    @NotNull
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Represents a segment of a {@link LicenseTemplate}.
+     * @param kind The kind of segment
+     * @param text The literal text, or the text that follows a placeholder
+     */
+    public record Segment(@NotNull Kind kind, @NotNull String text) {}
+
+    /**
+     * Represents the kind of {@link Segment}.
+     */
+    public enum Kind {
+        LITERAL,
+        NAME,
+        DESCRIPTION,
+        CURRENT_YEAR,
+        EMOJI;
+
+        private static Kind fromPlaceholder(String placeholder) {
+            return switch (placeholder) {
+                case "Name" -> NAME;
+                case "Description" -> DESCRIPTION;
+                case "CurrentYear" -> CURRENT_YEAR;
+                case "Emoji" -> EMOJI;
+                default -> null;
+            };
+        }
+    }
+}
@@ -26,12 +26,15 @@ package org.noelware.infra.gradle.plugins.library;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.javadoc.Javadoc;
 import org.gradle.jvm.tasks.Jar;
 import org.jetbrains.annotations.NotNull;
 import org.noelware.infra.gradle.plugins.module.JavaModulePlugin;
+import org.noelware.infra.gradle.plugins.module.ModuleUtils;
 import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
 
 /**
  * A plugin that is meant to be used with library projects. This configures the {@link JavaModulePlugin} alongside
@@ -40,25 +43,30 @@ import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
 public class JavaLibraryPlugin implements Plugin<Project> {
     @Override
     public void apply(@NotNull Project project) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        try (final ConfigurationProfiler.Scope ignored = profiler.scope("JavaLibraryPlugin.apply")) {
+            configure(project, profiler);
+        }
+    }
+
+    private void configure(@NotNull Project project, @NotNull ConfigurationProfiler profiler) {
         project.getPlugins().apply(JavaModulePlugin.class);
         project.getPlugins().apply("java-library");
         project.getPlugins().apply("maven-publish");
 
-        final NoelwareModuleExtension ext = project.getExtensions().findByType(NoelwareModuleExtension.class) != null
-                ? project.getExtensions().findByType(NoelwareModuleExtension.class)
-                : project.getExtensions().create("noelware", NoelwareModuleExtension.class);
-
-        assert ext != null : "extension couldn't be created";
+        final NoelwareModuleExtension ext = ModuleUtils.getOrCreateExtension(project);
+        final TaskProvider<Javadoc> javadocTask = project.getTasks().named(JavaPlugin.JAVADOC_TASK_NAME, Javadoc.class);
         final TaskProvider<Jar> javadocJar = project.getTasks().register("javadocJar", Jar.class, (jar) -> {
-            final Javadoc javadocTask = (Javadoc) project.getTasks().getByName("javadoc");
-
             jar.setDescription("Assemble Java documentation with Javadoc");
             jar.setGroup(JavaBasePlugin.DOCUMENTATION_GROUP);
             jar.getArchiveClassifier().set("javadoc");
             jar.from(javadocTask);
-            jar.dependsOn(javadocTask);
         });
 
-        LibraryUtils.configurePublishing(project, "java", javadocJar, ext);
+        profiler.time(
+                "LibraryUtils.configurePublishing",
+                () -> LibraryUtils.configurePublishing(project, "java", javadocJar, ext));
+
+        LibraryUtils.configureApiSnapshot(project);
     }
 }
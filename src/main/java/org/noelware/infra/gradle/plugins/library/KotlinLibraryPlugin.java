@@ -23,15 +23,30 @@
 
 package org.noelware.infra.gradle.plugins.library;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.jvm.tasks.Jar;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.dokka.gradle.AbstractDokkaTask;
+import org.noelware.infra.gradle.ByteSize;
+import org.noelware.infra.gradle.plugins.library.dokka.DokkaApiFingerprintTask;
+import org.noelware.infra.gradle.plugins.library.dokka.DokkaService;
 import org.noelware.infra.gradle.plugins.module.KotlinModulePlugin;
+import org.noelware.infra.gradle.plugins.module.ModuleUtils;
 import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
 
 /**
  * A plugin that is meant to be used with library projects. This configures the {@link KotlinModulePlugin} alongside
@@ -40,27 +55,117 @@ import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
 public class KotlinLibraryPlugin implements Plugin<Project> {
     @Override
     public void apply(@NotNull Project project) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        try (final ConfigurationProfiler.Scope ignored = profiler.scope("KotlinLibraryPlugin.apply")) {
+            configure(project, profiler);
+        }
+    }
+
+    private void configure(@NotNull Project project, @NotNull ConfigurationProfiler profiler) {
         project.getPlugins().apply(KotlinModulePlugin.class);
         project.getPlugins().apply("java-library");
         project.getPlugins().apply("maven-publish");
         project.getPlugins().apply("org.jetbrains.dokka");
 
-        final NoelwareModuleExtension ext = project.getExtensions().findByType(NoelwareModuleExtension.class) != null
-                ? project.getExtensions().findByType(NoelwareModuleExtension.class)
-                : project.getExtensions().create("noelware", NoelwareModuleExtension.class);
+        final NoelwareModuleExtension ext = ModuleUtils.getOrCreateExtension(project);
+        final TaskProvider<AbstractDokkaTask> javadocTask =
+                project.getTasks().named("dokkaHtml", AbstractDokkaTask.class);
 
-        assert ext != null : "extension couldn't be created";
-        final TaskProvider<Jar> javadocJar = project.getTasks().register("dokkaJar", Jar.class, (jar) -> {
-            final AbstractDokkaTask javadocTask =
-                    (AbstractDokkaTask) project.getTasks().getByName("dokkaHtml");
+        configureDokka(project, javadocTask);
 
+        final TaskProvider<Jar> javadocJar = project.getTasks().register("dokkaJar", Jar.class, (jar) -> {
             jar.setDescription("Assemble Kotlin documentation with Dokka");
             jar.setGroup(JavaBasePlugin.DOCUMENTATION_GROUP);
             jar.getArchiveClassifier().set("javadoc");
             jar.from(javadocTask);
-            jar.dependsOn(javadocTask);
         });
 
-        LibraryUtils.configurePublishing(project, "kotlin", javadocJar, ext);
+        profiler.time(
+                "LibraryUtils.configurePublishing",
+                () -> LibraryUtils.configurePublishing(project, "kotlin", javadocJar, ext));
+
+        LibraryUtils.configureApiSnapshot(project);
+    }
+
+    /**
+     * Bounds how many Dokka tasks can run at the same time by their heap size, and only lets Dokka run again
+     * when the public API (or its documentation) changed since the last time it ran.
+     */
+    private void configureDokka(@NotNull Project project, @NotNull TaskProvider<AbstractDokkaTask> dokkaTask) {
+        final Provider<DokkaService> service = DokkaService.register(project);
+        final SourceSet main = project.getExtensions()
+                .getByType(SourceSetContainer.class)
+                .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+
+        final TaskProvider<DokkaApiFingerprintTask> fingerprintTask = project.getTasks()
+                .register("dokkaApiFingerprint", DokkaApiFingerprintTask.class, (task) -> {
+                    task.setDescription("Computes the fingerprint of the public API that Dokka documents");
+                    task.getClasses().from(main.getOutput().getClassesDirs());
+                    task.getSources()
+                            .from(main.getAllSource().matching((pattern) -> pattern.include("**/*.kt", "**/*.java")));
+                    task.getIncludes().from(project.getBuildFile());
+                    task.getIncludes()
+                            .from(project.fileTree(project.getProjectDir(), (tree) -> tree.include("*.md")));
+
+                    task.getFingerprint()
+                            .set(project.getLayout().getBuildDirectory().file("noelware/dokka/api.fingerprint"));
+                });
+
+        final Provider<RegularFile> fingerprint = fingerprintTask.flatMap(DokkaApiFingerprintTask::getFingerprint);
+        final Provider<RegularFile> lastFingerprint =
+                project.getLayout().getBuildDirectory().file("noelware/dokka/api.fingerprint.last");
+
+        final boolean rerunTasks = project.getGradle().getStartParameter().isRerunTasks();
+        final Provider<String> maxHeapSize = DokkaService.maxHeapSize(project);
+        dokkaTask.configure((task) -> {
+            task.usesService(service);
+            task.getInputs().file(fingerprint).withPropertyName("noelwareApiFingerprint");
+
+            task.onlyIf("the public API or its documentation changed since Dokka last ran", (t) -> {
+                if (rerunTasks) return true;
+
+                final File last = lastFingerprint.get().getAsFile();
+                final boolean hasOutput = t.getOutputs().getFiles().getFiles().stream()
+                        .allMatch((output) -> output.exists() && !isEmptyDirectory(output));
+
+                return !hasOutput || !last.exists() || !sameContents(fingerprint.get().getAsFile(), last);
+            });
+
+            task.doFirst((t) -> {
+                final long heap = ByteSize.parse(maxHeapSize.get());
+                if (Runtime.getRuntime().maxMemory() < heap)
+                    t.getLogger()
+                            .warn(
+                                    "Dokka needs {} of heap, but the Gradle daemon only has {} bytes; raise `-Xmx` in"
+                                            + " `org.gradle.jvmargs` or lower"
+                                            + " `-Dorg.noelware.gradle.dokka.maxHeapSize`",
+                                    maxHeapSize.get(),
+                                    Runtime.getRuntime().maxMemory());
+            });
+
+            task.doLast((t) -> {
+                try {
+                    Files.copy(
+                            fingerprint.get().getAsFile().toPath(),
+                            lastFingerprint.get().getAsFile().toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new GradleException("Unable to record the public API fingerprint", e);
+                }
+            });
+        });
+    }
+
+    private static boolean isEmptyDirectory(File file) {
+        final String[] children = file.list();
+        return children != null && children.length == 0;
+    }
+
+    private static boolean sameContents(File first, File second) {
+        try {
+            return Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+        } catch (IOException e) {
+            return false;
+        }
     }
 }
@@ -26,24 +26,50 @@ package org.noelware.infra.gradle.plugins.library;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import org.apache.commons.text.CaseUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.attributes.Usage;
 import org.gradle.api.credentials.AwsCredentials;
+import org.gradle.api.file.CopySpec;
+import org.gradle.api.file.Directory;
+import org.gradle.api.java.archives.Manifest;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.publish.Publication;
 import org.gradle.api.publish.PublishingExtension;
 import org.gradle.api.publish.maven.MavenPublication;
+import org.gradle.api.publish.maven.tasks.PublishToMavenRepository;
+import org.gradle.api.publish.plugins.PublishingPlugin;
+import org.gradle.api.tasks.Copy;
+import org.gradle.api.tasks.Delete;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.AbstractArchiveTask;
 import org.gradle.jvm.tasks.Jar;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.ByteSize;
+import org.noelware.infra.gradle.plugins.library.api.ApiBuildTask;
+import org.noelware.infra.gradle.plugins.library.api.ApiCheckTask;
+import org.noelware.infra.gradle.plugins.library.archives.VerifyReproducibleArchivesTask;
+import org.noelware.infra.gradle.plugins.library.s3.S3PublishTask;
 import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
 
 public class LibraryUtils {
+    private static final String STAGING_REPOSITORY = "noelwareStaging";
+    private static final String STAGING_TASK_SUFFIX = "ToNoelwareStagingRepository";
+
     @ApiStatus.Internal
     public static void configurePublishing(
             @NotNull Project project,
@@ -73,19 +99,23 @@ public class LibraryUtils {
             }
         }
 
+        final Provider<Directory> stagingDirectory =
+                project.getLayout().getBuildDirectory().dir("noelware/s3-staging");
+
         final SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
         final String SOURCE_JAR_NAME = "%sSourcesJar".formatted(pluginSrc);
         final TaskProvider<Jar> sourcesJar = project.getTasks().register(SOURCE_JAR_NAME, Jar.class, (jar) -> {
             jar.getArchiveClassifier().set("sources");
-            jar.from(sourceSets.named("main", SourceSet.class).get().getAllSource());
+            jar.from(sourceSets.named(SourceSet.MAIN_SOURCE_SET_NAME).map(SourceSet::getAllSource));
         });
 
-        final String publicationName = ext.getMavenPublicationName()
-                .getOrElse(
-                        ext.getProjectName().getOrElse(project.getRootProject().getName()));
-
         project.getExtensions().configure(PublishingExtension.class, (publishing) -> {
-            publishing.publications((publications) -> {
+            // The publication can't be renamed once it's created, so it has to wait until the `noelware {}`
+            // block has set its name
+            project.afterEvaluate((p) -> publishing.publications((publications) -> {
+                final String publicationName = ext.getMavenPublicationName()
+                        .getOrElse(ext.getProjectName().getOrElse(project.getRootProject().getName()));
+
                 // Create the publication
                 //
                 // We have most of this empty, so we let the project do that instead
@@ -103,28 +133,226 @@ public class LibraryUtils {
                     final String pubName = CaseUtils.toCamelCase(publicationName + pluginSrc, false, '-', ' ', '_');
                     publications.create(pubName, MavenPublication.class, (pp) -> {
                         pp.from(project.getComponents().getByName(pluginSrc));
-                        pp.artifact(sourcesJar.get());
-                        pp.artifact(jarTaskProvider.get());
+                        pp.artifact(sourcesJar);
+                        pp.artifact(jarTaskProvider);
                     });
                 } else {
                     publications.create(publicationName, MavenPublication.class, (pub) -> {
                         pub.from(project.getComponents().getByName(pluginSrc));
 
-                        pub.artifact(sourcesJar.get());
-                        pub.artifact(jarTaskProvider.get());
+                        pub.artifact(sourcesJar);
+                        pub.artifact(jarTaskProvider);
                     });
                 }
-            });
+            }));
 
             publishing.repositories((repositories) -> {
                 repositories.maven((maven) -> {
-                    maven.setUrl(ext.getS3BucketUrl().getOrElse("s3://august/noelware/maven"));
+                    maven.setUrl(ext.getS3BucketUrl().orElse("s3://august/noelware/maven"));
                     maven.credentials(AwsCredentials.class, (creds) -> {
                         creds.setAccessKey(publishingProps.getProperty("s3.accessKey"));
                         creds.setSecretKey(publishingProps.getProperty("s3.secretKey"));
                     });
                 });
+
+                repositories.maven((maven) -> {
+                    maven.setName(STAGING_REPOSITORY);
+                    maven.setUrl(stagingDirectory);
+                });
+            });
+        });
+
+        configureS3Publishing(project, ext, publishingProps, stagingDirectory);
+        configureReproducibleArchives(
+                project,
+                List.of(project.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class), sourcesJar, jarTaskProvider));
+    }
+
+    /**
+     * Makes every archive of the project reproducible (so the same inputs always result in the same bytes), and
+     * registers the <code>verifyReproducibleArchives</code> task, which packs the given archives a second time
+     * and checks that both copies are identical.
+     *
+     * <p>Only the archiving is checked: each <code>{name}Repack</code> task packs the same compiled classes,
+     * sources and documentation again, it doesn't compile or generate them a second time.
+     */
+    private static void configureReproducibleArchives(Project project, List<TaskProvider<Jar>> archives) {
+        project.getTasks().withType(AbstractArchiveTask.class).configureEach((archive) -> {
+            archive.setPreserveFileTimestamps(false);
+            archive.setReproducibleFileOrder(true);
+
+            // Otherwise, the permissions depend on the umask of whoever built it
+            archive.setDirMode(0755);
+            archive.setFileMode(0644);
+        });
+
+        final Provider<Directory> repackedDirectory =
+                project.getLayout().getBuildDirectory().dir("noelware/reproducibility");
+
+        final JavaPluginExtension java = project.getExtensions().getByType(JavaPluginExtension.class);
+        final List<TaskProvider<Jar>> repackedArchives = new ArrayList<>();
+        for (TaskProvider<Jar> archive : archives) {
+            // The Repack tasks can't be configured from the original (or the other way around), so both
+            // share the contents and manifest of the original, which are filled in once it's configured
+            final CopySpec contents = project.copySpec();
+            final Manifest manifest = java.manifest();
+            archive.configure((original) -> {
+                contents.with(original);
+                manifest.from(original.getManifest());
             });
+
+            repackedArchives.add(project.getTasks().register(archive.getName() + "Repack", Jar.class, (jar) -> {
+                jar.setDescription("Packs the contents of `%s` a second time".formatted(archive.getName()));
+                jar.dependsOn(archive);
+                jar.with(contents);
+                jar.setManifest(manifest);
+                jar.getArchiveFileName().set(archive.flatMap(Jar::getArchiveFileName));
+                jar.getDestinationDirectory().set(repackedDirectory);
+
+                // The whole point is to pack it again
+                jar.getOutputs().upToDateWhen((t) -> false);
+            }));
+        }
+
+        project.getTasks().register("verifyReproducibleArchives", VerifyReproducibleArchivesTask.class, (task) -> {
+            task.setGroup(LifecycleBasePlugin.VERIFICATION_GROUP);
+            task.setDescription("Packs every published archive twice and checks that both copies are identical");
+
+            for (TaskProvider<Jar> archive : archives) task.getArchives().add(archive.flatMap(Jar::getArchiveFile));
+            for (TaskProvider<Jar> repacked : repackedArchives)
+                task.getRepackedArchives().add(repacked.flatMap(Jar::getArchiveFile));
+        });
+    }
+
+    /**
+     * Registers the tasks that keep track of the public API of a library:
+     *
+     * <ul>
+     *     <li><code>apiBuild</code> dumps the public API of the main classes (and runs with <code>assemble</code>)</li>
+     *     <li><code>apiDump</code> copies the dump to <code>api/{project}.api</code>, which should be committed</li>
+     *     <li><code>apiCheck</code> checks the dump against the committed snapshot (runs with <code>check</code>,
+     *     and only warns if there is no snapshot yet)</li>
+     * </ul>
+     *
+     * The fingerprint of the dump is published in the <code>apiFingerprintElements</code> configuration, so other
+     * projects (or CI caches) can key on the public API of the library instead of its bytes.
+     */
+    @ApiStatus.Internal
+    public static void configureApiSnapshot(@NotNull Project project) {
+        final SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
+        final String fileName = "%s.api".formatted(project.getName());
+
+        final TaskProvider<ApiBuildTask> apiBuild = project.getTasks()
+                .register("apiBuild", ApiBuildTask.class, (task) -> {
+                    task.setGroup(LifecycleBasePlugin.BUILD_GROUP);
+                    task.setDescription("Dumps the public API of the main classes");
+                    task.getClasses()
+                            .from(sourceSets
+                                    .named(SourceSet.MAIN_SOURCE_SET_NAME)
+                                    .map((sourceSet) -> sourceSet.getOutput().getClassesDirs()));
+
+                    task.getDump().set(project.getLayout().getBuildDirectory().file("noelware/api/" + fileName));
+                    task.getFingerprint()
+                            .set(project.getLayout().getBuildDirectory().file("noelware/api/" + fileName + ".sha256"));
+                });
+
+        project.getTasks().register("apiDump", Copy.class, (task) -> {
+            task.setGroup(LifecycleBasePlugin.BUILD_GROUP);
+            task.setDescription("Updates the committed snapshot of the public API");
+            task.from(apiBuild.flatMap(ApiBuildTask::getDump));
+            task.into(project.getLayout().getProjectDirectory().dir("api"));
+        });
+
+        final TaskProvider<ApiCheckTask> apiCheck = project.getTasks()
+                .register("apiCheck", ApiCheckTask.class, (task) -> {
+                    task.setGroup(LifecycleBasePlugin.VERIFICATION_GROUP);
+                    task.setDescription("Checks that the public API matches the committed snapshot");
+                    task.getDump().set(apiBuild.flatMap(ApiBuildTask::getDump));
+                    task.getSnapshot().set(project.getLayout().getProjectDirectory().file("api/" + fileName));
+                });
+
+        project.getTasks().named(LifecycleBasePlugin.ASSEMBLE_TASK_NAME).configure((task) -> task.dependsOn(apiBuild));
+        project.getTasks().named(LifecycleBasePlugin.CHECK_TASK_NAME).configure((task) -> task.dependsOn(apiCheck));
+
+        final Configuration fingerprintElements = project.getConfigurations()
+                .create("apiFingerprintElements", (configuration) -> {
+                    configuration.setDescription("The fingerprint of the public API of this library");
+                    configuration.setCanBeConsumed(true);
+                    configuration.setCanBeResolved(false);
+                    configuration
+                            .getAttributes()
+                            .attribute(
+                                    Usage.USAGE_ATTRIBUTE,
+                                    project.getObjects().named(Usage.class, "noelware-api-fingerprint"));
+                });
+
+        project.getArtifacts()
+                .add(fingerprintElements.getName(), apiBuild.flatMap(ApiBuildTask::getFingerprint), (artifact) -> {
+                    artifact.setType("sha256");
+                    artifact.builtBy(apiBuild);
+                });
+    }
+
+    private static boolean isStagingTask(Object dependency) {
+        final String name;
+        if (dependency instanceof Task task) name = task.getName();
+        else if (dependency instanceof TaskProvider<?> provider) name = provider.getName();
+        else name = String.valueOf(dependency);
+
+        return name.endsWith(STAGING_TASK_SUFFIX);
+    }
+
+    /**
+     * Registers the <code>publishToNoelwareS3</code> task, which stages all publications into a local
+     * repository first, and then uploads it with the {@link S3PublishTask}.
+     */
+    private static void configureS3Publishing(
+            Project project,
+            NoelwareModuleExtension ext,
+            Properties publishingProps,
+            Provider<Directory> stagingDirectory) {
+        final TaskProvider<Delete> cleanStaging = project.getTasks()
+                .register("cleanNoelwareStaging", Delete.class, (task) -> task.delete(stagingDirectory));
+
+        // Anything that was staged before would be uploaded again
+        project.getTasks().withType(PublishToMavenRepository.class).configureEach((task) -> {
+            if (task.getName().endsWith(STAGING_TASK_SUFFIX)) task.dependsOn(cleanStaging);
+        });
+
+        // The staging repository is only there for `publishToNoelwareS3`, so a plain `publish` shouldn't
+        // stage everything as well. The `maven-publish` plugin makes `publish` depend on every publication
+        // of every repository as they're added, including the publications that are created once the project
+        // is evaluated, so the staging tasks are filtered out after those.
+        project.afterEvaluate((p) -> p.getTasks()
+                .named(PublishingPlugin.PUBLISH_LIFECYCLE_TASK_NAME)
+                .configure((publish) -> publish.setDependsOn(publish.getDependsOn().stream()
+                        .filter((dependency) -> !isStagingTask(dependency))
+                        .toList())));
+
+        final ProviderFactory providers = project.getProviders();
+        project.getTasks().register("publishToNoelwareS3", S3PublishTask.class, (task) -> {
+            task.setGroup(PublishingPlugin.PUBLISH_TASK_GROUP);
+            task.setDescription("Publishes all publications to the S3 bucket, skipping artifacts that didn't change");
+            task.dependsOn("publishAllPublications" + STAGING_TASK_SUFFIX);
+
+            task.getStagingDirectory().set(stagingDirectory);
+            task.getRepositoryUrl().set(ext.getS3BucketUrl().orElse("s3://august/noelware/maven"));
+            task.getEndpoint().set(providers.systemProperty("org.noelware.gradle.s3.endpoint"));
+            task.getRegion().set(providers.systemProperty("org.noelware.gradle.s3.region").orElse("us-east-1"));
+            task.getConcurrency()
+                    .set(providers.systemProperty("org.noelware.gradle.s3.concurrency")
+                            .map(Integer::parseInt)
+                            .orElse(8));
+
+            task.getMultipartThreshold()
+                    .set(providers.systemProperty("org.noelware.gradle.s3.multipartThreshold")
+                            .map(ByteSize::parse)
+                            .orElse(16L * 1024 * 1024));
+
+            final String accessKey = publishingProps.getProperty("s3.accessKey");
+            final String secretKey = publishingProps.getProperty("s3.secretKey");
+            if (accessKey != null) task.getAccessKey().set(accessKey);
+            if (secretKey != null) task.getSecretKey().set(secretKey);
         });
     }
 }
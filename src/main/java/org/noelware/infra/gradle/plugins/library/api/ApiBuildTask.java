@@ -0,0 +1,87 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.api;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Dumps the public API (every public or protected class, field and method, with their descriptors) of the
+ * compiled classes of a library, and the SHA-256 fingerprint of that dump. The fingerprint only changes when
+ * the public API does, not when an implementation detail does.
+ */
+@CacheableTask
+public abstract class ApiBuildTask extends DefaultTask {
+    /**
+     * @return {@link ConfigurableFileCollection} of the directories of the compiled classes
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getClasses();
+
+    /**
+     * @return {@link RegularFileProperty} of where the API dump is written to
+     */
+    @OutputFile
+    public abstract RegularFileProperty getDump();
+
+    /**
+     * @return {@link RegularFileProperty} of where the fingerprint of the API dump is written to
+     */
+    @OutputFile
+    public abstract RegularFileProperty getFingerprint();
+
+    @TaskAction
+    public void build() throws IOException {
+        // Sorted by class name, so the dump doesn't depend on how the classes are laid out on disk
+        final Map<String, String> classes = new TreeMap<>();
+        getClasses().getAsFileTree().matching((pattern) -> pattern.include("**/*.class")).visit((details) -> {
+            if (details.isDirectory()) return;
+
+            try {
+                final ClassApi api = ClassApi.read(Files.readAllBytes(details.getFile().toPath()));
+                if (api != null) classes.put(api.name(), api.render());
+            } catch (IOException e) {
+                throw new GradleException("Unable to read class file [%s]".formatted(details.getPath()), e);
+            }
+        });
+
+        final String dump = String.join("\n", classes.values());
+        Files.writeString(getDump().get().getAsFile().toPath(), dump);
+        Files.writeString(getFingerprint().get().getAsFile().toPath(), Hashing.sha256(dump));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Checks that the public API of a library matches the snapshot that was committed with <code>apiDump</code>,
+ * so that changes to the public API are always intentional. Projects without a snapshot are only warned
+ * about, so nothing is checked until one is committed.
+ */
+public abstract class ApiCheckTask extends DefaultTask {
+    /**
+     * @return {@link RegularFileProperty} of the API dump of the current classes
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getDump();
+
+    /**
+     * @return {@link RegularFileProperty} of the committed snapshot, which might not exist yet
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getSnapshot();
+
+    @TaskAction
+    public void check() throws IOException {
+        final File snapshot = getSnapshot().get().getAsFile();
+
+        // This runs with `check`, which shouldn't start failing for projects that never opted into a snapshot
+        if (!snapshot.exists()) {
+            getLogger()
+                    .warn(
+                            "There is no public API snapshot at [{}] to check against, skipping. Run `apiDump` to"
+                                    + " create it, and commit it alongside the project.",
+                            snapshot);
+
+            return;
+        }
+
+        final Map<String, Set<String>> expected = parse(Files.readString(snapshot.toPath()));
+        final Map<String, Set<String>> actual =
+                parse(Files.readString(getDump().get().getAsFile().toPath()));
+
+        final List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+            final Set<String> members = actual.get(entry.getKey());
+            if (members == null) {
+                differences.add("- " + entry.getKey());
+                continue;
+            }
+
+            final List<String> changes = new ArrayList<>();
+            for (String member : entry.getValue()) if (!members.contains(member)) changes.add("    - " + member);
+            for (String member : members) if (!entry.getValue().contains(member)) changes.add("    + " + member);
+
+            if (!changes.isEmpty()) {
+                differences.add("  " + entry.getKey());
+                differences.addAll(changes);
+            }
+        }
+
+        for (String declaration : actual.keySet())
+            if (!expected.containsKey(declaration)) differences.add("+ " + declaration);
+
+        if (!differences.isEmpty())
+            throw new GradleException("""
+                    The public API of %s doesn't match its snapshot at [%s]:
+                    %s
+
+                    If this is intentional, run `apiDump` and commit the updated snapshot."""
+                    .formatted(getPath(), snapshot, String.join("\n", differences)));
+    }
+
+    /**
+     * Parses an API dump into the declarations of every class, and the members of each of them.
+     */
+    private static Map<String, Set<String>> parse(String dump) {
+        final Map<String, Set<String>> classes = new LinkedHashMap<>();
+        Set<String> members = null;
+
+        for (String line : dump.split("\n")) {
+            if (line.isBlank()) continue;
+            if (line.equals("}")) {
+                members = null;
+            } else if (line.startsWith("\t") && members != null) {
+                members.add(line.trim());
+            } else {
+                members = new LinkedHashSet<>();
+                classes.put(line.endsWith("{") ? line.substring(0, line.length() - 1).trim() : line, members);
+            }
+        }
+
+        return classes;
+    }
+}
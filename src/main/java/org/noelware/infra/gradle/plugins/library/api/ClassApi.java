@@ -0,0 +1,364 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents the public API of a compiled class: its own declaration and every public or protected
+ * member that isn't synthetic. This is read straight from the class file, so it doesn't need the class
+ * (or its dependencies) to be loadable.
+ *
+ * <p>Kotlin's <code>internal</code> declarations are public in the bytecode, so they are part of
+ * the API as far as this is concerned.
+ *
+ * <p>The annotations (including <code>kotlin.Metadata</code>, which is where Kotlin keeps the nullability
+ * and the parameter names of its declarations) and the <code>MethodParameters</code> are read as well, but
+ * aren't part of the rendered API.
+ *
+ * @param name The internal name of the class (i.e, <code>org/noelware/Example</code>)
+ * @param access The access flags of the class
+ * @param supertypes The internal names of the superclass and interfaces, without <code>java/lang/Object</code>
+ * @param signature The generic signature of the class, if it has one
+ * @param annotations The rendered annotations of the class
+ * @param members The public API members of the class, sorted by their name and descriptor
+ */
+@ApiStatus.Internal
+public record ClassApi(
+        @NotNull String name,
+        int access,
+        @NotNull List<String> supertypes,
+        @Nullable String signature,
+        @NotNull List<String> annotations,
+        @NotNull List<Member> members) {
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    /**
+     * Reads the public API of a class file.
+     *
+     * @param bytes The contents of the class file
+     * @return {@link ClassApi} of the class, or <code>null</code> if the class itself isn't public API.
+     * @throws IOException If the class file is malformed
+     */
+    public static @Nullable ClassApi read(byte @NotNull [] bytes) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) throw new IOException("Not a class file");
+
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        final ConstantPool pool = ConstantPool.read(in);
+        int access = in.readUnsignedShort();
+        final String name = pool.className(in.readUnsignedShort());
+        final int superIndex = in.readUnsignedShort();
+
+        final List<String> supertypes = new ArrayList<>();
+        if (superIndex != 0 && !pool.className(superIndex).equals("java/lang/Object"))
+            supertypes.add(pool.className(superIndex));
+
+        final int interfaces = in.readUnsignedShort();
+        for (int i = 0; i < interfaces; i++) supertypes.add(pool.className(in.readUnsignedShort()));
+
+        final List<Member> members = new ArrayList<>();
+        for (Member.Kind kind : Member.Kind.values()) {
+            final int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                final int memberAccess = in.readUnsignedShort();
+                final String memberName = pool.utf8(in.readUnsignedShort());
+                final String descriptor = pool.utf8(in.readUnsignedShort());
+                String memberSignature = null;
+                final List<String> memberAnnotations = new ArrayList<>();
+                final List<String> parameters = new ArrayList<>();
+
+                final int attributes = in.readUnsignedShort();
+                for (int j = 0; j < attributes; j++) {
+                    final String attribute = pool.utf8(in.readUnsignedShort());
+                    final int length = in.readInt();
+                    switch (attribute) {
+                        case "Signature" -> memberSignature = pool.utf8(in.readUnsignedShort());
+                        case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> readAnnotations(
+                                in, pool, memberAnnotations);
+
+                        case "RuntimeVisibleParameterAnnotations", "RuntimeInvisibleParameterAnnotations" -> {
+                            final int parameterCount = in.readUnsignedByte();
+                            for (int parameter = 0; parameter < parameterCount; parameter++) {
+                                final List<String> annotations = new ArrayList<>();
+                                readAnnotations(in, pool, annotations);
+                                for (String annotation : annotations)
+                                    memberAnnotations.add("p%d %s".formatted(parameter, annotation));
+                            }
+                        }
+
+                        case "MethodParameters" -> {
+                            final int parameterCount = in.readUnsignedByte();
+                            for (int parameter = 0; parameter < parameterCount; parameter++) {
+                                final int parameterName = in.readUnsignedShort();
+                                final int parameterAccess = in.readUnsignedShort();
+                                parameters.add(((parameterAccess & ACC_FINAL) != 0 ? "final " : "")
+                                        + (parameterName == 0 ? "" : pool.utf8(parameterName)));
+                            }
+                        }
+
+                        default -> in.skipNBytes(length);
+                    }
+                }
+
+                // Annotations don't have to be in the same order every time the class is compiled
+                memberAnnotations.sort(null);
+                if (isApi(memberAccess))
+                    members.add(new Member(
+                            kind,
+                            memberAccess,
+                            memberName,
+                            descriptor,
+                            memberSignature,
+                            List.copyOf(memberAnnotations),
+                            List.copyOf(parameters)));
+            }
+        }
+
+        String signature = null;
+        final List<String> annotations = new ArrayList<>();
+        final int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            final String attribute = pool.utf8(in.readUnsignedShort());
+            final int length = in.readInt();
+            switch (attribute) {
+                case "Signature" -> signature = pool.utf8(in.readUnsignedShort());
+                case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> readAnnotations(
+                        in, pool, annotations);
+                case "InnerClasses" -> {
+                    // The access flags of a nested class are only kept here, the class file itself
+                    // says that a private nested class is package-private.
+                    final int classes = in.readUnsignedShort();
+                    for (int j = 0; j < classes; j++) {
+                        final int inner = in.readUnsignedShort();
+                        in.readUnsignedShort(); // outer class
+                        in.readUnsignedShort(); // simple name
+                        final int innerAccess = in.readUnsignedShort();
+                        if (pool.className(inner).equals(name)) access = innerAccess | (access & ACC_SYNTHETIC);
+                    }
+                }
+
+                default -> in.skipNBytes(length);
+            }
+        }
+
+        if (!isApi(access)) return null;
+
+        annotations.sort(null);
+        members.sort(Comparator.comparing(Member::name).thenComparing(Member::descriptor));
+        return new ClassApi(
+                name, access, List.copyOf(supertypes), signature, List.copyOf(annotations), List.copyOf(members));
+    }
+
+    private static void readAnnotations(DataInputStream in, ConstantPool pool, List<String> into)
+            throws IOException {
+        final int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) into.add(readAnnotation(in, pool));
+    }
+
+    /**
+     * Reads an annotation, with the constants it refers to resolved, so the result doesn't depend on where
+     * they ended up in the constant pool (i.e, <code>@Lkotlin/Metadata;(k=1, mv=[1, 8, 0], ...)</code>).
+     */
+    private static String readAnnotation(DataInputStream in, ConstantPool pool) throws IOException {
+        final StringBuilder builder = new StringBuilder("@").append(pool.utf8(in.readUnsignedShort()));
+        final int pairs = in.readUnsignedShort();
+
+        builder.append('(');
+        for (int i = 0; i < pairs; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(pool.utf8(in.readUnsignedShort())).append('=').append(readElementValue(in, pool));
+        }
+
+        return builder.append(')').toString();
+    }
+
+    private static String readElementValue(DataInputStream in, ConstantPool pool) throws IOException {
+        final int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z' -> pool.constant(in.readUnsignedShort());
+            case 's' -> '"' + pool.utf8(in.readUnsignedShort()) + '"';
+            case 'e' -> pool.utf8(in.readUnsignedShort()) + '.' + pool.utf8(in.readUnsignedShort());
+            case 'c' -> pool.utf8(in.readUnsignedShort()) + ".class";
+            case '@' -> readAnnotation(in, pool);
+            case '[' -> {
+                final int count = in.readUnsignedShort();
+                final List<String> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) values.add(readElementValue(in, pool));
+
+                yield values.toString();
+            }
+
+            default -> throw new IOException("Unknown annotation element tag %c".formatted(tag));
+        };
+    }
+
+    /**
+     * Renders the API of this class in the same format as Kotlin's binary-compatibility-validator:
+     *
+     * <pre>
+     * public final class org/noelware/Example : org/noelware/Base {
+     * 	public fun &lt;init&gt; ()V
+     * 	public final fun getName ()Ljava/lang/String;
+     * }
+     * </pre>
+     *
+     * @return the rendered API, with a trailing new line
+     */
+    public @NotNull String render() {
+        final StringBuilder builder =
+                new StringBuilder(modifiers(access, true)).append(kind()).append(' ').append(name);
+        if (!supertypes.isEmpty()) builder.append(" : ").append(String.join(", ", supertypes));
+
+        builder.append(" {\n");
+        for (Member member : members) builder.append('\t').append(member.render()).append('\n');
+
+        return builder.append("}\n").toString();
+    }
+
+    private String kind() {
+        if ((access & ACC_ANNOTATION) != 0) return "annotation class";
+        if ((access & ACC_INTERFACE) != 0) return "interface";
+        if ((access & ACC_ENUM) != 0) return "enum class";
+
+        return "class";
+    }
+
+    private static boolean isApi(int access) {
+        return (access & ACC_SYNTHETIC) == 0 && (access & (ACC_PUBLIC | ACC_PROTECTED)) != 0;
+    }
+
+    private static String modifiers(int access, boolean isClass) {
+        final StringBuilder builder = new StringBuilder((access & ACC_PROTECTED) != 0 ? "protected " : "public ");
+        // Nested classes are static in the InnerClasses attribute, interfaces are always abstract, so
+        // both are only noise for classes.
+        if ((access & ACC_STATIC) != 0 && !isClass) builder.append("static ");
+        if ((access & ACC_ABSTRACT) != 0 && !(isClass && (access & ACC_INTERFACE) != 0)) builder.append("abstract ");
+        if ((access & ACC_FINAL) != 0) builder.append("final ");
+
+        return builder.toString();
+    }
+
+    /**
+     * Represents a public or protected field or method of a class.
+     *
+     * @param kind If this is a field or a method
+     * @param access The access flags of the member
+     * @param name The name of the member
+     * @param descriptor The JVM descriptor of the member
+     * @param signature The generic signature of the member, if it has one
+     * @param annotations The rendered annotations of the member and its parameters
+     * @param parameters The names of the parameters from the <code>MethodParameters</code> attribute, if the
+     *                   class was compiled with them
+     */
+    public record Member(
+            @NotNull Kind kind,
+            int access,
+            @NotNull String name,
+            @NotNull String descriptor,
+            @Nullable String signature,
+            @NotNull List<String> annotations,
+            @NotNull List<String> parameters) {
+        /**
+         * @return the rendered member (i.e, <code>public final fun getName ()Ljava/lang/String;</code>)
+         */
+        public @NotNull String render() {
+            return modifiers(access, false) + (kind == Kind.FIELD ? "field " : "fun ") + name + ' ' + descriptor;
+        }
+
+        /** The order of these matches the order of the sections in a class file */
+        public enum Kind {
+            FIELD,
+            METHOD
+        }
+    }
+
+    private record ConstantPool(String[] strings, int[] classes) {
+        static ConstantPool read(DataInputStream in) throws IOException {
+            final int count = in.readUnsignedShort();
+            final String[] strings = new String[count];
+            final int[] classes = new int[count];
+
+            for (int i = 1; i < count; i++) {
+                final int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1 -> strings[i] = in.readUTF();
+                    case 3 -> strings[i] = String.valueOf(in.readInt());
+                    case 4 -> strings[i] = String.valueOf(in.readFloat());
+                    case 5 -> {
+                        // Longs and doubles take up two entries
+                        strings[i] = String.valueOf(in.readLong());
+                        i++;
+                    }
+
+                    case 6 -> {
+                        strings[i] = String.valueOf(in.readDouble());
+                        i++;
+                    }
+
+                    case 7 -> classes[i] = in.readUnsignedShort();
+                    case 8, 16, 19, 20 -> in.skipNBytes(2);
+                    case 15 -> in.skipNBytes(3);
+                    case 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+
+                    default -> throw new IOException("Unknown constant pool tag %d".formatted(tag));
+                }
+            }
+
+            return new ConstantPool(strings, classes);
+        }
+
+        String utf8(int index) {
+            return strings[index];
+        }
+
+        /** Integers, floats, longs and doubles are kept as their string value */
+        String constant(int index) {
+            return strings[index];
+        }
+
+        String className(int index) {
+            return strings[classes[index]];
+        }
+    }
+}
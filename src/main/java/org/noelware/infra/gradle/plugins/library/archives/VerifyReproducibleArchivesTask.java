@@ -0,0 +1,131 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.archives;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Checks that the archives a project publishes are reproducible: every archive is packed a second time
+ * from the same files (into <code>build/noelware/reproducibility</code>), and both copies have to be
+ * byte-for-byte identical. If they aren't, the entries that differ are reported.
+ *
+ * <p>This only checks the archiving (entry order, timestamps and permissions); the classes, sources and
+ * documentation in both copies are the same files, so a compiler that isn't deterministic isn't caught.
+ */
+public abstract class VerifyReproducibleArchivesTask extends DefaultTask {
+    /** How many differences are reported for a single archive */
+    private static final int MAX_DIFFERENCES = 10;
+
+    /**
+     * @return {@link ListProperty} of the archives that were built by their original tasks
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ListProperty<RegularFile> getArchives();
+
+    /**
+     * @return {@link ListProperty} of the same archives packed a second time, in the same order as
+     * {@link #getArchives()}
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ListProperty<RegularFile> getRepackedArchives();
+
+    @TaskAction
+    public void verify() throws IOException {
+        final List<RegularFile> archives = getArchives().get();
+        final List<RegularFile> repackedArchives = getRepackedArchives().get();
+        if (archives.size() != repackedArchives.size())
+            throw new GradleException("Expected %d repacked archives, received %d"
+                    .formatted(archives.size(), repackedArchives.size()));
+
+        final List<String> failures = new ArrayList<>();
+        for (int i = 0; i < archives.size(); i++) {
+            final File archive = archives.get(i).getAsFile();
+            final File repacked = repackedArchives.get(i).getAsFile();
+
+            if (Files.mismatch(archive.toPath(), repacked.toPath()) == -1L) {
+                getLogger().info("Archive [{}] is reproducible", archive.getName());
+                continue;
+            }
+
+            final StringBuilder builder = new StringBuilder("  * %s:".formatted(archive.getName()));
+            for (String difference : differences(archive, repacked)) builder.append("\n      - ").append(difference);
+
+            failures.add(builder.toString());
+        }
+
+        if (!failures.isEmpty())
+            throw new GradleException("%d archive(s) aren't reproducible, packing them twice gave different bytes:\n%s"
+                    .formatted(failures.size(), String.join("\n", failures)));
+
+        getLogger().lifecycle("All {} archive(s) are reproducible", archives.size());
+    }
+
+    private static List<String> differences(File archive, File repacked) throws IOException {
+        final List<String> differences = new ArrayList<>();
+        try (final ZipFile first = new ZipFile(archive);
+                final ZipFile second = new ZipFile(repacked)) {
+            final List<? extends ZipEntry> firstEntries = Collections.list(first.entries());
+            final List<? extends ZipEntry> secondEntries = Collections.list(second.entries());
+
+            if (!firstEntries.stream().map(ZipEntry::getName).toList()
+                    .equals(secondEntries.stream().map(ZipEntry::getName).toList()))
+                differences.add("the entries are not in the same order (or aren't the same entries)");
+
+            for (ZipEntry entry : firstEntries) {
+                if (differences.size() >= MAX_DIFFERENCES) break;
+
+                final ZipEntry other = second.getEntry(entry.getName());
+                if (other == null) continue;
+
+                if (entry.getTime() != other.getTime())
+                    differences.add("%s: timestamps differ (%d != %d)"
+                            .formatted(entry.getName(), entry.getTime(), other.getTime()));
+
+                if (entry.getCrc() != other.getCrc())
+                    differences.add("%s: contents differ".formatted(entry.getName()));
+            }
+        }
+
+        // The archives differ in something that isn't part of an entry (i.e, the permissions or the comment)
+        if (differences.isEmpty()) differences.add("the archive metadata differs");
+        return differences;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.dokka;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.noelware.infra.gradle.Hashing;
+import org.noelware.infra.gradle.plugins.library.api.ClassApi;
+
+/**
+ * Computes a fingerprint of everything Dokka renders: the public API of the compiled classes (including
+ * their annotations and parameter names, so changing the nullability of a parameter counts), the
+ * documentation comments in the sources, and the Markdown files that can be included as module and
+ * package documentation. Changing the body of a function doesn't change the fingerprint, so the
+ * documentation doesn't have to be generated again.
+ */
+public abstract class DokkaApiFingerprintTask extends DefaultTask {
+    private static final Pattern DOC_COMMENT = Pattern.compile("/\\*\\*.*?\\*/", Pattern.DOTALL);
+
+    /**
+     * @return {@link ConfigurableFileCollection} of the directories of the compiled classes
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getClasses();
+
+    /**
+     * @return {@link ConfigurableFileCollection} of the Kotlin and Java sources, only the documentation
+     * comments are part of the fingerprint
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    /**
+     * @return {@link ConfigurableFileCollection} of the other files that change the documentation, like the
+     * Markdown includes or the build script that configures Dokka
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getIncludes();
+
+    /**
+     * @return {@link RegularFileProperty} of where the fingerprint is written to
+     */
+    @OutputFile
+    public abstract RegularFileProperty getFingerprint();
+
+    @TaskAction
+    public void fingerprint() throws IOException {
+        final MessageDigest digest = Hashing.sha256Digest();
+
+        // Visiting a file tree is always done in a stable order, so the fingerprint is as well
+        getClasses().getAsFileTree().matching((pattern) -> pattern.include("**/*.class")).visit((details) -> {
+            if (details.isDirectory()) return;
+
+            final ClassApi api = read(details);
+            if (api == null) return;
+
+            update(digest, api.render());
+            update(digest, String.valueOf(api.signature()));
+            for (String annotation : api.annotations()) update(digest, annotation);
+
+            // The nullability and the parameter names are in the annotations (kotlin.Metadata for Kotlin
+            // classes) and the MethodParameters, which the rendered API leaves out
+            for (ClassApi.Member member : api.members()) {
+                update(digest, member.name() + member.descriptor());
+                update(digest, String.valueOf(member.signature()));
+                for (String annotation : member.annotations()) update(digest, annotation);
+                for (String parameter : member.parameters()) update(digest, parameter);
+            }
+        });
+
+        getSources().getAsFileTree().visit((details) -> {
+            if (details.isDirectory()) return;
+
+            update(digest, details.getRelativePath().getPathString());
+            final Matcher matcher = DOC_COMMENT.matcher(readString(details.getFile()));
+            while (matcher.find()) update(digest, matcher.group());
+        });
+
+        for (File include : getIncludes().getFiles()) {
+            if (!include.isFile()) continue;
+
+            update(digest, include.getName());
+            update(digest, readString(include));
+        }
+
+        final String fingerprint = HexFormat.of().formatHex(digest.digest());
+        Files.writeString(getFingerprint().get().getAsFile().toPath(), fingerprint);
+        getLogger().info("Public API fingerprint of {} is {}", getPath(), fingerprint);
+    }
+
+    private static ClassApi read(FileVisitDetails details) {
+        try {
+            return ClassApi.read(Files.readAllBytes(details.getFile().toPath()));
+        } catch (IOException e) {
+            throw new GradleException("Unable to read class file [%s]".formatted(details.getPath()), e);
+        }
+    }
+
+    // Bytes that aren't valid UTF-8 are replaced instead of failing the task
+    private static String readString(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("Unable to read file [%s]".formatted(file), e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
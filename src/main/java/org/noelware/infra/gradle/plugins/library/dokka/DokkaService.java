@@ -0,0 +1,77 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.dokka;
+
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.ByteSize;
+
+/**
+ * Build-scoped {@link BuildService} that bounds how many Dokka tasks can run at the same time. Dokka
+ * generates the documentation inside the Gradle daemon, so every Dokka task that runs at the same time
+ * needs its own share of the daemon's heap; this only allows as many as there are shares of the
+ * <code>org.noelware.gradle.dokka.maxHeapSize</code> system property (<code>1g</code> by default) in it.
+ *
+ * <p>The service is shared by every project in the build, so its heap size is a build-level setting
+ * instead of a project-level one.
+ */
+public abstract class DokkaService implements BuildService<BuildServiceParameters.None> {
+    private static final String NAME = "noelwareDokka";
+    private static final String MAX_HEAP_SIZE_PROPERTY = "org.noelware.gradle.dokka.maxHeapSize";
+    private static final String DEFAULT_MAX_HEAP_SIZE = "1g";
+
+    /**
+     * Registers the {@link DokkaService} for the build if it wasn't already.
+     *
+     * @param project The project that is requesting the service
+     * @return {@link Provider} of the service
+     */
+    public static Provider<DokkaService> register(@NotNull Project project) {
+        final long daemonHeap = Runtime.getRuntime().maxMemory();
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, DokkaService.class, (spec) -> spec
+                .getMaxParallelUsages()
+                .set(maxHeapSize(project).map((heap) -> usages(daemonHeap, ByteSize.parse(heap)))));
+    }
+
+    /**
+     * @param project The project that is requesting it
+     * @return {@link Provider} of how much heap (i.e, "1g") each Dokka task needs
+     */
+    public static Provider<String> maxHeapSize(@NotNull Project project) {
+        return project.getProviders().systemProperty(MAX_HEAP_SIZE_PROPERTY).orElse(DEFAULT_MAX_HEAP_SIZE);
+    }
+
+    /**
+     * @param daemonHeap The maximum heap size of the Gradle daemon, in bytes
+     * @param dokkaHeap The heap size that a single Dokka task needs, in bytes
+     * @return how many Dokka tasks can run at the same time, this is always at least one
+     */
+    static int usages(long daemonHeap, long dokkaHeap) {
+        // The rest of the build needs some room as well
+        return (int) Math.max(1, (daemonHeap / 2) / Math.max(1, dokkaHeap));
+    }
+}
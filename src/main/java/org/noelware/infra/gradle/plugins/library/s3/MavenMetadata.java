@@ -0,0 +1,142 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Merges a <code>maven-metadata.xml</code> that was staged by Gradle with the one that is already in the
+ * bucket. The staging repository only knows about the versions that were just published, so the versions
+ * of the remote one are kept, and the rest (<code>latest</code>, <code>release</code>, <code>lastUpdated</code>,
+ * and the snapshot versions) comes from the staged one.
+ */
+@ApiStatus.Internal
+public class MavenMetadata {
+    private MavenMetadata() {}
+
+    /**
+     * @param remote The metadata in the bucket, or <code>null</code> if there isn't any
+     * @param staged The metadata that was staged
+     * @return the merged metadata
+     */
+    public static byte @NotNull [] merge(byte @Nullable [] remote, byte @NotNull [] staged) {
+        if (remote == null) return staged;
+
+        try {
+            final DocumentBuilder builder = newDocumentBuilder();
+            final Document stagedDocument = builder.parse(new ByteArrayInputStream(staged));
+            final Element stagedVersions = child(child(stagedDocument.getDocumentElement(), "versioning"), "versions");
+
+            // Version-level metadata of snapshots doesn't have a version list
+            if (stagedVersions == null) return staged;
+
+            final Document remoteDocument = builder.parse(new ByteArrayInputStream(remote));
+            final Element remoteVersioning = child(remoteDocument.getDocumentElement(), "versioning");
+            final Set<String> versions = new LinkedHashSet<>(versionsOf(child(remoteVersioning, "versions")));
+            versions.addAll(versionsOf(stagedVersions));
+
+            while (stagedVersions.hasChildNodes()) stagedVersions.removeChild(stagedVersions.getFirstChild());
+            for (String version : versions) {
+                final Element element = stagedDocument.createElement("version");
+                element.setTextContent(version);
+                stagedVersions.appendChild(element);
+            }
+
+            // Publishing a snapshot doesn't make it the release
+            final Element stagedVersioning = (Element) stagedVersions.getParentNode();
+            final Element remoteRelease = child(remoteVersioning, "release");
+            if (child(stagedVersioning, "release") == null && remoteRelease != null) {
+                stagedVersioning.insertBefore(stagedDocument.importNode(remoteRelease, true), stagedVersions);
+            }
+
+            final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            stagedDocument.getDocumentElement().normalize();
+            transformer.transform(new DOMSource(stagedDocument), new StreamResult(out));
+
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new GradleException("Unable to merge maven-metadata.xml", e);
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setIgnoringElementContentWhitespace(true);
+
+        return factory.newDocumentBuilder();
+    }
+
+    @Nullable
+    private static Element child(@Nullable Element parent, String name) {
+        if (parent == null) return null;
+
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node node = children.item(i);
+            if (node instanceof Element element && element.getTagName().equals(name)) return element;
+        }
+
+        return null;
+    }
+
+    private static List<String> versionsOf(@Nullable Element versions) {
+        final List<String> result = new ArrayList<>();
+        if (versions == null) return result;
+
+        final NodeList children = versions.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element element && element.getTagName().equals("version"))
+                result.add(element.getTextContent().trim());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Minimal S3 client for publishing Maven artifacts, which only implements the calls that the
+ * {@link S3PublishTask} needs. Buckets are always addressed path-style (<code>{endpoint}/{bucket}/{key}</code>),
+ * so it works with S3-compatible storage like MinIO as well.
+ */
+public class S3Client {
+    /**
+     * User metadata that holds the SHA-256 of an object, since the ETag of a multipart upload isn't a
+     * checksum of the object.
+     */
+    public static final String SHA256_METADATA = "x-amz-meta-sha256";
+
+    private static final String EMPTY_SHA256 = Hashing.sha256(new byte[0]);
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final URI endpoint;
+    private final String bucket;
+    private final SigV4Signer signer;
+
+    public S3Client(@NotNull URI endpoint, @NotNull String bucket, @NotNull SigV4Signer signer) {
+        this.endpoint = endpoint.toString().endsWith("/") ? endpoint : URI.create(endpoint + "/");
+        this.bucket = bucket;
+        this.signer = signer;
+    }
+
+    /**
+     * @param key The key of the object
+     * @return the SHA-256 of the object, an empty string if the object doesn't have one, or <code>null</code>
+     * if the object doesn't exist.
+     */
+    @Nullable
+    public String headSha256(@NotNull String key) {
+        final HttpResponse<Void> response = send(
+                "HEAD",
+                key,
+                null,
+                Map.of(),
+                HttpRequest.BodyPublishers.noBody(),
+                EMPTY_SHA256,
+                HttpResponse.BodyHandlers.discarding());
+
+        if (response.statusCode() == 404) return null;
+        expectSuccess("HEAD", key, response.statusCode(), null);
+
+        return response.headers().firstValue(SHA256_METADATA).orElse("");
+    }
+
+    /**
+     * @param key The key of the object
+     * @return the contents of the object, or <code>null</code> if it doesn't exist
+     */
+    public byte @Nullable [] get(@NotNull String key) {
+        final HttpResponse<byte[]> response = send(
+                "GET",
+                key,
+                null,
+                Map.of(),
+                HttpRequest.BodyPublishers.noBody(),
+                EMPTY_SHA256,
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() == 404) return null;
+        expectSuccess("GET", key, response.statusCode(), response.body());
+
+        return response.body();
+    }
+
+    /**
+     * Uploads an object in a single request.
+     *
+     * @param key The key of the object
+     * @param body The contents
+     * @param sha256 The hex-encoded SHA-256 of the contents
+     */
+    public void put(@NotNull String key, byte @NotNull [] body, @NotNull String sha256) {
+        final HttpResponse<byte[]> response = send(
+                "PUT",
+                key,
+                null,
+                Map.of(SHA256_METADATA, sha256),
+                HttpRequest.BodyPublishers.ofByteArray(body),
+                sha256,
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        expectSuccess("PUT", key, response.statusCode(), response.body());
+    }
+
+    /**
+     * Starts a multipart upload.
+     *
+     * @param key The key of the object
+     * @param sha256 The hex-encoded SHA-256 of the whole object, which is kept as its metadata
+     * @return the ID of the upload
+     */
+    @NotNull
+    public String createMultipartUpload(@NotNull String key, @NotNull String sha256) {
+        final HttpResponse<byte[]> response = send(
+                "POST",
+                key,
+                "uploads=",
+                Map.of(SHA256_METADATA, sha256),
+                HttpRequest.BodyPublishers.noBody(),
+                EMPTY_SHA256,
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        expectSuccess("POST", key, response.statusCode(), response.body());
+
+        final Matcher matcher = UPLOAD_ID.matcher(new String(response.body(), StandardCharsets.UTF_8));
+        if (!matcher.find()) throw new GradleException("S3 didn't return an upload ID for [%s]".formatted(key));
+
+        return matcher.group(1);
+    }
+
+    /**
+     * Uploads a part of a multipart upload.
+     *
+     * @param key The key of the object
+     * @param uploadId The ID of the upload
+     * @param partNumber The number of the part, starting from 1
+     * @param body The contents of the part
+     * @return the ETag of the part
+     */
+    @NotNull
+    public String uploadPart(@NotNull String key, @NotNull String uploadId, int partNumber, byte @NotNull [] body) {
+        final HttpResponse<byte[]> response = send(
+                "PUT",
+                key,
+                "partNumber=%d&uploadId=%s".formatted(partNumber, SigV4Signer.encode(uploadId, false)),
+                Map.of(),
+                HttpRequest.BodyPublishers.ofByteArray(body),
+                Hashing.sha256(body),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        expectSuccess("PUT", key, response.statusCode(), response.body());
+        return response.headers()
+                .firstValue("ETag")
+                .orElseThrow(() -> new GradleException(
+                        "S3 didn't return an ETag for part %d of [%s]".formatted(partNumber, key)));
+    }
+
+    /**
+     * Completes a multipart upload.
+     *
+     * @param key The key of the object
+     * @param uploadId The ID of the upload
+     * @param etags The ETags of every part, in order
+     */
+    public void completeMultipartUpload(@NotNull String key, @NotNull String uploadId, @NotNull List<String> etags) {
+        final StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+        for (int i = 0; i < etags.size(); i++) {
+            xml.append("<Part><PartNumber>")
+                    .append(i + 1)
+                    .append("</PartNumber><ETag>")
+                    .append(etags.get(i))
+                    .append("</ETag></Part>");
+        }
+
+        final byte[] body = xml.append("</CompleteMultipartUpload>").toString().getBytes(StandardCharsets.UTF_8);
+        final HttpResponse<byte[]> response = send(
+                "POST",
+                key,
+                "uploadId=" + SigV4Signer.encode(uploadId, false),
+                Map.of(),
+                HttpRequest.BodyPublishers.ofByteArray(body),
+                Hashing.sha256(body),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        // S3 can return an error in the body of a successful response
+        expectSuccess("POST", key, response.statusCode(), response.body());
+        if (new String(response.body(), StandardCharsets.UTF_8).contains("<Error>"))
+            throw new GradleException("Unable to complete multipart upload of [%s]: %s"
+                    .formatted(key, new String(response.body(), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Aborts a multipart upload, so its parts aren't kept (and billed) forever.
+     *
+     * @param key The key of the object
+     * @param uploadId The ID of the upload
+     */
+    public void abortMultipartUpload(@NotNull String key, @NotNull String uploadId) {
+        send(
+                "DELETE",
+                key,
+                "uploadId=" + SigV4Signer.encode(uploadId, false),
+                Map.of(),
+                HttpRequest.BodyPublishers.noBody(),
+                EMPTY_SHA256,
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private <T> HttpResponse<T> send(
+            String method,
+            String key,
+            @Nullable String query,
+            Map<String, String> headers,
+            HttpRequest.BodyPublisher body,
+            String payloadHash,
+            HttpResponse.BodyHandler<T> handler) {
+        final URI uri = endpoint.resolve(SigV4Signer.encode(bucket, false)
+                + "/"
+                + SigV4Signer.encode(key, true)
+                + (query != null ? "?" + query : ""));
+
+        final HttpRequest.Builder request =
+                HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).method(method, body);
+
+        signer.sign(method, uri, headers, payloadHash).forEach(request::header);
+
+        try {
+            return client.send(request.build(), handler);
+        } catch (IOException e) {
+            throw new GradleException("Unable to reach S3 for %s [%s]".formatted(method, key), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while reaching S3 for %s [%s]".formatted(method, key), e);
+        }
+    }
+
+    private static void expectSuccess(String method, String key, int status, byte @Nullable [] body) {
+        if (status / 100 == 2) return;
+
+        throw new GradleException("S3 returned status code %d for %s [%s]%s"
+                .formatted(status, method, key, body != null ? ": " + new String(body, StandardCharsets.UTF_8) : ""));
+    }
+}
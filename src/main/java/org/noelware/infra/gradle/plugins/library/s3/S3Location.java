@@ -0,0 +1,61 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.net.URI;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents where a Maven repository lives in a S3 bucket, i.e, <code>s3://august/noelware/maven</code>.
+ *
+ * @param bucket The name of the bucket
+ * @param prefix The key prefix of the repository, without any leading or trailing slashes
+ */
+public record S3Location(@NotNull String bucket, @NotNull String prefix) {
+    /**
+     * Parses a <code>s3://</code> URL.
+     * @param url The URL
+     * @return the {@link S3Location}
+     * @throws GradleException If the URL isn't a <code>s3://</code> URL
+     */
+    @NotNull
+    public static S3Location parse(@NotNull String url) {
+        final URI uri = URI.create(url);
+        if (!"s3".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null)
+            throw new GradleException("Expected a `s3://<bucket>/<prefix>` URL, received [%s]".formatted(url));
+
+        final String path = uri.getPath() == null ? "" : uri.getPath();
+        return new S3Location(uri.getHost(), path.replaceAll("^/+|/+$", ""));
+    }
+
+    /**
+     * @param path The path of a file in the repository, i.e, <code>org/noelware/foo/1.0/foo-1.0.jar</code>
+     * @return the key of the file in the bucket
+     */
+    @NotNull
+    public String keyOf(@NotNull String path) {
+        return prefix.isEmpty() ? path : prefix + "/" + path;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.TaskAction;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Uploads a Maven repository that was staged by Gradle to S3. Compared to publishing through Gradle's
+ * <code>s3://</code> transport, this:
+ *
+ * <ul>
+ *     <li>uploads every file concurrently, and large files as concurrent multipart uploads.</li>
+ *     <li>skips files whose SHA-256 matches the object that is already in the bucket, and <code>SNAPSHOT</code>
+ *     versions whose files all match the ones that were published last (see {@link SnapshotFingerprint}).</li>
+ *     <li>only updates each <code>maven-metadata.xml</code> once, after all the artifacts are uploaded, so
+ *     the repository never points at artifacts that aren't there yet.</li>
+ * </ul>
+ */
+public abstract class S3PublishTask extends DefaultTask {
+    private static final String METADATA = "maven-metadata.xml";
+    private static final Map<String, String> CHECKSUMS =
+            Map.of("md5", "MD5", "sha1", "SHA-1", "sha256", "SHA-256", "sha512", "SHA-512");
+
+    /**
+     * @return {@link DirectoryProperty} of the staged Maven repository
+     */
+    @InputDirectory
+    public abstract DirectoryProperty getStagingDirectory();
+
+    /**
+     * @return {@link Property<String>} of the <code>s3://{bucket}/{prefix}</code> URL of the repository
+     */
+    @Input
+    public abstract Property<String> getRepositoryUrl();
+
+    /**
+     * @return {@link Property<String>} of the S3 endpoint, defaults to AWS' endpoint of the region
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getEndpoint();
+
+    /**
+     * @return {@link Property<String>} of the region of the bucket
+     */
+    @Input
+    public abstract Property<String> getRegion();
+
+    /**
+     * @return {@link Property<String>} of the access key
+     */
+    @Internal
+    public abstract Property<String> getAccessKey();
+
+    /**
+     * @return {@link Property<String>} of the secret key
+     */
+    @Internal
+    public abstract Property<String> getSecretKey();
+
+    /**
+     * @return {@link Property<Integer>} of how many uploads can run at the same time
+     */
+    @Internal
+    public abstract Property<Integer> getConcurrency();
+
+    /**
+     * @return {@link Property<Long>} of the size (in bytes) a file needs to be before it is uploaded in parts
+     */
+    @Internal
+    public abstract Property<Long> getMultipartThreshold();
+
+    /**
+     * @return {@link Property<Long>} of the size (in bytes) of every part, S3 requires at least 5 MiB
+     */
+    @Internal
+    public abstract Property<Long> getPartSize();
+
+    public S3PublishTask() {
+        getRegion().convention("us-east-1");
+        getConcurrency().convention(8);
+        getMultipartThreshold().convention(16L * 1024 * 1024);
+        getPartSize().convention(8L * 1024 * 1024);
+
+        // What's in the bucket can change at any time
+        getOutputs().upToDateWhen((task) -> false);
+    }
+
+    @TaskAction
+    public void publish() throws IOException {
+        if (!getAccessKey().isPresent() || !getSecretKey().isPresent())
+            throw new GradleException(
+                    """
+            Publishing to S3 requires `s3.accessKey` and `s3.secretKey` in `gradle/publishing.properties`, or the
+            `NOELWARE_PUBLISHING_ACCESS_KEY` and `NOELWARE_PUBLISHING_SECRET_KEY` environment variables.
+            """);
+
+        final S3Location location = S3Location.parse(getRepositoryUrl().get());
+        final String region = getRegion().get();
+        final URI endpoint = URI.create(getEndpoint().getOrElse("https://s3.%s.amazonaws.com".formatted(region)));
+        final S3Client client = new S3Client(
+                endpoint, location.bucket(), new SigV4Signer(region, getAccessKey().get(), getSecretKey().get()));
+
+        final Path root = getStagingDirectory().get().getAsFile().toPath();
+        final List<Path> artifacts = new ArrayList<>();
+        final List<Path> metadata = new ArrayList<>();
+        try (final Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach((file) -> {
+                final String name = file.getFileName().toString();
+                if (name.equals(METADATA)) metadata.add(file);
+                else if (!name.startsWith(METADATA)) artifacts.add(file);
+            });
+        }
+
+        final Map<Path, List<Path>> snapshots = artifacts.stream()
+                .filter((file) -> SnapshotFingerprint.isSnapshot(file.getParent()))
+                .collect(Collectors.groupingBy(Path::getParent));
+
+        final AtomicInteger uploaded = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger updatedMetadata = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
+        final long start = System.nanoTime();
+
+        // Parts get their own pool, so a file that waits on its parts can't starve them
+        final ExecutorService files = Executors.newFixedThreadPool(getConcurrency().get());
+        final ExecutorService parts = Executors.newFixedThreadPool(getConcurrency().get());
+        try {
+            // Snapshot versions that didn't change are skipped as a whole, including their maven-metadata.xml,
+            // so the repository keeps pointing at the timestamp that was published last.
+            final Map<Path, String> fingerprints = new ConcurrentHashMap<>();
+            final Set<Path> unchanged = ConcurrentHashMap.newKeySet();
+            await(snapshots.entrySet().stream()
+                    .map((entry) -> CompletableFuture.runAsync(
+                            () -> {
+                                final Path directory = entry.getKey();
+                                final String fingerprint = SnapshotFingerprint.of(directory, entry.getValue());
+                                final byte[] remote = client.get(fingerprintKeyOf(location, root, directory));
+                                if (remote != null && fingerprint.equals(new String(remote, StandardCharsets.UTF_8))) {
+                                    getLogger().info("Skipping [{}] since it didn't change", pathOf(root, directory));
+                                    unchanged.add(directory);
+                                } else {
+                                    fingerprints.put(directory, fingerprint);
+                                }
+                            },
+                            files))
+                    .toList());
+
+            await(artifacts.stream()
+                    .map((file) -> CompletableFuture.runAsync(
+                            () -> {
+                                final String key = location.keyOf(pathOf(root, file));
+                                if (!unchanged.contains(file.getParent()) && upload(client, parts, file, key)) {
+                                    uploaded.incrementAndGet();
+                                    bytes.addAndGet(file.toFile().length());
+                                } else {
+                                    skipped.incrementAndGet();
+                                }
+                            },
+                            files))
+                    .toList());
+
+            // Now that every artifact is there, the metadata can point to them
+            await(metadata.stream()
+                    .filter((file) -> !unchanged.contains(file.getParent()))
+                    .map((file) -> CompletableFuture.runAsync(
+                            () -> {
+                                updateMetadata(client, location.keyOf(pathOf(root, file)), file);
+                                updatedMetadata.incrementAndGet();
+                            },
+                            files))
+                    .toList());
+
+            // The fingerprints go last, so a snapshot that failed to publish is published again the next time
+            await(fingerprints.entrySet().stream()
+                    .map((entry) -> CompletableFuture.runAsync(
+                            () -> {
+                                final byte[] fingerprint = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                                client.put(
+                                        fingerprintKeyOf(location, root, entry.getKey()),
+                                        fingerprint,
+                                        Hashing.sha256(fingerprint));
+                            },
+                            files))
+                    .toList());
+        } finally {
+            files.shutdownNow();
+            parts.shutdownNow();
+        }
+
+        getLogger()
+                .lifecycle(
+                        "Uploaded {} file(s) ({} KiB) to {}, skipped {} unchanged file(s), "
+                                + "updated {} maven-metadata.xml in {} ms",
+                        uploaded.get(),
+                        bytes.get() / 1024,
+                        getRepositoryUrl().get(),
+                        skipped.get(),
+                        updatedMetadata.get(),
+                        (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean upload(S3Client client, ExecutorService parts, Path file, String key) {
+        final String sha256 = digest(file, "SHA-256");
+        if (sha256.equals(client.headSha256(key))) {
+            getLogger().info("Skipping [{}] since it didn't change", key);
+            return false;
+        }
+
+        final long size = file.toFile().length();
+        if (size < getMultipartThreshold().get()) {
+            client.put(key, readAll(file), sha256);
+            return true;
+        }
+
+        final long partSize = Math.max(5L * 1024 * 1024, getPartSize().get());
+        final String uploadId = client.createMultipartUpload(key, sha256);
+        try {
+            final List<CompletableFuture<String>> etags = new ArrayList<>();
+            for (long offset = 0, part = 1; offset < size; offset += partSize, part++) {
+                final long partOffset = offset;
+                final int partNumber = (int) part;
+                final int length = (int) Math.min(partSize, size - offset);
+
+                etags.add(CompletableFuture.supplyAsync(
+                        () -> client.uploadPart(key, uploadId, partNumber, read(file, partOffset, length)), parts));
+            }
+
+            await(etags);
+            client.completeMultipartUpload(key, uploadId, etags.stream().map(CompletableFuture::join).toList());
+
+            return true;
+        } catch (RuntimeException e) {
+            client.abortMultipartUpload(key, uploadId);
+            throw e;
+        }
+    }
+
+    private void updateMetadata(S3Client client, String key, Path file) {
+        final byte[] merged = MavenMetadata.merge(client.get(key), readAll(file));
+        for (Map.Entry<String, String> checksum : CHECKSUMS.entrySet()) {
+            final byte[] value = HexFormat.of()
+                    .formatHex(digest(merged, checksum.getValue()))
+                    .getBytes();
+
+            client.put(key + "." + checksum.getKey(), value, Hashing.sha256(value));
+        }
+
+        // The metadata goes last, so it is never newer than its checksums
+        client.put(key, merged, Hashing.sha256(merged));
+    }
+
+    private static String fingerprintKeyOf(S3Location location, Path root, Path directory) {
+        return location.keyOf(pathOf(root, directory) + "/" + SnapshotFingerprint.FILE_NAME);
+    }
+
+    private static String pathOf(Path root, Path file) {
+        return root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private static <T> void await(List<? extends CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static byte[] readAll(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new GradleException("Unable to read [%s]".formatted(file), e);
+        }
+    }
+
+    private static byte[] read(Path file, long offset, int length) {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) == -1) break;
+            }
+
+            return buffer.array();
+        } catch (IOException e) {
+            throw new GradleException("Unable to read [%s]".formatted(file), e);
+        }
+    }
+
+    private static String digest(Path file, String algorithm) {
+        try (final DigestInputStream stream =
+                new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance(algorithm))) {
+            stream.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(stream.getMessageDigest().digest());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new GradleException("Unable to hash [%s]".formatted(file), e);
+        }
+    }
+
+    private static byte[] digest(byte[] bytes, String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(bytes);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Signs S3 requests with <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/sig-v4-header-based-auth.html">AWS
+ * Signature Version 4</a>, so publishing doesn't need the AWS SDK.
+ */
+public class SigV4Signer {
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+
+    public SigV4Signer(@NotNull String region, @NotNull String accessKey, @NotNull String secretKey) {
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+    }
+
+    /**
+     * Signs a request, and returns the headers that need to be sent with it.
+     *
+     * @param method The HTTP method
+     * @param uri The URI of the request, the path and query must already be encoded
+     * @param headers Extra headers that are signed, i.e, <code>x-amz-meta-*</code>
+     * @param payloadHash The hex-encoded SHA-256 of the body
+     * @return the headers to send, including <code>Authorization</code>
+     */
+    @NotNull
+    public Map<String, String> sign(
+            @NotNull String method,
+            @NotNull URI uri,
+            @NotNull Map<String, String> headers,
+            @NotNull String payloadHash) {
+        return sign(method, uri, headers, payloadHash, ZonedDateTime.now(ZoneOffset.UTC));
+    }
+
+    Map<String, String> sign(
+            String method, URI uri, Map<String, String> headers, String payloadHash, ZonedDateTime now) {
+        final String amzDate = AMZ_DATE.format(now);
+        final String date = DATE.format(now);
+        final String scope = "%s/%s/s3/aws4_request".formatted(date, region);
+
+        final TreeMap<String, String> signed = new TreeMap<>();
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(), value.trim()));
+        signed.put("host", uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", amzDate);
+
+        final String signedHeaders = String.join(";", signed.keySet());
+        final String canonicalRequest = String.join(
+                "\n",
+                method,
+                uri.getRawPath().isEmpty() ? "/" : uri.getRawPath(),
+                canonicalQuery(uri.getRawQuery()),
+                signed.entrySet().stream()
+                        .map((entry) -> entry.getKey() + ":" + entry.getValue() + "\n")
+                        .collect(Collectors.joining()),
+                signedHeaders,
+                payloadHash);
+
+        final String stringToSign = String.join(
+                "\n",
+                "AWS4-HMAC-SHA256",
+                amzDate,
+                scope,
+                Hashing.sha256(canonicalRequest));
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+
+        final String signature = HEX.formatHex(hmac(key, stringToSign));
+        signed.remove("host");
+        signed.put(
+                "Authorization",
+                "AWS4-HMAC-SHA256 Credential=%s/%s, SignedHeaders=%s, Signature=%s"
+                        .formatted(accessKey, scope, signedHeaders, signature));
+
+        return signed;
+    }
+
+    /**
+     * Encodes a value as a URI component the way S3 expects it.
+     *
+     * @param value The value
+     * @param slash if <code>/</code> is kept as is, for object keys
+     * @return the encoded value
+     */
+    @NotNull
+    public static String encode(@NotNull String value, boolean slash) {
+        final StringBuilder builder = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            final char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z')
+                    || (c >= 'a' && c <= 'z')
+                    || (c >= '0' && c <= '9')
+                    || c == '-'
+                    || c == '_'
+                    || c == '.'
+                    || c == '~'
+                    || (slash && c == '/')) {
+                builder.append(c);
+            } else {
+                builder.append('%').append(HEX.withUpperCase().toHexDigits(b));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static String canonicalQuery(String query) {
+        if (query == null || query.isEmpty()) return "";
+
+        final TreeMap<String, String> params = new TreeMap<>();
+        for (String param : query.split("&")) {
+            final int eq = param.indexOf('=');
+            params.put(eq == -1 ? param : param.substring(0, eq), eq == -1 ? "" : param.substring(eq + 1));
+        }
+
+        return params.entrySet().stream()
+                .map((entry) -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
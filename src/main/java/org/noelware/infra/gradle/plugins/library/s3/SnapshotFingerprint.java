@@ -0,0 +1,110 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.library.s3;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Fingerprints the staged files of a <code>SNAPSHOT</code> version. Gradle gives every snapshot it publishes a
+ * unique timestamp (i.e, <code>foo-1.0-20230405.102030-1.jar</code>), so its files never have the same key as
+ * what is already in the bucket. Instead, the fingerprint of the whole version directory is kept next to it, and
+ * the timestamp is taken out of both the file names and the POM and Gradle module metadata that mention it.
+ */
+@ApiStatus.Internal
+public class SnapshotFingerprint {
+    /** The name of the object that the fingerprint is kept in, in the version directory. */
+    public static final String FILE_NAME = ".noelware-snapshot.sha256";
+
+    private static final String SNAPSHOT = "-SNAPSHOT";
+    private static final Set<String> CHECKSUMS = Set.of("md5", "sha1", "sha256", "sha512");
+    private static final Set<String> TEXT = Set.of("pom", "module");
+
+    private SnapshotFingerprint() {}
+
+    /**
+     * @param directory The version directory
+     * @return if the directory has the files of a <code>SNAPSHOT</code> version
+     */
+    public static boolean isSnapshot(@NotNull Path directory) {
+        return directory.getFileName().toString().endsWith(SNAPSHOT);
+    }
+
+    /**
+     * Fingerprints the files of a <code>SNAPSHOT</code> version. The checksum files are left out, since they
+     * only repeat what the files already say.
+     *
+     * @param directory The version directory
+     * @param files The staged files in the directory
+     * @return the fingerprint, in the same format as <code>sha256sum</code>
+     */
+    @NotNull
+    public static String of(@NotNull Path directory, @NotNull Collection<Path> files) {
+        final String version = directory.getFileName().toString();
+        final String replacement = Matcher.quoteReplacement(version);
+        final Pattern timestamped = Pattern.compile(
+                Pattern.quote(version.substring(0, version.length() - SNAPSHOT.length())) + "-\\d{8}\\.\\d{6}-\\d+");
+
+        final Map<String, String> hashes = new TreeMap<>();
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            final String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            if (CHECKSUMS.contains(extension)) continue;
+
+            byte[] contents;
+            try {
+                contents = Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new GradleException("Unable to read [%s]".formatted(file), e);
+            }
+
+            if (TEXT.contains(extension)) {
+                contents = timestamped
+                        .matcher(new String(contents, StandardCharsets.UTF_8))
+                        .replaceAll(replacement)
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+
+            hashes.put(timestamped.matcher(name).replaceAll(replacement), Hashing.sha256(contents));
+        }
+
+        final StringBuilder fingerprint = new StringBuilder();
+        hashes.forEach((name, hash) -> fingerprint.append(hash).append("  ").append(name).append('\n'));
+
+        return fingerprint.toString();
+    }
+}
@@ -25,94 +25,118 @@ package org.noelware.infra.gradle.plugins.module;
 
 import com.diffplug.gradle.spotless.SpotlessExtension;
 import java.io.File;
-import java.io.IOException;
-import org.gradle.api.GradleException;
-import org.gradle.api.JavaVersion;
+import javax.inject.Inject;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.testing.Test;
-import org.gradle.api.tasks.testing.logging.TestExceptionFormat;
-import org.gradle.api.tasks.testing.logging.TestLogEvent;
+import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.jvm.toolchain.JavaLanguageVersion;
 import org.jetbrains.annotations.NotNull;
 import org.noelware.infra.gradle.Licenses;
+import org.noelware.infra.gradle.license.LicenseHeaderService;
+import org.noelware.infra.gradle.plugins.module.benchmarks.BenchmarksSupport;
+import org.noelware.infra.gradle.plugins.module.cds.AppCdsSupport;
+import org.noelware.infra.gradle.plugins.module.testing.TestImpactSupport;
+import org.noelware.infra.gradle.plugins.module.testing.TestingSupport;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
 
 /**
  * Represents the base plugin for configuring Java projects.
  */
-public class JavaModulePlugin implements Plugin<Project> {
-    @SuppressWarnings("DuplicatedCode")
+public abstract class JavaModulePlugin implements Plugin<Project> {
+    @Inject
+    protected abstract BuildEventsListenerRegistry getEventsListenerRegistry();
+
     @Override
     public void apply(@NotNull Project project) {
-        final NoelwareModuleExtension ext = project.getExtensions().findByType(NoelwareModuleExtension.class) != null
-                ? project.getExtensions().findByType(NoelwareModuleExtension.class)
-                : project.getExtensions().create("noelware", NoelwareModuleExtension.class);
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        try (final ConfigurationProfiler.Scope ignored = profiler.scope("JavaModulePlugin.apply")) {
+            configure(project, profiler);
+        }
+    }
 
-        assert ext != null : "BUG! Extension was not created or was not found?";
+    @SuppressWarnings("DuplicatedCode")
+    private void configure(@NotNull Project project, @NotNull ConfigurationProfiler profiler) {
+        final NoelwareModuleExtension ext = ModuleUtils.getOrCreateExtension(project);
 
         project.getPlugins().apply("java");
         project.getPlugins().apply("com.diffplug.spotless");
 
         // Configure Spotless
-        project.getExtensions().configure(SpotlessExtension.class, (spotless) -> {
-            final String license = ext.getLicense().getOrElse(Licenses.MIT).render(project, ext);
+        //
+        // The license heading is only rendered when Spotless needs it, so this doesn't
+        // resolve anything from the extension while the build script is still configuring it.
+        final Provider<LicenseHeaderService> licenseHeaders = LicenseHeaderService.register(project);
+        final Provider<String> license = Licenses.render(licenseHeaders, ext);
+        ModuleUtils.usesLicenseHeaders(project, licenseHeaders);
+
+        final File editorConfig = project.getRootProject()
+                .getLayout()
+                .getProjectDirectory()
+                .file(".editorconfig")
+                .getAsFile();
+
+        project.getExtensions().configure(SpotlessExtension.class, profiler.wrap("spotless", (spotless) -> {
             spotless.java((java) -> {
-                java.licenseHeader(license);
                 java.trimTrailingWhitespace();
                 java.removeUnusedImports();
                 java.palantirJavaFormat();
                 java.endWithNewline();
+
+                ModuleUtils.licenseHeader(java, license, ModuleUtils.JAVA_HEADER_DELIMITER);
             });
 
             spotless.kotlinGradle(kotlin -> {
                 kotlin.endWithNewline();
                 kotlin.encoding("UTF-8");
-                kotlin.target("**/*.gradle.kts");
-
-                try {
-                    final var ktlint = kotlin.ktlint().setUseExperimental(true);
-                    if (new File(project.getRootProject().getProjectDir(), ".editorconfig").exists()) {
-                        ktlint.setEditorConfigPath(
-                                new File(project.getRootProject().getProjectDir(), ".editorconfig"));
-                    }
-                } catch (IOException e) {
-                    throw new GradleException("Unable to apply Ktlint to Spotless", e);
-                }
-
-                kotlin.licenseHeader(license, "(package |@file|import |pluginManagement|plugins|rootProject.name)");
+                kotlin.target("*.gradle.kts");
+
+                ModuleUtils.ktlint(kotlin, editorConfig);
+                ModuleUtils.licenseHeader(kotlin, license, ModuleUtils.KOTLIN_GRADLE_HEADER_DELIMITER);
             });
-        });
+        }));
+
+        final SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
+        ModuleUtils.licenseHeaderTasks(
+                project,
+                "Java",
+                license,
+                ModuleUtils.JAVA_HEADER_DELIMITER,
+                project.provider(() -> sourceSets.stream().map(SourceSet::getJava).toList()));
+
+        ModuleUtils.licenseHeaderTasks(
+                project,
+                "KotlinGradle",
+                license,
+                ModuleUtils.KOTLIN_GRADLE_HEADER_DELIMITER,
+                project.fileTree(project.getProjectDir(), (tree) -> tree.include("*.gradle.kts")));
 
         // Set up the Java things
         project.getExtensions().configure(JavaPluginExtension.class, (java) -> {
             java.toolchain((toolchain) -> toolchain
                     .getLanguageVersion()
-                    .set(JavaLanguageVersion.of(ext.getMinimumJavaVersion()
-                            .getOrElse(JavaVersion.VERSION_17)
-                            .getMajorVersion())));
+                    .set(ext.getMinimumJavaVersion().map((version) -> JavaLanguageVersion.of(version.getMajorVersion()))));
         });
 
+        // The AppCDS and test impact actions depend on the fork settings of the test tasks, so they're added
+        // first to run last
+        profiler.time("AppCdsSupport.configure", () -> AppCdsSupport.configure(project, ext));
+        profiler.time("TestImpactSupport.configure", () -> TestImpactSupport.configure(project));
+
         // configure junit tests if needed
-        project.getTasks().withType(Test.class).configureEach((test) -> {
+        profiler.time(
+                "TestingSupport.configure",
+                () -> TestingSupport.configure(project, ext.getTesting(), getEventsListenerRegistry(), true));
+
+        profiler.time("BenchmarksSupport.configure", () -> BenchmarksSupport.configure(project, ext));
+        ModuleUtils.prewarmToolchains(project);
+        project.getTasks().withType(Test.class).configureEach(profiler.wrap("Test.configureEach", (test) -> {
             test.useJUnitPlatform();
-            test.getOutputs().upToDateWhen((a) -> false);
-            test.setMaxParallelForks(Runtime.getRuntime().availableProcessors());
             test.setFailFast(true);
-            test.testLogging((logging) -> {
-                logging.events(
-                        TestLogEvent.PASSED,
-                        TestLogEvent.FAILED,
-                        TestLogEvent.SKIPPED,
-                        TestLogEvent.STANDARD_ERROR,
-                        TestLogEvent.STANDARD_OUT,
-                        TestLogEvent.STARTED);
-
-                logging.setShowCauses(true);
-                logging.setShowStandardStreams(true);
-                logging.setShowExceptions(true);
-                logging.setExceptionFormat(TestExceptionFormat.FULL);
-            });
-        });
+        }));
     }
 }
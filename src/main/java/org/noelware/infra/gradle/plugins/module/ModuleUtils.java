@@ -0,0 +1,223 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module;
+
+import com.diffplug.gradle.spotless.BaseKotlinExtension;
+import com.diffplug.gradle.spotless.FormatExtension;
+import com.diffplug.gradle.spotless.SpotlessTask;
+import com.diffplug.spotless.generic.LicenseHeaderStep;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Objects;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.jvm.toolchain.JavaToolchainService;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Licenses;
+import org.noelware.infra.gradle.license.LicenseHeaderApplyTask;
+import org.noelware.infra.gradle.license.LicenseHeaderCheckTask;
+import org.noelware.infra.gradle.license.LicenseHeaderService;
+import org.noelware.infra.gradle.plugins.module.benchmarks.BenchmarksSupport;
+import org.noelware.infra.gradle.plugins.module.cds.AppCdsSupport;
+import org.noelware.infra.gradle.plugins.module.kotlin.KotlinSupport;
+import org.noelware.infra.gradle.plugins.module.testing.TestingSupport;
+import org.noelware.infra.gradle.plugins.module.toolchains.PrewarmToolchainsTask;
+
+@ApiStatus.Internal
+public class ModuleUtils {
+    /**
+     * License header delimiter for Java sources, this is the same one that Spotless uses.
+     */
+    public static final String JAVA_HEADER_DELIMITER = "(package|import|public|class|module) ";
+
+    /**
+     * License header delimiter for Kotlin sources, this is the same one that Spotless uses.
+     */
+    public static final String KOTLIN_HEADER_DELIMITER = "(package |@file|import )";
+
+    /**
+     * License header delimiter for Gradle Kotlin scripts.
+     */
+    public static final String KOTLIN_GRADLE_HEADER_DELIMITER =
+            "(package |@file|import |pluginManagement|plugins|rootProject.name)";
+
+    /**
+     * Finds or creates the {@link NoelwareModuleExtension} for the given project, and sets up
+     * the conventions for all of its properties. This doesn't resolve any of the properties, so
+     * it is safe to call before the build script has configured the extension.
+     *
+     * @param project The project to find or create the extension on
+     * @return the {@link NoelwareModuleExtension} for this project
+     */
+    public static NoelwareModuleExtension getOrCreateExtension(@NotNull Project project) {
+        final NoelwareModuleExtension found = project.getExtensions().findByType(NoelwareModuleExtension.class);
+        if (found != null) return found;
+
+        final NoelwareModuleExtension ext = project.getExtensions().create("noelware", NoelwareModuleExtension.class);
+        ext.getMinimumJavaVersion().convention(JavaVersion.VERSION_17);
+        ext.getLicense().convention(Licenses.MIT);
+        ext.getProjectName().convention(project.getRootProject().getName());
+        ext.getProjectDescription()
+                .convention(project.provider(project::getDescription).orElse("A dummy project!"));
+
+        ext.getProjectEmoji().convention("");
+        ext.getCurrentYear().convention(project.getProviders().of(CurrentYearValueSource.class, (spec) -> {}));
+        TestingSupport.conventions(project, ext.getTesting());
+        BenchmarksSupport.conventions(project, ext.getBenchmarks());
+        KotlinSupport.conventions(project, ext.getKotlin());
+        AppCdsSupport.conventions(project, ext.getAppCds());
+
+        return ext;
+    }
+
+    /**
+     * Adds the license heading as the last step of the given Spotless format. The heading is only
+     * rendered when Spotless asks for it, so the extension can still be configured by the build script.
+     *
+     * @param format The Spotless format to add the license heading to
+     * @param header {@link Provider} of the rendered license heading
+     * @param delimiter The regular expression that marks where the heading ends
+     */
+    public static void licenseHeader(
+            @NotNull FormatExtension format, @NotNull Provider<String> header, @NotNull String delimiter) {
+        format.addStep(LicenseHeaderStep.headerDelimiter(header::get, delimiter).build());
+    }
+
+    /**
+     * Declares that the Spotless and license heading tasks use the {@link LicenseHeaderService}, since the
+     * license heading they get is rendered by it when they run.
+     *
+     * @param project The project
+     * @param service {@link Provider} of the service
+     */
+    public static void usesLicenseHeaders(@NotNull Project project, @NotNull Provider<LicenseHeaderService> service) {
+        project.getTasks().withType(SpotlessTask.class).configureEach((task) -> task.usesService(service));
+        project.getTasks().withType(LicenseHeaderApplyTask.class).configureEach((task) -> task.usesService(service));
+        project.getTasks().withType(LicenseHeaderCheckTask.class).configureEach((task) -> task.usesService(service));
+    }
+
+    /**
+     * Registers the <code>licenseHeader&lt;Format&gt;Check</code> and <code>licenseHeader&lt;Format&gt;Apply</code>
+     * tasks for the given sources, and adds them to the <code>licenseHeaderCheck</code> (which <code>check</code>
+     * depends on) and <code>applyLicenseHeaders</code> tasks.
+     *
+     * @param project The project
+     * @param format The name of the format (i.e, <code>Java</code>)
+     * @param header {@link Provider} of the rendered license heading
+     * @param delimiter The regular expression that marks where the heading ends
+     * @param sources The sources, anything that {@link Project#files(Object...)} accepts
+     */
+    public static void licenseHeaderTasks(
+            @NotNull Project project,
+            @NotNull String format,
+            @NotNull Provider<String> header,
+            @NotNull String delimiter,
+            @NotNull Object sources) {
+        final TaskProvider<LicenseHeaderApplyTask> apply = project.getTasks()
+                .register("licenseHeader" + format + "Apply", LicenseHeaderApplyTask.class, (task) -> {
+                    task.setDescription("Applies the license heading to the %s sources".formatted(format));
+                    task.getSources().from(sources);
+                    task.getHeader().set(header);
+                    task.getDelimiter().set(delimiter);
+                });
+
+        final TaskProvider<LicenseHeaderCheckTask> check = project.getTasks()
+                .register("licenseHeader" + format + "Check", LicenseHeaderCheckTask.class, (task) -> {
+                    task.setDescription("Checks the license heading of the %s sources".formatted(format));
+                    task.mustRunAfter(apply);
+                    task.getSources().from(sources);
+                    task.getHeader().set(header);
+                    task.getDelimiter().set(delimiter);
+                    task.getIndexFile()
+                            .set(project.getLayout()
+                                    .getBuildDirectory()
+                                    .file("noelware/license-headers/%s.idx".formatted(format.toLowerCase(Locale.ROOT))));
+                });
+
+        if (!project.getTasks().getNames().contains("licenseHeaderCheck")) {
+            project.getTasks().register("licenseHeaderCheck", (task) -> {
+                task.setDescription("Checks the license heading of all sources");
+                task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+            });
+
+            project.getTasks().register("applyLicenseHeaders", (task) -> {
+                task.setDescription("Applies the license heading to all sources");
+                task.setGroup("formatting");
+            });
+
+            project.getTasks()
+                    .named(JavaBasePlugin.CHECK_TASK_NAME)
+                    .configure((task) -> task.dependsOn("licenseHeaderCheck"));
+        }
+
+        project.getTasks().named("licenseHeaderCheck").configure((task) -> task.dependsOn(check));
+        project.getTasks().named("applyLicenseHeaders").configure((task) -> task.dependsOn(apply));
+    }
+
+    /**
+     * Registers the <code>prewarmToolchains</code> task, which provisions the toolchain of the project and the
+     * toolchains that any of its {@link Test} tasks run on.
+     *
+     * @param project The project
+     */
+    public static void prewarmToolchains(@NotNull Project project) {
+        final JavaToolchainService toolchains = project.getExtensions().getByType(JavaToolchainService.class);
+        final JavaPluginExtension java = project.getExtensions().getByType(JavaPluginExtension.class);
+
+        project.getTasks().register("prewarmToolchains", PrewarmToolchainsTask.class, (task) -> {
+            task.setGroup("build setup");
+            task.setDescription("Resolves (and provisions, if needed) every Java toolchain this project uses");
+            task.getLaunchers().add(toolchains.launcherFor(java.getToolchain()));
+            task.getLaunchers()
+                    .addAll(project.provider(() -> project.getTasks().withType(Test.class).stream()
+                            .map((test) -> test.getJavaLauncher().getOrNull())
+                            .filter(Objects::nonNull)
+                            .toList()));
+        });
+    }
+
+    /**
+     * Applies ktlint to the given Kotlin format, and uses the root project's <code>.editorconfig</code>
+     * if one exists.
+     *
+     * @param kotlin The Kotlin (or Kotlin Gradle) format
+     * @param editorConfig The <code>.editorconfig</code> file in the root project
+     */
+    public static void ktlint(@NotNull BaseKotlinExtension kotlin, @NotNull File editorConfig) {
+        try {
+            final var ktlint = kotlin.ktlint().setUseExperimental(true);
+            if (editorConfig.exists()) ktlint.setEditorConfigPath(editorConfig);
+        } catch (IOException e) {
+            throw new GradleException("Unable to apply Ktlint to Spotless", e);
+        }
+    }
+}
@@ -23,14 +23,26 @@
 
 package org.noelware.infra.gradle.plugins.module;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.Action;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Nested;
+import org.jetbrains.annotations.ApiStatus;
 import org.noelware.infra.gradle.Licenses;
+import org.noelware.infra.gradle.plugins.module.benchmarks.BenchmarksExtension;
+import org.noelware.infra.gradle.plugins.module.cds.AppCdsExtension;
+import org.noelware.infra.gradle.plugins.module.kotlin.KotlinExtension;
+import org.noelware.infra.gradle.plugins.module.testing.TestingExtension;
 
 /**
  * Represents the extension for the Java or Kotlin module plugins
  */
 public abstract class NoelwareModuleExtension {
+    private final List<Action<? super BenchmarksExtension>> benchmarksEnabledActions = new ArrayList<>();
+    private boolean benchmarksEnabled = false;
+
     /**
      * @return {@link Property<JavaVersion>} of the minimum Java version to use for the Java/Kotlin toolchain
      * language. By default, it will use Java 17 as the minimum.
@@ -72,4 +84,84 @@ public abstract class NoelwareModuleExtension {
      * @return {@link Property<String>} of the project emoji for the license, defaults to none
      */
     public abstract Property<String> getProjectEmoji();
+
+    /**
+     * @return {@link TestingExtension} that configures how the test tasks are run
+     */
+    @Nested
+    public abstract TestingExtension getTesting();
+
+    /**
+     * Configures how the test tasks are run.
+     * @param action The action to configure the {@link TestingExtension}
+     */
+    public void testing(Action<? super TestingExtension> action) {
+        action.execute(getTesting());
+    }
+
+    /**
+     * @return {@link KotlinExtension} that configures how the Kotlin compiler is run, this is only used by the
+     * Kotlin module plugins.
+     */
+    @Nested
+    public abstract KotlinExtension getKotlin();
+
+    /**
+     * Configures how the Kotlin compiler is run.
+     * @param action The action to configure the {@link KotlinExtension}
+     */
+    public void kotlin(Action<? super KotlinExtension> action) {
+        action.execute(getKotlin());
+    }
+
+    /**
+     * @return {@link AppCdsExtension} that configures the AppCDS archives of the test and application JVMs
+     */
+    @Nested
+    public abstract AppCdsExtension getAppCds();
+
+    /**
+     * Configures the AppCDS archives of the test and application JVMs.
+     * @param action The action to configure the {@link AppCdsExtension}
+     */
+    public void appCds(Action<? super AppCdsExtension> action) {
+        action.execute(getAppCds());
+    }
+
+    /**
+     * @return {@link BenchmarksExtension} that configures the JMH benchmarks
+     */
+    @Nested
+    public abstract BenchmarksExtension getBenchmarks();
+
+    /**
+     * Enables the JMH benchmarks in the <code>jmh</code> source set, and configures how they're run.
+     * @param action The action to configure the {@link BenchmarksExtension}
+     */
+    public void benchmarks(Action<? super BenchmarksExtension> action) {
+        action.execute(getBenchmarks());
+        if (benchmarksEnabled) return;
+
+        benchmarksEnabled = true;
+        for (Action<? super BenchmarksExtension> enabled : benchmarksEnabledActions) {
+            enabled.execute(getBenchmarks());
+        }
+
+        benchmarksEnabledActions.clear();
+    }
+
+    /**
+     * Runs the given action once the benchmarks are enabled with the {@link #benchmarks(Action)} block, or
+     * right away if they already are.
+     *
+     * @param action The action to run
+     */
+    @ApiStatus.Internal
+    public void whenBenchmarksEnabled(Action<? super BenchmarksExtension> action) {
+        if (benchmarksEnabled) {
+            action.execute(getBenchmarks());
+        } else {
+            benchmarksEnabledActions.add(action);
+        }
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents the comparison of a single benchmark between the baseline and the current run.
+ *
+ * @param key The key of the benchmark, from {@link JmhResult#key()}
+ * @param baseline The baseline result, or <code>null</code> if this is a new benchmark
+ * @param current The current result, or <code>null</code> if the benchmark was removed
+ * @param status The status of the comparison
+ */
+public record BenchmarkComparison(
+        String key, @Nullable JmhResult baseline, @Nullable JmhResult current, Status status) {
+    public enum Status {
+        /** The benchmark got slower by more than the threshold, and the confidence intervals don't overlap. */
+        REGRESSED,
+
+        /** The benchmark got faster by more than the threshold, and the confidence intervals don't overlap. */
+        IMPROVED,
+
+        /** The difference is within the threshold or the noise of either run. */
+        UNCHANGED,
+
+        /** The benchmark isn't in the baseline. */
+        ADDED,
+
+        /** The benchmark is only in the baseline. */
+        REMOVED
+    }
+
+    /**
+     * Compares every benchmark in the current run against the baseline.
+     *
+     * @param baseline The baseline results
+     * @param current The results of the current run
+     * @param threshold How much (in percent) a benchmark's score has to change before it counts as a regression
+     *                  or improvement
+     * @return the comparisons, sorted by the benchmark key
+     */
+    @NotNull
+    public static List<BenchmarkComparison> compare(
+            @NotNull Map<String, JmhResult> baseline, @NotNull Map<String, JmhResult> current, double threshold) {
+        final TreeSet<String> keys = new TreeSet<>(baseline.keySet());
+        keys.addAll(current.keySet());
+
+        final List<BenchmarkComparison> comparisons = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            final JmhResult before = baseline.get(key);
+            final JmhResult after = current.get(key);
+
+            final Status status;
+            if (before == null) {
+                status = Status.ADDED;
+            } else if (after == null) {
+                status = Status.REMOVED;
+            } else {
+                status = statusOf(before, after, threshold);
+            }
+
+            comparisons.add(new BenchmarkComparison(key, before, after, status));
+        }
+
+        return comparisons;
+    }
+
+    private static Status statusOf(JmhResult before, JmhResult after, double threshold) {
+        // If the confidence intervals overlap, then we can't tell the runs apart from noise.
+        if (after.lower() <= before.upper() && before.lower() <= after.upper()) return Status.UNCHANGED;
+
+        final double change = changeOf(before, after);
+        if (Math.abs(change) <= threshold) return Status.UNCHANGED;
+
+        final boolean better = before.isHigherBetter() ? change > 0 : change < 0;
+        return better ? Status.IMPROVED : Status.REGRESSED;
+    }
+
+    private static double changeOf(JmhResult before, JmhResult after) {
+        if (before.score() == 0.0) return 0.0;
+        return (after.score() - before.score()) / Math.abs(before.score()) * 100.0;
+    }
+
+    /**
+     * @return how much the score changed from the baseline (in percent), or {@link Double#NaN} if
+     * the benchmark is only in one of the runs.
+     */
+    public double change() {
+        if (baseline == null || current == null) return Double.NaN;
+        return changeOf(baseline, current);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Represents the <code>noelware.benchmarks</code> block, which configures the JMH benchmarks in
+ * the <code>jmh</code> source set.
+ */
+public abstract class BenchmarksExtension {
+    /**
+     * @return {@link Property<String>} of the JMH version to use, defaults to <code>1.36</code>
+     */
+    public abstract Property<String> getJmhVersion();
+
+    /**
+     * @return {@link Property<Integer>} of how many times each benchmark is forked, defaults to <code>1</code>
+     */
+    public abstract Property<Integer> getForks();
+
+    /**
+     * @return {@link Property<Integer>} of how many warmup iterations are done, defaults to <code>3</code>
+     */
+    public abstract Property<Integer> getWarmupIterations();
+
+    /**
+     * @return {@link Property<Integer>} of how many measurement iterations are done, defaults to <code>5</code>
+     */
+    public abstract Property<Integer> getIterations();
+
+    /**
+     * @return {@link ListProperty<String>} of the JMH profilers to run with (i.e, <code>gc</code> or <code>stack</code>),
+     * defaults to none.
+     */
+    public abstract ListProperty<String> getProfilers();
+
+    /**
+     * @return {@link Property<String>} of the JMH result format (<code>json</code>, <code>csv</code>, <code>scsv</code>,
+     * <code>text</code>, or <code>latex</code>), defaults to <code>json</code>.
+     */
+    public abstract Property<String> getResultFormat();
+
+    /**
+     * @return {@link ListProperty<String>} of regular expressions of which benchmarks to run, defaults
+     * to all of them.
+     */
+    public abstract ListProperty<String> getIncludes();
+
+    /**
+     * @return {@link RegularFileProperty} of the JSON results that <code>jmhCompare</code> compares against. Defaults
+     * to <code>jmh-baseline.json</code> in the project directory, or to a file in the directory set by the
+     * <code>org.noelware.gradle.jmh.baselines.dir</code> system property, if it is set.
+     */
+    public abstract RegularFileProperty getBaselineFile();
+
+    /**
+     * @return {@link Property<Double>} of how much (in percent) a benchmark's score can get worse before
+     * <code>jmhCompare</code> fails, defaults to <code>5</code>.
+     */
+    public abstract Property<Double> getRegressionThreshold();
+
+    /**
+     * @return {@link Property<Boolean>} if <code>jmhCompare</code> should fail the build when a benchmark regressed,
+     * defaults to <code>true</code>.
+     */
+    public abstract Property<Boolean> getFailOnRegression();
+
+    /**
+     * Runs the benchmarks with the GC profiler.
+     */
+    public void gc() {
+        getProfilers().add("gc");
+    }
+
+    /**
+     * Runs the benchmarks with the stack profiler.
+     */
+    public void stack() {
+        getProfilers().add("stack");
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.inject.Inject;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.Sync;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
+
+/**
+ * Sets up the <code>jmh</code> source set and the tasks to run it, once the project opts in with
+ * the <code>noelware.benchmarks</code> block.
+ *
+ * <p>The benchmarks are compiled like any other source set, and then the JMH bytecode generator
+ * generates the harness from the compiled classes, so this works the same for Java and Kotlin
+ * benchmarks without needing an annotation processor.
+ */
+@ApiStatus.Internal
+public class BenchmarksSupport {
+    public static final String SOURCE_SET_NAME = "jmh";
+    public static final String TASK_GROUP = "benchmarks";
+
+    /**
+     * Sets up the conventions of the <code>noelware.benchmarks</code> block.
+     * @param project The project
+     * @param benchmarks The benchmarks extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull BenchmarksExtension benchmarks) {
+        benchmarks.getJmhVersion().convention("1.36");
+        benchmarks.getForks().convention(1);
+        benchmarks.getWarmupIterations().convention(3);
+        benchmarks.getIterations().convention(5);
+        benchmarks.getResultFormat().convention("json");
+        benchmarks.getRegressionThreshold().convention(5.0);
+        benchmarks.getFailOnRegression().convention(true);
+
+        // Shared baselines are keyed by the root project and project path, so multiple projects can
+        // share the same directory. They're kept out of Gradle's build cache directory on purpose, since
+        // Gradle's cache cleanup would delete them.
+        final String baselineName = project.getRootProject().getName()
+                + project.getPath().replace(':', '/')
+                + (project == project.getRootProject() ? "root.json" : ".json");
+
+        final ProjectLayout layout = project.getLayout();
+        benchmarks
+                .getBaselineFile()
+                .convention(layout.file(project.getProviders()
+                                .systemProperty("org.noelware.gradle.jmh.baselines.dir")
+                                .map((dir) -> new File(dir, baselineName)))
+                        .orElse(layout.getProjectDirectory().file("jmh-baseline.json")));
+    }
+
+    /**
+     * Registers the <code>jmh</code> source set and tasks once benchmarks are enabled.
+     * @param project The project
+     * @param ext The extension
+     */
+    public static void configure(@NotNull Project project, @NotNull NoelwareModuleExtension ext) {
+        ext.whenBenchmarksEnabled((benchmarks) -> apply(project, benchmarks));
+    }
+
+    private static void apply(Project project, BenchmarksExtension benchmarks) {
+        final SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
+        final SourceSet main = sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        final SourceSet jmh = sourceSets.create(SOURCE_SET_NAME, (sourceSet) -> {
+            sourceSet.setCompileClasspath(sourceSet.getCompileClasspath().plus(main.getOutput()));
+            sourceSet.setRuntimeClasspath(sourceSet.getRuntimeClasspath().plus(main.getOutput()));
+        });
+
+        project.getConfigurations()
+                .getByName(jmh.getImplementationConfigurationName())
+                .extendsFrom(project.getConfigurations().getByName(main.getImplementationConfigurationName()));
+
+        project.getConfigurations()
+                .getByName(jmh.getRuntimeOnlyConfigurationName())
+                .extendsFrom(project.getConfigurations().getByName(main.getRuntimeOnlyConfigurationName()));
+
+        final Provider<String> jmhVersion = benchmarks.getJmhVersion();
+        project.getDependencies()
+                .addProvider(
+                        jmh.getImplementationConfigurationName(),
+                        jmhVersion.map((version) -> "org.openjdk.jmh:jmh-core:" + version));
+
+        final Configuration generator = project.getConfigurations().create("jmhGenerator", (configuration) -> {
+            configuration.setDescription("JMH bytecode generator used to generate the benchmark harness");
+            configuration.setCanBeConsumed(false);
+            configuration.setVisible(false);
+        });
+
+        project.getDependencies()
+                .addProvider(
+                        generator.getName(),
+                        jmhVersion.map((version) -> "org.openjdk.jmh:jmh-generator-bytecode:" + version));
+
+        final Provider<Directory> workDir = project.getLayout().getBuildDirectory().dir("noelware/jmh");
+
+        // The bytecode generator only takes a single directory, so the Java and Kotlin
+        // outputs are merged into one first.
+        final TaskProvider<Sync> collectClasses = project.getTasks()
+                .register("jmhCollectClasses", Sync.class, (sync) -> {
+                    sync.setDescription("Collects the compiled JMH benchmarks into one directory");
+                    sync.from(jmh.getOutput().getClassesDirs());
+                    sync.into(workDir.map((dir) -> dir.dir("compiled")));
+                });
+
+        final Provider<Directory> generatedSources = workDir.map((dir) -> dir.dir("generated-sources"));
+        final Provider<Directory> generatedResources = workDir.map((dir) -> dir.dir("generated-resources"));
+        final FileSystemOperations fs =
+                project.getObjects().newInstance(Services.class).getFileSystemOperations();
+
+        final TaskProvider<JavaExec> generate = project.getTasks()
+                .register("jmhGenerate", JavaExec.class, (exec) -> {
+                    exec.setDescription("Generates the JMH benchmark harness");
+                    exec.setGroup(TASK_GROUP);
+                    exec.getMainClass().set("org.openjdk.jmh.generators.bytecode.JmhBytecodeGenerator");
+                    exec.classpath(generator, jmh.getRuntimeClasspath());
+
+                    exec.getInputs().files(collectClasses).withPropertyName("compiledBenchmarks");
+                    exec.getOutputs().dir(generatedSources).withPropertyName("generatedSources");
+                    exec.getOutputs().dir(generatedResources).withPropertyName("generatedResources");
+                    exec.getArgumentProviders().add(() -> List.of(
+                            collectClasses.get().getDestinationDir().getAbsolutePath(),
+                            generatedSources.get().getAsFile().getAbsolutePath(),
+                            generatedResources.get().getAsFile().getAbsolutePath(),
+                            "default"));
+
+                    // Stale harness classes from removed benchmarks would otherwise still be picked up.
+                    exec.doFirst((task) -> fs.delete((spec) -> spec.delete(generatedSources, generatedResources)));
+                });
+
+        final TaskProvider<JavaCompile> compileGenerated = project.getTasks()
+                .register("jmhCompileGenerated", JavaCompile.class, (compile) -> {
+                    compile.setDescription("Compiles the generated JMH benchmark harness");
+                    compile.source(generatedSources);
+                    compile.dependsOn(generate);
+                    compile.setClasspath(jmh.getRuntimeClasspath().plus(project.files(collectClasses)));
+                    compile.getDestinationDirectory().set(workDir.map((dir) -> dir.dir("generated-classes")));
+                });
+
+        final FileCollection runtimeClasspath = project.files(
+                compileGenerated, generatedResources, collectClasses, jmh.getRuntimeClasspath());
+
+        final Provider<RegularFile> resultFile = project.getLayout()
+                .getBuildDirectory()
+                .zip(benchmarks.getResultFormat(), (dir, format) -> dir.file("reports/jmh/results." + extensionOf(format)));
+
+        final TaskProvider<JavaExec> run = project.getTasks().register("jmh", JavaExec.class, (exec) -> {
+            exec.setDescription("Runs the JMH benchmarks");
+            exec.setGroup(TASK_GROUP);
+            exec.getMainClass().set("org.openjdk.jmh.Main");
+            exec.setClasspath(runtimeClasspath);
+            exec.dependsOn(generate);
+            exec.getOutputs().file(resultFile).withPropertyName("results");
+
+            // Benchmarks are meant to be run again on purpose, so they are never up-to-date.
+            exec.getOutputs().upToDateWhen((task) -> false);
+            exec.doFirst((task) -> resultFile.get().getAsFile().getParentFile().mkdirs());
+
+            final Provider<Integer> forks = benchmarks.getForks();
+            final Provider<Integer> warmupIterations = benchmarks.getWarmupIterations();
+            final Provider<Integer> iterations = benchmarks.getIterations();
+            final Provider<List<String>> profilers = benchmarks.getProfilers();
+            final Provider<String> resultFormat = benchmarks.getResultFormat();
+            final Provider<List<String>> includes = benchmarks.getIncludes();
+
+            exec.getArgumentProviders().add(() -> {
+                final List<String> args = new ArrayList<>(List.of(
+                        "-f", String.valueOf(forks.get()),
+                        "-wi", String.valueOf(warmupIterations.get()),
+                        "-i", String.valueOf(iterations.get()),
+                        "-rf", resultFormat.get(),
+                        "-rff", resultFile.get().getAsFile().getAbsolutePath()));
+
+                for (String profiler : profilers.get()) {
+                    args.add("-prof");
+                    args.add(profiler);
+                }
+
+                args.addAll(includes.get());
+                return args;
+            });
+        });
+
+        project.getTasks().register("jmhCompare", JmhCompareTask.class, (task) -> {
+            task.setDescription("Compares the JMH results against the baseline, and fails if any benchmark regressed");
+            task.setGroup(TASK_GROUP);
+            task.dependsOn(run);
+            task.getResults().set(resultFile);
+            task.getBaseline().set(benchmarks.getBaselineFile());
+            task.getThreshold().set(benchmarks.getRegressionThreshold());
+            task.getFailOnRegression().set(benchmarks.getFailOnRegression());
+
+            // Not `reports/jmh`, since that is where the `jmh` task writes its results to.
+            task.getReportsDirectory().set(project.getLayout().getBuildDirectory().dir("reports/jmh-compare"));
+            task.getOutputs().upToDateWhen((t) -> false);
+
+            final Provider<String> resultFormat = benchmarks.getResultFormat();
+            task.doFirst((t) -> {
+                if (!"json".equalsIgnoreCase(resultFormat.get()))
+                    throw new GradleException("`jmhCompare` requires `noelware.benchmarks.resultFormat` to be `json`");
+            });
+        });
+
+        project.getTasks().register("jmhUpdateBaseline", (task) -> {
+            task.setDescription("Replaces the JMH baseline with the results of the current run");
+            task.setGroup(TASK_GROUP);
+            task.dependsOn(run);
+
+            final Provider<RegularFile> baselineFile = benchmarks.getBaselineFile();
+            task.getInputs().file(resultFile).withPropertyName("results");
+            task.getOutputs().file(baselineFile).withPropertyName("baseline");
+            task.doLast((t) -> {
+                final File baseline = baselineFile.get().getAsFile();
+                try {
+                    Files.createDirectories(baseline.toPath().getParent());
+                    Files.copy(
+                            resultFile.get().getAsFile().toPath(),
+                            baseline.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new GradleException("Unable to update JMH baseline [%s]".formatted(baseline), e);
+                }
+
+                t.getLogger().lifecycle("Updated JMH baseline at {}", baseline);
+            });
+        });
+    }
+
+    /**
+     * Services that can only be injected, so the task actions don't need to capture the {@link Project}.
+     */
+    public interface Services {
+        @Inject
+        FileSystemOperations getFileSystemOperations();
+    }
+
+    private static String extensionOf(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "text" -> "txt";
+            case "latex" -> "tex";
+            default -> format.toLowerCase(Locale.ROOT);
+        };
+    }
+}
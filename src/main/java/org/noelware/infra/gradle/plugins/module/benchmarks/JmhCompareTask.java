@@ -0,0 +1,209 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.commons.text.StringEscapeUtils;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.plugins.module.benchmarks.BenchmarkComparison.Status;
+
+/**
+ * Compares the results of the <code>jmh</code> task against a stored baseline, writes a Markdown and
+ * HTML report of the differences, and fails the build if any benchmark regressed.
+ */
+public abstract class JmhCompareTask extends DefaultTask {
+    /**
+     * @return {@link RegularFileProperty} of the JSON results of the current run
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getResults();
+
+    /**
+     * @return {@link RegularFileProperty} of the JSON results to compare against. The file doesn't need to
+     * exist, in which case the comparison is skipped.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getBaseline();
+
+    /**
+     * @return {@link Property<Double>} of how much (in percent) a benchmark's score has to change before it
+     * counts as a regression
+     */
+    @Input
+    public abstract Property<Double> getThreshold();
+
+    /**
+     * @return {@link Property<Boolean>} if the build should fail when a benchmark regressed
+     */
+    @Input
+    public abstract Property<Boolean> getFailOnRegression();
+
+    /**
+     * @return {@link DirectoryProperty} of where the <code>compare.md</code> and <code>compare.html</code> reports
+     * are written to
+     */
+    @OutputDirectory
+    public abstract DirectoryProperty getReportsDirectory();
+
+    @TaskAction
+    public void compare() throws IOException {
+        final File baselineFile = getBaseline().get().getAsFile();
+        if (!baselineFile.exists()) {
+            getLogger()
+                    .warn(
+                            "No JMH baseline was found at [{}], run the `jmhUpdateBaseline` task to create one",
+                            baselineFile);
+
+            return;
+        }
+
+        final Map<String, JmhResult> baseline = JmhResult.read(baselineFile);
+        final Map<String, JmhResult> current = JmhResult.read(getResults().get().getAsFile());
+        final double threshold = getThreshold().get();
+        final List<BenchmarkComparison> comparisons = BenchmarkComparison.compare(baseline, current, threshold);
+
+        final File reports = getReportsDirectory().get().getAsFile();
+        final File markdown = new File(reports, "compare.md");
+        final File html = new File(reports, "compare.html");
+
+        Files.writeString(markdown.toPath(), toMarkdown(comparisons, threshold), StandardCharsets.UTF_8);
+        Files.writeString(html.toPath(), toHtml(comparisons, threshold), StandardCharsets.UTF_8);
+
+        final List<BenchmarkComparison> regressions = comparisons.stream()
+                .filter((comparison) -> comparison.status() == Status.REGRESSED)
+                .toList();
+
+        if (regressions.isEmpty()) {
+            getLogger().lifecycle("No JMH benchmarks regressed by more than {}%, see {}", threshold, markdown);
+            return;
+        }
+
+        final StringBuilder message = new StringBuilder("%d JMH benchmark(s) regressed by more than %s%%:%n"
+                .formatted(regressions.size(), threshold));
+
+        for (BenchmarkComparison regression : regressions) {
+            message.append("    * %s: %s -> %s (%s)%n"
+                    .formatted(
+                            regression.key(),
+                            format(regression.baseline()),
+                            format(regression.current()),
+                            formatChange(regression.change())));
+        }
+
+        message.append("See the full report at ").append(html);
+        if (getFailOnRegression().get()) throw new GradleException(message.toString());
+
+        getLogger().warn(message.toString());
+    }
+
+    private static String toMarkdown(List<BenchmarkComparison> comparisons, double threshold) {
+        final StringBuilder builder = new StringBuilder("# JMH comparison\n\n");
+        builder.append("Benchmarks only count as changed if they moved by more than %s%% and their confidence intervals don't overlap.\n\n"
+                .formatted(threshold));
+
+        builder.append("| Benchmark | Baseline | Current | Change | Status |\n");
+        builder.append("| --------- | -------- | ------- | ------ | ------ |\n");
+        for (BenchmarkComparison comparison : comparisons) {
+            builder.append("| `%s` | %s | %s | %s | %s |\n"
+                    .formatted(
+                            comparison.key().replace("|", "\\|"),
+                            format(comparison.baseline()),
+                            format(comparison.current()),
+                            formatChange(comparison.change()),
+                            comparison.status().name().toLowerCase(Locale.ROOT)));
+        }
+
+        return builder.toString();
+    }
+
+    private static String toHtml(List<BenchmarkComparison> comparisons, double threshold) {
+        final StringBuilder rows = new StringBuilder();
+        for (BenchmarkComparison comparison : comparisons) {
+            final String status = comparison.status().name().toLowerCase(Locale.ROOT);
+            rows.append("<tr class=\"%s\"><td><code>%s</code></td><td>%s</td><td>%s</td><td>%s</td><td>%s</td></tr>\n"
+                    .formatted(
+                            status,
+                            StringEscapeUtils.escapeHtml4(comparison.key()),
+                            StringEscapeUtils.escapeHtml4(format(comparison.baseline())),
+                            StringEscapeUtils.escapeHtml4(format(comparison.current())),
+                            formatChange(comparison.change()),
+                            status));
+        }
+
+        return """
+        <!DOCTYPE html>
+        <html>
+        <head>
+        <meta charset="utf-8">
+        <title>JMH comparison</title>
+        <style>
+        body { font-family: sans-serif; }
+        table { border-collapse: collapse; }
+        td, th { border: 1px solid #ccc; padding: 4px 8px; text-align: left; }
+        tr.regressed { background: #fdd; }
+        tr.improved { background: #dfd; }
+        </style>
+        </head>
+        <body>
+        <h1>JMH comparison</h1>
+        <p>Benchmarks only count as changed if they moved by more than %s%% and their confidence intervals don't overlap.</p>
+        <table>
+        <tr><th>Benchmark</th><th>Baseline</th><th>Current</th><th>Change</th><th>Status</th></tr>
+        %s</table>
+        </body>
+        </html>
+        """
+                .formatted(threshold, rows);
+    }
+
+    private static String format(@Nullable JmhResult result) {
+        if (result == null) return "-";
+        return "%.3f ± %.3f %s".formatted(result.score(), result.error(), result.scoreUnit());
+    }
+
+    private static String formatChange(double change) {
+        if (Double.isNaN(change)) return "-";
+        return "%+.2f%%".formatted(change);
+    }
+}
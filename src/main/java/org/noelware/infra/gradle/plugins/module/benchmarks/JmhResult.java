@@ -0,0 +1,136 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the primary metric of a single benchmark from JMH's JSON results.
+ *
+ * @param benchmark The fully qualified name of the benchmark method
+ * @param params The <code>@Param</code> values that the benchmark was run with, can be empty
+ * @param mode The benchmark mode (i.e, <code>thrpt</code> or <code>avgt</code>)
+ * @param score The score of the benchmark
+ * @param scoreError The half-width of the 99.9% confidence interval of the score
+ * @param scoreUnit The unit of the score (i.e, <code>ops/s</code>)
+ */
+public record JmhResult(
+        String benchmark, Map<String, String> params, String mode, double score, double scoreError, String scoreUnit) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Reads all the results from a JMH result file that was written with <code>-rf json</code>.
+     *
+     * @param file The result file
+     * @return all the results, keyed by {@link #key()}
+     */
+    @NotNull
+    public static Map<String, JmhResult> read(@NotNull File file) {
+        final JsonNode root;
+        try {
+            root = MAPPER.readTree(file);
+        } catch (IOException e) {
+            throw new GradleException("Unable to read JMH results from [%s]".formatted(file), e);
+        }
+
+        if (root == null || !root.isArray())
+            throw new GradleException("Expected JMH results in [%s] to be a JSON array".formatted(file));
+
+        final Map<String, JmhResult> results = new LinkedHashMap<>();
+        for (JsonNode node : root) {
+            final Map<String, String> params = new TreeMap<>();
+            final Iterator<Map.Entry<String, JsonNode>> fields = node.path("params").fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+
+            final JsonNode metric = node.path("primaryMetric");
+            final JmhResult result = new JmhResult(
+                    node.path("benchmark").asText(),
+                    params,
+                    node.path("mode").asText(),
+                    metric.path("score").asDouble(),
+
+                    // JMH writes "NaN" when there were too few iterations to compute the error
+                    metric.path("scoreError").asDouble(0.0),
+                    metric.path("scoreUnit").asText());
+
+            results.put(result.key(), result);
+        }
+
+        return results;
+    }
+
+    /**
+     * @return the key that identifies this benchmark between runs, which is the benchmark name, its
+     * parameters, and its mode.
+     */
+    @NotNull
+    public String key() {
+        final StringBuilder builder = new StringBuilder(benchmark);
+        if (!params.isEmpty()) {
+            builder.append(' ').append(params);
+        }
+
+        return builder.append(" (").append(mode).append(')').toString();
+    }
+
+    /**
+     * @return if a higher score is better, which is only the case for the throughput mode.
+     */
+    public boolean isHigherBetter() {
+        return "thrpt".equals(mode);
+    }
+
+    /**
+     * @return the error of the score, which is zero if JMH couldn't compute it.
+     */
+    public double error() {
+        return Double.isFinite(scoreError) ? scoreError : 0.0;
+    }
+
+    /**
+     * @return the lower bound of the score's confidence interval
+     */
+    public double lower() {
+        return score - error();
+    }
+
+    /**
+     * @return the upper bound of the score's confidence interval
+     */
+    public double upper() {
+        return score + error();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.cds;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.util.GradleVersion;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Represents the AppCDS archive of a classpath, which lives in its own directory under
+ * <code>build/noelware/cds</code> with the class list and class loading log of the run that trained it.
+ *
+ * <p>The archive is a static archive that is dumped from the class list, with only the JARs that come before
+ * the first directory of the classpath. Dynamic archives (<code>-XX:ArchiveClassesAtExit</code>) can't be used,
+ * since the JVM refuses to write them if there is a non-empty directory anywhere on the classpath, and the
+ * classes directories of a source set always are. The JVM uses the archive when the classpath it runs with
+ * starts with the JARs it was dumped with.
+ *
+ * <p>The classpath of a source set starts with its classes directories, so with that layout the archive only
+ * has the JDK and the JARs of Gradle's test worker. {@link AppCdsExtension#getJarsFirst()} moves the JARs of
+ * the classpath first (see {@link #jarsFirst(Set)}), so the libraries are in the archive as well.
+ */
+@ApiStatus.Internal
+public record AppCdsArchive(@NotNull File directory, @NotNull File archive) {
+    private static final Logger LOG = Logging.getLogger(AppCdsArchive.class);
+    private static final Pattern SOURCE_REGEX = Pattern.compile(" source: file:(.+\\.jar)$");
+
+    /**
+     * Returns the archive of a classpath. The archive is keyed by the JDK, the Gradle version (which decides
+     * the JARs of the test workers) and the leading JARs of the classpath, since the JVM won't use an archive
+     * that was made from a different classpath anyway.
+     *
+     * @param directory The directory of the archive
+     * @param java The <code>java</code> executable that runs the classpath
+     * @param classpath The classpath
+     * @return the {@link AppCdsArchive}
+     */
+    @NotNull
+    public static AppCdsArchive of(@NotNull File directory, @NotNull File java, @NotNull Iterable<File> classpath) {
+        final StringBuilder key = new StringBuilder(java.getAbsolutePath())
+                .append('\n')
+                .append(GradleVersion.current().getVersion());
+
+        for (File file : leadingJars(classpath))
+            key.append('\n')
+                    .append(file.getAbsolutePath())
+                    .append(':')
+                    .append(file.length())
+                    .append(':')
+                    .append(file.lastModified());
+
+        final String hash = Hashing.sha256(key.toString()).substring(0, 16);
+        return new AppCdsArchive(directory, new File(directory, "cds-%s.jsa".formatted(hash)));
+    }
+
+    /**
+     * @return the class list that the training run writes
+     */
+    @NotNull
+    public File classList() {
+        return new File(directory, "classes.lst");
+    }
+
+    /**
+     * @return the log of where the training run loaded its classes from
+     */
+    @NotNull
+    public File classLoadLog() {
+        return new File(directory, "class-load.log");
+    }
+
+    /**
+     * Prepares the directory for a training run, and returns the JVM flags of it.
+     * @return the JVM flags of a training run
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    @NotNull
+    public List<String> prepareTraining() {
+        directory.mkdirs();
+
+        // Only the archive that is about to be made should be kept around
+        final File[] previous = directory.listFiles();
+        if (previous != null) for (File file : previous) file.delete();
+
+        return List.of(
+                "-XX:DumpLoadedClassList=" + classList().getAbsolutePath(),
+                "-Xlog:class+load=info:file=\"%s\"".formatted(classLoadLog().getAbsolutePath()));
+    }
+
+    /**
+     * Dumps the archive from the class list of the training run. This doesn't fail the build if the JVM
+     * can't dump the archive, the JVMs just start without it.
+     *
+     * @param java The <code>java</code> executable that ran the training run
+     * @param classpath The classpath of the training run
+     */
+    public void dump(@NotNull File java, @NotNull Iterable<File> classpath) {
+        if (!classList().exists()) {
+            LOG.warn("The training run didn't write a class list to [{}], not creating an AppCDS archive", classList());
+            return;
+        }
+
+        final File temporary = new File(directory, archive.getName() + ".tmp");
+        final File output = new File(directory, "dump.log");
+        final List<String> command = List.of(
+                java.getAbsolutePath(),
+                "-Xshare:dump",
+                "-XX:SharedClassListFile=" + classList().getAbsolutePath(),
+                "-XX:SharedArchiveFile=" + temporary.getAbsolutePath(),
+                "-cp",
+                String.join(File.pathSeparator, dumpClasspath(classpath)));
+
+        try {
+            final Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(output)
+                    .start();
+
+            if (!process.waitFor(5, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                LOG.warn("Dumping the AppCDS archive timed out, see [{}]", output);
+                return;
+            }
+
+            if (process.exitValue() != 0 || !temporary.exists()) {
+                LOG.warn("Unable to dump the AppCDS archive (exit code {}), see [{}]", process.exitValue(), output);
+                return;
+            }
+
+            Files.move(temporary.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            LOG.lifecycle("Created AppCDS archive [{}] ({} KiB)", archive, archive.length() / 1024);
+        } catch (IOException e) {
+            LOG.warn("Unable to dump the AppCDS archive", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param classpath The classpath
+     * @return the JARs that the classpath starts with, up to its first directory (or the first entry that
+     * doesn't exist)
+     */
+    @NotNull
+    public static List<File> leadingJars(@NotNull Iterable<File> classpath) {
+        final List<File> jars = new ArrayList<>();
+        for (File file : classpath) {
+            if (!file.isFile()) break;
+            jars.add(file);
+        }
+
+        return jars;
+    }
+
+    /**
+     * @param classpath The elements of a classpath
+     * @return the classpath with its JARs first, and then everything else, both in the order they had
+     */
+    @NotNull
+    public static List<File> jarsFirst(@NotNull Set<FileSystemLocation> classpath) {
+        final List<File> jars = new ArrayList<>();
+        final List<File> rest = new ArrayList<>();
+        for (FileSystemLocation location : classpath) {
+            final File file = location.getAsFile();
+            if (file.getName().endsWith(".jar")) jars.add(file);
+            else rest.add(file);
+        }
+
+        jars.addAll(rest);
+        return jars;
+    }
+
+    /**
+     * The classpath that the archive is dumped with: the leading JARs of the classpath, after the JARs that the
+     * JVM loaded classes from that aren't on it (i.e, the test worker of Gradle, which comes first on the
+     * classpath of the test JVMs). Everything from the first directory on is left out, since a static dump
+     * refuses directories, and the JVM only uses the archive if the classpath starts with what it was dumped
+     * with.
+     */
+    private List<String> dumpClasspath(Iterable<File> classpath) {
+        final Set<String> entries = new LinkedHashSet<>();
+        for (File file : classpath) entries.add(file.getAbsolutePath());
+
+        final Set<String> loaded = new LinkedHashSet<>();
+        try {
+            if (classLoadLog().exists()) {
+                for (String line : Files.readAllLines(classLoadLog().toPath(), StandardCharsets.UTF_8)) {
+                    final Matcher matcher = SOURCE_REGEX.matcher(line);
+                    if (matcher.find()) loaded.add(new File(matcher.group(1)).getAbsolutePath());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read the class loading log [{}]", classLoadLog(), e);
+        }
+
+        final List<String> result = new ArrayList<>();
+        for (String jar : loaded) {
+            if (!entries.contains(jar)) result.add(jar);
+        }
+
+        for (File jar : leadingJars(classpath)) result.add(jar.getAbsolutePath());
+        return result;
+    }
+
+    /**
+     * Returns the <code>java</code> executable of a launcher, or the one that runs Gradle.
+     * @param launcher The launcher of the task, if any
+     * @return the <code>java</code> executable
+     */
+    @NotNull
+    public static File javaOf(@Nullable JavaLauncher launcher) {
+        return launcher != null
+                ? launcher.getExecutablePath().getAsFile()
+                : new File(System.getProperty("java.home"), "bin/java");
+    }
+}
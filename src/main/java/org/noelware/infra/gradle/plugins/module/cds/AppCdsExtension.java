@@ -0,0 +1,55 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.cds;
+
+import org.gradle.api.provider.Property;
+
+/**
+ * Represents the <code>noelware.appCds</code> block, which makes the test and application JVMs load the
+ * classes of their classpath from a class data sharing (AppCDS) archive instead of the JARs.
+ */
+public abstract class AppCdsExtension {
+    /**
+     * @return {@link Property<Boolean>} whether if the {@link org.gradle.api.tasks.testing.Test} tasks use an
+     * AppCDS archive, which is created by the <code>trainAppCds</code> task. Defaults to the
+     * <code>org.noelware.gradle.appCds</code> system property.
+     */
+    public abstract Property<Boolean> getEnabled();
+
+    /**
+     * @return {@link Property<Boolean>} whether if the {@link org.gradle.api.tasks.JavaExec} tasks use an
+     * AppCDS archive too, which is created the first time they run. Defaults to <code>true</code>.
+     */
+    public abstract Property<Boolean> getJavaExec();
+
+    /**
+     * @return {@link Property<Boolean>} whether if the JARs of the classpath of the tasks that use an AppCDS
+     * archive are moved before its directories. The JVM only uses the archive for the JARs that the classpath
+     * starts with, and the classpath of a source set starts with its classes directories, so without this the
+     * archive only has the JDK and the JARs of Gradle's test worker. The classes in the directories can't
+     * shadow the ones in the JARs anymore, so this is opt-in. Defaults to the
+     * <code>org.noelware.gradle.appCds.jarsFirst</code> system property.
+     */
+    public abstract Property<Boolean> getJarsFirst();
+}
@@ -0,0 +1,233 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.cds;
+
+import java.io.File;
+import java.util.List;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.CommandLineArgumentProvider;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.Flags;
+import org.noelware.infra.gradle.plugins.module.NoelwareModuleExtension;
+import org.noelware.infra.gradle.plugins.module.testing.TestJvmPreset;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
+
+/**
+ * Configures the {@link Test} and {@link JavaExec} tasks to use an {@link AppCdsArchive} of their classpath
+ * from the <code>noelware.appCds</code> block.
+ *
+ * <p>The archive of a task is trained by the first run of it that only starts a single JVM, or by the
+ * <code>trainAppCds</code> task for the <code>test</code> task. The archive only has the JARs that the classpath
+ * of these tasks starts with, which is nothing but Gradle's test worker for the default layout of a source set,
+ * unless {@link AppCdsExtension#getJarsFirst()} moves the JARs first (see {@link AppCdsArchive}).
+ */
+@ApiStatus.Internal
+public class AppCdsSupport {
+    private static final Logger LOG = Logging.getLogger(AppCdsSupport.class);
+    private static final String TRAINING_TASK = "trainAppCds";
+
+    /**
+     * Sets up the conventions of the <code>noelware.appCds</code> block.
+     * @param appCds The AppCDS extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull AppCdsExtension appCds) {
+        appCds.getEnabled()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.appCds")
+                        .map(Flags::isEnabled)
+                        .orElse(false));
+
+        appCds.getJavaExec().convention(true);
+        appCds.getJarsFirst()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.appCds.jarsFirst")
+                        .map(Flags::isEnabled)
+                        .orElse(false));
+    }
+
+    /**
+     * Configures the {@link Test} and {@link JavaExec} tasks of the project, and registers the
+     * <code>trainAppCds</code> task. This has to be called before the test tasks are configured by
+     * {@link org.noelware.infra.gradle.plugins.module.testing.TestingSupport}, since a test task can only
+     * train its archive once its fork count is known.
+     *
+     * @param project The project
+     * @param ext The module extension
+     */
+    public static void configure(@NotNull Project project, @NotNull NoelwareModuleExtension ext) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        final AppCdsExtension appCds = ext.getAppCds();
+        final Provider<TestJvmPreset> preset = ext.getTesting().getJvm().getPreset();
+        final Provider<Directory> archives = project.getLayout().getBuildDirectory().dir("noelware/cds");
+
+        project.getTasks().withType(Test.class).configureEach(profiler.wrap("AppCdsSupport.Test", (test) -> {
+            final boolean training = test.getName().equals(TRAINING_TASK);
+            if (!training && !appCds.getEnabled().get() && preset.get() != TestJvmPreset.FAST_STARTUP) return;
+
+            // The training run makes the archive that the `test` task uses
+            final Provider<Directory> directory = archives.map((dir) -> dir.dir(training ? "test" : test.getName()));
+            if (test.getName().equals("test")) test.mustRunAfter(TRAINING_TASK);
+            if (appCds.getJarsFirst().get()) test.setClasspath(jarsFirst(project, test.getClasspath()));
+
+            final CdsArguments arguments = new CdsArguments();
+            test.getJvmArgumentProviders().add(arguments);
+            test.doFirst((task) -> {
+                final Test self = (Test) task;
+
+                // A single JVM has to see every test class to record all of them, so it can't stop at the
+                // first test that fails either (the module plugins make every test task fail fast)
+                if (training) {
+                    self.setMaxParallelForks(1);
+                    self.setForkEvery(0L);
+                    self.setFailFast(false);
+                }
+
+                arguments.prepare(
+                        self.getPath(),
+                        directory.get().getAsFile(),
+                        self.getJavaLauncher().getOrNull(),
+                        self.getClasspath(),
+                        self.getMaxParallelForks() == 1 && self.getForkEvery() == 0,
+                        training);
+            });
+
+            test.doLast((task) -> arguments.finish(((Test) task).getClasspath()));
+        }));
+
+        project.getTasks().withType(JavaExec.class).configureEach(profiler.wrap("AppCdsSupport.JavaExec", (exec) -> {
+            if (!appCds.getEnabled().get() || !appCds.getJavaExec().get()) return;
+
+            final Provider<Directory> directory = archives.map((dir) -> dir.dir(exec.getName()));
+            if (appCds.getJarsFirst().get()) exec.setClasspath(jarsFirst(project, exec.getClasspath()));
+
+            final CdsArguments arguments = new CdsArguments();
+            exec.getJvmArgumentProviders().add(arguments);
+            exec.doFirst((task) -> {
+                final JavaExec self = (JavaExec) task;
+                arguments.prepare(
+                        self.getPath(),
+                        directory.get().getAsFile(),
+                        self.getJavaLauncher().getOrNull(),
+                        self.getClasspath(),
+                        true,
+                        false);
+            });
+
+            exec.doLast((task) -> arguments.finish(((JavaExec) task).getClasspath()));
+        }));
+
+        project.getTasks().register(TRAINING_TASK, Test.class, (training) -> {
+            final Test test = project.getTasks().named("test", Test.class).get();
+
+            training.setGroup("verification");
+            training.setDescription("Runs the tests once to create the AppCDS archive that the `test` task uses");
+            training.setTestClassesDirs(test.getTestClassesDirs());
+            training.setClasspath(test.getClasspath());
+            training.getJavaLauncher().set(test.getJavaLauncher());
+
+            // Only the classes that were loaded matter, not whether if the tests passed
+            training.setIgnoreFailures(true);
+            training.getOutputs().upToDateWhen((task) -> false);
+
+            final Provider<Directory> directory = archives.map((dir) -> dir.dir("test"));
+            training.onlyIf("the AppCDS archive of the test classpath doesn't exist yet", (task) -> {
+                final Test self = (Test) task;
+                final File java = AppCdsArchive.javaOf(self.getJavaLauncher().getOrNull());
+
+                return !AppCdsArchive.of(directory.get().getAsFile(), java, self.getClasspath())
+                        .archive()
+                        .exists();
+            });
+        });
+    }
+
+    private static FileCollection jarsFirst(Project project, FileCollection classpath) {
+        return project.files(classpath.getElements().map(AppCdsArchive::jarsFirst));
+    }
+
+    /**
+     * The AppCDS flags of a task. These depend on what's in the build directory, so they're decided when the
+     * task starts and aren't part of the task's inputs.
+     */
+    public static class CdsArguments implements CommandLineArgumentProvider {
+        private List<String> args = List.of();
+        private AppCdsArchive training;
+        private File java;
+
+        @Internal
+        public List<String> getArgs() {
+            return args;
+        }
+
+        void prepare(
+                String path,
+                File directory,
+                @Nullable JavaLauncher launcher,
+                FileCollection classpath,
+                boolean singleJvm,
+                boolean forceTraining) {
+            args = List.of();
+            training = null;
+
+            // Class lists of application classes were added in Java 10
+            if (launcher != null && launcher.getMetadata().getLanguageVersion().asInt() < 10) return;
+
+            java = AppCdsArchive.javaOf(launcher);
+            final AppCdsArchive archive = AppCdsArchive.of(directory, java, classpath);
+            if (archive.archive().exists() && !forceTraining) {
+                LOG.info("Task {} loads its classpath from the AppCDS archive [{}]", path, archive.archive());
+                args = List.of("-Xshare:auto", "-XX:SharedArchiveFile=" + archive.archive().getAbsolutePath());
+                return;
+            }
+
+            // Every JVM would write the same class list
+            if (!singleJvm) return;
+
+            LOG.info("Task {} records the classes it loads for the AppCDS archive [{}]", path, archive.archive());
+            args = archive.prepareTraining();
+            training = archive;
+        }
+
+        void finish(FileCollection classpath) {
+            if (training != null) training.dump(java, classpath);
+            training = null;
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            return args;
+        }
+    }
+}
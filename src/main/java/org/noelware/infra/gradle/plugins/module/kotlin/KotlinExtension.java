@@ -0,0 +1,102 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.kotlin;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Represents the <code>noelware.kotlin</code> block, which configures how the Kotlin compiler is run by the
+ * Kotlin module plugin.
+ */
+public abstract class KotlinExtension {
+    /**
+     * @return {@link Property<ExecutionStrategy>} of where the Kotlin compiler runs, defaults to
+     * {@link ExecutionStrategy#DAEMON}.
+     */
+    public abstract Property<ExecutionStrategy> getExecutionStrategy();
+
+    /**
+     * @return {@link ListProperty} of the JVM arguments of the Kotlin daemon. If this is empty, the daemon is
+     * sized by <code>kotlin.daemon.jvmargs</code> or the settings plugin's performance profile.
+     */
+    public abstract ListProperty<String> getDaemonJvmArgs();
+
+    /**
+     * @return {@link Property<Boolean>} whether if Kotlin sources are compiled incrementally, defaults to
+     * <code>true</code>. Classpath snapshots (<code>kotlin.incremental.useClasspathSnapshot</code>) are turned on
+     * by the plugin unless the project sets that property by itself.
+     */
+    public abstract Property<Boolean> getIncremental();
+
+    /**
+     * @return {@link Property<Boolean>} whether if the compiler should report how long each of its phases took
+     * (<code>-Xreport-perf</code>). The timings of every module are aggregated into
+     * <code>build/reports/noelware/kotlin-perf.json</code> in the root project. Defaults to the
+     * <code>org.noelware.gradle.kotlin.reportPerf</code> system property.
+     */
+    public abstract Property<Boolean> getReportPerformance();
+
+    /**
+     * Runs the compiler in the Kotlin daemon, which is shared between builds.
+     */
+    public void daemon() {
+        getExecutionStrategy().set(ExecutionStrategy.DAEMON);
+    }
+
+    /**
+     * Runs the compiler in the Gradle daemon.
+     */
+    public void inProcess() {
+        getExecutionStrategy().set(ExecutionStrategy.IN_PROCESS);
+    }
+
+    /**
+     * Runs the compiler in a new process for every compilation.
+     */
+    public void outOfProcess() {
+        getExecutionStrategy().set(ExecutionStrategy.OUT_OF_PROCESS);
+    }
+
+    /**
+     * Represents where the Kotlin compiler runs.
+     */
+    public enum ExecutionStrategy {
+        /**
+         * In the Kotlin daemon, which stays warm between builds. This is the fastest for most builds.
+         */
+        DAEMON,
+
+        /**
+         * In the Gradle daemon, which avoids starting the Kotlin daemon (i.e, on short-lived CI machines),
+         * but compilations can't be incremental.
+         */
+        IN_PROCESS,
+
+        /**
+         * In a new process for every compilation, which is mostly useful to debug the other strategies.
+         */
+        OUT_OF_PROCESS
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.kotlin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Build-scoped {@link BuildService} that collects the phase timings that the Kotlin compiler dumps with
+ * <code>-Xreport-perf</code> (i.e, <code>ANALYZE: 12 files (1024 lines) in 1500 ms</code>) from every compile task,
+ * and writes them as one report when the build finishes.
+ */
+public abstract class KotlinPerformanceReportService
+        implements BuildService<KotlinPerformanceReportService.Params>, AutoCloseable {
+    private static final Logger LOG = Logging.getLogger(KotlinPerformanceReportService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String NAME = "noelwareKotlinPerformanceReport";
+
+    /** Matches a phase of the report, the compiler prefixes it with <code>PERF:</code> when it's logged */
+    private static final Pattern PHASE = Pattern.compile("^(?:PERF: )?([A-Z][A-Z ]*?):.*? in (\\d+) ms");
+
+    private final Map<String, Map<String, Long>> phasesByTask = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the {@link KotlinPerformanceReportService} for the build if it wasn't already.
+     * @param project The project that is requesting the service
+     * @return {@link Provider} of the service
+     */
+    public static Provider<KotlinPerformanceReportService> register(@NotNull Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, KotlinPerformanceReportService.class, (spec) -> spec.getParameters()
+                        .getReportFile()
+                        .set(project.getRootProject()
+                                .getLayout()
+                                .getBuildDirectory()
+                                .file("reports/noelware/kotlin-perf.json")));
+    }
+
+    /**
+     * Records the phase timings of a compile task.
+     *
+     * @param taskPath The path of the compile task
+     * @param dump The file that the compiler dumped its timings to
+     */
+    public void record(@NotNull String taskPath, @NotNull File dump) {
+        if (!dump.exists()) return;
+
+        final Map<String, Long> phases = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(dump.toPath())) {
+                final Matcher matcher = PHASE.matcher(line.trim());
+                if (matcher.find()) phases.merge(matcher.group(1), Long.parseLong(matcher.group(2)), Long::sum);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read the Kotlin compiler's performance report [{}]", dump, e);
+            return;
+        }
+
+        phasesByTask.put(taskPath, phases);
+    }
+
+    @Override
+    public void close() {
+        if (phasesByTask.isEmpty()) return;
+
+        final Map<String, Long> totals = new TreeMap<>();
+        for (Map<String, Long> phases : phasesByTask.values())
+            phases.forEach((phase, millis) -> totals.merge(phase, millis, Long::sum));
+
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tasks", phasesByTask.size());
+        report.put("totalMillis", totals);
+        report.put("byTask", new TreeMap<>(phasesByTask));
+
+        final File reportFile = getParameters().getReportFile().get().getAsFile();
+
+        //noinspection ResultOfMethodCallIgnored
+        reportFile.getParentFile().mkdirs();
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        } catch (IOException e) {
+            LOG.warn("Unable to write the Kotlin performance report [{}]", reportFile, e);
+            return;
+        }
+
+        LOG.lifecycle("Kotlin compiler timings of {} task(s) written to {}", phasesByTask.size(), reportFile);
+        totals.forEach((phase, millis) -> LOG.lifecycle("  {}: {} ms", phase, millis));
+    }
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link RegularFileProperty} of where the JSON report is written to
+         */
+        RegularFileProperty getReportFile();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.kotlin;
+
+import java.io.File;
+import java.util.List;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.gradle.tasks.KotlinCompile;
+import org.jetbrains.kotlin.gradle.tasks.KotlinCompilerExecutionStrategy;
+import org.noelware.infra.gradle.Flags;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
+
+/**
+ * Configures the {@link KotlinCompile} tasks of a project from the <code>noelware.kotlin</code> block.
+ */
+@ApiStatus.Internal
+public class KotlinSupport {
+    private static final String CLASSPATH_SNAPSHOT_PROPERTY = "kotlin.incremental.useClasspathSnapshot";
+
+    /**
+     * Sets up the conventions of the <code>noelware.kotlin</code> block.
+     * @param kotlin The Kotlin extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull KotlinExtension kotlin) {
+        kotlin.getExecutionStrategy().convention(KotlinExtension.ExecutionStrategy.DAEMON);
+        kotlin.getIncremental().convention(true);
+        kotlin.getReportPerformance()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.kotlin.reportPerf")
+                        .map(Flags::isEnabled)
+                        .orElse(false));
+    }
+
+    /**
+     * Turns on classpath snapshots for incremental compilation, so a change in a dependency only recompiles
+     * what uses the parts of its ABI that changed. The Kotlin plugin reads this from the project's properties
+     * when it creates its compile tasks, so this has to be called before the Kotlin plugin is applied.
+     *
+     * @param project The project
+     */
+    public static void enableClasspathSnapshots(@NotNull Project project) {
+        if (project.getProviders().gradleProperty(CLASSPATH_SNAPSHOT_PROPERTY).isPresent()) return;
+
+        project.getExtensions().getExtraProperties().set(CLASSPATH_SNAPSHOT_PROPERTY, "true");
+    }
+
+    /**
+     * Configures every {@link KotlinCompile} task in the project.
+     * @param project The project
+     * @param kotlin The Kotlin extension
+     */
+    public static void configure(@NotNull Project project, @NotNull KotlinExtension kotlin) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        final Provider<KotlinPerformanceReportService> reports = KotlinPerformanceReportService.register(project);
+        final Provider<KotlinExtension.ExecutionStrategy> executionStrategy = kotlin.getExecutionStrategy();
+        final Provider<Boolean> reportPerformance = kotlin.getReportPerformance();
+        final Provider<Boolean> incremental = kotlin.getIncremental();
+        final Provider<List<String>> daemonJvmArgs = kotlin.getDaemonJvmArgs();
+
+        project.getTasks().withType(KotlinCompile.class).configureEach(profiler.wrap("KotlinSupport", (compile) -> {
+            compile.getCompilerExecutionStrategy().set(executionStrategy.map(KotlinSupport::toKotlin));
+
+            // Neither of these are task inputs, and the Kotlin plugin only reads them once the task runs. Setting
+            // them here would read the `noelware.kotlin` block before the build script had the chance to configure
+            // it, since this can run as soon as something realizes the task.
+            compile.doFirst((task) -> {
+                final KotlinCompile kotlinCompile = (KotlinCompile) task;
+                kotlinCompile.setIncremental(incremental.get());
+
+                // Otherwise, the settings plugin or `kotlin.daemon.jvmargs` decides
+                final List<String> jvmArgs = daemonJvmArgs.get();
+                if (!jvmArgs.isEmpty()) kotlinCompile.getKotlinDaemonJvmArguments().set(jvmArgs);
+            });
+
+            final Provider<RegularFile> dump = project.getLayout()
+                    .getBuildDirectory()
+                    .file("noelware/kotlin-perf/%s.txt".formatted(compile.getName()));
+
+            compile.compilerOptions((opts) -> opts.getFreeCompilerArgs()
+                    .addAll(reportPerformance.zip(dump, (enabled, file) -> enabled
+                            ? List.of("-Xreport-perf", "-Xdump-perf=" + file.getAsFile().getAbsolutePath())
+                            : List.of())));
+
+            compile.usesService(reports);
+            compile.doFirst((task) -> {
+                final File file = dump.get().getAsFile();
+                if (reportPerformance.get()) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.getParentFile().mkdirs();
+                }
+            });
+
+            compile.doLast((task) -> {
+                if (reportPerformance.get()) reports.get().record(task.getPath(), dump.get().getAsFile());
+            });
+        }));
+    }
+
+    private static KotlinCompilerExecutionStrategy toKotlin(KotlinExtension.ExecutionStrategy strategy) {
+        return switch (strategy) {
+            case DAEMON -> KotlinCompilerExecutionStrategy.DAEMON;
+            case IN_PROCESS -> KotlinCompilerExecutionStrategy.IN_PROCESS;
+            case OUT_OF_PROCESS -> KotlinCompilerExecutionStrategy.OUT_OF_PROCESS;
+        };
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.ByteSize;
+
+/**
+ * Represents how much the live heap of a test JVM grows for every test class it runs, which is
+ * measured from the GC logs of the test JVMs and kept in a small JSON file next to the
+ * {@link TestDurationHistory}.
+ */
+public class ForkHeapHistory {
+    private static final Logger LOG = Logging.getLogger(ForkHeapHistory.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Matches the heap before and after a collection, i.e, <code>24M-&gt;3M(256M)</code> */
+    private static final Pattern COLLECTION = Pattern.compile("(\\d+[KMG])->(\\d+[KMG])\\((\\d+[KMG])\\)");
+
+    /** How much of the maximum heap the live heap is allowed to grow into before the JVM is replaced */
+    private static final double HEAP_BUDGET = 0.7;
+
+    /** Same as {@link TestDurationHistory}'s, so a single run doesn't decide everything */
+    private static final double SMOOTHING = 0.5;
+
+    private double baselineBytes;
+    private double growthPerClassBytes;
+
+    private ForkHeapHistory(double baselineBytes, double growthPerClassBytes) {
+        this.baselineBytes = baselineBytes;
+        this.growthPerClassBytes = growthPerClassBytes;
+    }
+
+    /**
+     * Loads the history from a file, if the file doesn't exist or is corrupted, then an empty
+     * history is returned.
+     *
+     * @param file The history file
+     * @return the {@link ForkHeapHistory}
+     */
+    @NotNull
+    public static ForkHeapHistory load(@NotNull File file) {
+        if (!file.exists()) return new ForkHeapHistory(0, 0);
+
+        try {
+            final Map<?, ?> values = MAPPER.readValue(file, Map.class);
+            return new ForkHeapHistory(
+                    ((Number) values.get("baselineBytes")).doubleValue(),
+                    ((Number) values.get("growthPerClassBytes")).doubleValue());
+        } catch (IOException | ClassCastException | NullPointerException e) {
+            LOG.warn("Unable to read test heap history [{}], starting from scratch", file, e);
+            return new ForkHeapHistory(0, 0);
+        }
+    }
+
+    /**
+     * Records the heap growth of the test JVMs from their GC logs.
+     *
+     * @param gcLogs The GC logs of every test JVM of the run, one for each JVM
+     * @param classes How many test classes were run in total
+     */
+    public void record(@NotNull List<File> gcLogs, int classes) {
+        if (gcLogs.isEmpty() || classes == 0) return;
+
+        final List<long[]> forks = new ArrayList<>();
+        for (File log : gcLogs) {
+            try {
+                long first = -1;
+                long last = -1;
+                for (String line : Files.readAllLines(log.toPath())) {
+                    final Matcher matcher = COLLECTION.matcher(line);
+                    if (!matcher.find()) continue;
+
+                    last = ByteSize.parse(matcher.group(2));
+                    if (first == -1) first = last;
+                }
+
+                if (first != -1) forks.add(new long[] {first, last});
+            } catch (IOException e) {
+                LOG.warn("Unable to read GC log [{}], skipping", log, e);
+            }
+        }
+
+        // Nothing was collected, so the JVMs never came close to running out of heap
+        if (forks.isEmpty()) return;
+
+        // Classes are spread evenly between the JVMs, which is close enough to estimate the growth
+        final double classesPerFork = (double) classes / gcLogs.size();
+        final double baseline =
+                forks.stream().mapToLong((fork) -> fork[0]).average().orElse(0);
+        final double growth = forks.stream()
+                .mapToLong((fork) -> Math.max(0, fork[1] - fork[0]))
+                .average()
+                .orElse(0) / classesPerFork;
+
+        baselineBytes = baselineBytes == 0 ? baseline : baselineBytes * (1 - SMOOTHING) + baseline * SMOOTHING;
+        growthPerClassBytes = growthPerClassBytes == 0
+                ? growth
+                : growthPerClassBytes * (1 - SMOOTHING) + growth * SMOOTHING;
+    }
+
+    /**
+     * Recommends how many test classes a test JVM can run before its live heap grows too close
+     * to its maximum heap.
+     *
+     * @param maxHeapBytes The maximum heap size of the test JVMs
+     * @return how many test classes each test JVM should run, or <code>0</code> if they don't need to be replaced.
+     */
+    public long recommendForkEvery(long maxHeapBytes) {
+        if (growthPerClassBytes <= 0) return 0;
+
+        final double budget = maxHeapBytes * HEAP_BUDGET - baselineBytes;
+        return Math.max(1, (long) (budget / growthPerClassBytes));
+    }
+
+    /**
+     * Saves this history to a file.
+     * @param file The history file
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public void save(@NotNull File file) {
+        file.getParentFile().mkdirs();
+
+        final Map<String, Double> values = new TreeMap<>();
+        values.put("baselineBytes", baselineBytes);
+        values.put("growthPerClassBytes", growthPerClassBytes);
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, values);
+        } catch (IOException e) {
+            LOG.warn("Unable to write test heap history [{}]", file, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link TestListener} that records the heap growth of the test JVMs into the {@link ForkHeapHistory}
+ * once the test task has run all of its tests, so the heap growth of a run that failed is recorded as well.
+ */
+@ApiStatus.Internal
+public class ForkHeapListener implements TestListener {
+    private final Set<String> classes = ConcurrentHashMap.newKeySet();
+    private final File gcLogs;
+    private final File historyFile;
+
+    /**
+     * @param gcLogs The directory that the test JVMs write their GC logs in
+     * @param historyFile The file that the heap growth is recorded in
+     */
+    public ForkHeapListener(@NotNull File gcLogs, @NotNull File historyFile) {
+        this.gcLogs = gcLogs;
+        this.historyFile = historyFile;
+    }
+
+    @Override
+    public void beforeSuite(TestDescriptor suite) {}
+
+    @Override
+    public void afterSuite(TestDescriptor suite, TestResult result) {
+        if (suite.getParent() != null) {
+            // The suites of the test executors don't have a class
+            if (suite.getClassName() != null) classes.add(suite.getClassName());
+            return;
+        }
+
+        final File[] logs = gcLogs.listFiles((dir, name) -> name.startsWith("gc-") && name.endsWith(".log"));
+        if (logs == null) return;
+
+        final ForkHeapHistory history = ForkHeapHistory.load(historyFile);
+        history.record(Arrays.asList(logs), classes.size());
+        history.save(historyFile);
+    }
+
+    @Override
+    public void beforeTest(TestDescriptor testDescriptor) {}
+
+    @Override
+    public void afterTest(TestDescriptor testDescriptor, TestResult result) {}
+}
@@ -0,0 +1,106 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the recorded durations (in milliseconds) of each top-level test class, which is kept in a
+ * small JSON file so it can be carried between builds and CI nodes.
+ */
+public class TestDurationHistory {
+    private static final Logger LOG = Logging.getLogger(TestDurationHistory.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * How much a new measurement weighs against the recorded duration, so a single slow run
+     * doesn't reshuffle every shard.
+     */
+    private static final double SMOOTHING = 0.5;
+
+    private final Map<String, Double> durations;
+
+    private TestDurationHistory(Map<String, Double> durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Loads the history from a file, if the file doesn't exist or is corrupted, then an empty
+     * history is returned.
+     *
+     * @param file The history file
+     * @return the {@link TestDurationHistory}
+     */
+    @NotNull
+    public static TestDurationHistory load(@NotNull File file) {
+        if (!file.exists()) return new TestDurationHistory(new TreeMap<>());
+
+        try {
+            return new TestDurationHistory(MAPPER.readValue(file, new TypeReference<TreeMap<String, Double>>() {}));
+        } catch (IOException e) {
+            LOG.warn("Unable to read test duration history [{}], starting from scratch", file, e);
+            return new TestDurationHistory(new TreeMap<>());
+        }
+    }
+
+    /**
+     * @return all the recorded durations, keyed by the test class name
+     */
+    @NotNull
+    public Map<String, Double> getDurations() {
+        return durations;
+    }
+
+    /**
+     * Records the durations of the test classes of a run.
+     * @param measured How long each test class took in milliseconds, keyed by the test class name
+     */
+    public void record(@NotNull Map<String, Double> measured) {
+        measured.forEach((name, millis) -> durations.merge(
+                name, millis, (previous, current) -> previous * (1 - SMOOTHING) + current * SMOOTHING));
+    }
+
+    /**
+     * Saves this history to a file.
+     * @param file The history file
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public void save(@NotNull File file) {
+        file.getParentFile().mkdirs();
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, new TreeMap<>(durations));
+        } catch (IOException e) {
+            LOG.warn("Unable to write test duration history [{}]", file, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link TestListener} that records how long every test class took into the {@link TestDurationHistory}
+ * once the test task has run all of its tests, so the durations of a run that failed are recorded as well.
+ * Nested classes count towards the top-level class that contains them.
+ */
+@ApiStatus.Internal
+public class TestDurationListener implements TestListener {
+    private final Map<String, Double> measured = new ConcurrentHashMap<>();
+    private final File historyFile;
+
+    public TestDurationListener(@NotNull File historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    @Override
+    public void beforeSuite(TestDescriptor suite) {}
+
+    @Override
+    public void afterSuite(TestDescriptor suite, TestResult result) {
+        if (suite.getParent() == null) {
+            final TestDurationHistory history = TestDurationHistory.load(historyFile);
+            history.record(measured);
+            history.save(historyFile);
+
+            return;
+        }
+
+        // The suites of the test executors don't have a class
+        if (suite.getClassName() != null)
+            measured.merge(
+                    TestImpactIndex.topLevelOf(suite.getClassName()),
+                    (double) (result.getEndTime() - result.getStartTime()),
+                    Double::sum);
+    }
+
+    @Override
+    public void beforeTest(TestDescriptor testDescriptor) {}
+
+    @Override
+    public void afterTest(TestDescriptor testDescriptor, TestResult result) {}
+}
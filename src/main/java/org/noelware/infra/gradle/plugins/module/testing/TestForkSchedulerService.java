@@ -0,0 +1,182 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.ByteSize;
+
+/**
+ * Build-scoped {@link BuildService} that hands out forks to test tasks from a budget that is shared
+ * across every test task in the build. The budget is the smaller of the available processors and how
+ * many test JVMs fit in physical memory, so running multiple test tasks at the same time doesn't
+ * start <code>processors * tasks</code> JVMs.
+ *
+ * <p>What's left of the budget is split between the test task that starts and the test tasks of the build
+ * that can still run at the same time as it, so a test task that runs on its own gets the whole budget, and
+ * the last test tasks of a build get the forks that the finished ones gave back.
+ */
+public abstract class TestForkSchedulerService
+        implements BuildService<TestForkSchedulerService.Params>, OperationCompletionListener {
+    private static final Logger LOG = Logging.getLogger(TestForkSchedulerService.class);
+    private static final String NAME = "noelwareTestForkScheduler";
+
+    /**
+     * Default heap size of a test JVM if the test task doesn't set one.
+     */
+    private static final long DEFAULT_FORK_HEAP = 512L * 1024 * 1024;
+
+    private final Map<String, Integer> granted = new HashMap<>();
+    private final Set<String> finished = new HashSet<>();
+    private int inUse = 0;
+
+    /**
+     * Registers the {@link TestForkSchedulerService} for the build if it wasn't already.
+     * @param project The project that is requesting the service
+     * @param registry The registry to listen for task completion on, so forks are released
+     * @return {@link Provider} of the service
+     */
+    public static Provider<TestForkSchedulerService> register(
+            @NotNull Project project, @NotNull BuildEventsListenerRegistry registry) {
+        final int maxWorkers = project.getGradle().getStartParameter().getMaxWorkerCount();
+        final boolean registered =
+                project.getGradle().getSharedServices().getRegistrations().findByName(NAME) != null;
+
+        final Provider<TestForkSchedulerService> service = project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, TestForkSchedulerService.class, (spec) -> spec.getParameters()
+                        .getMaxConcurrentTasks()
+                        .convention(Math.max(1, maxWorkers)));
+
+        // Every project shares the same service, so it only has to listen once
+        if (!registered) registry.onTaskCompletion(service);
+        return service;
+    }
+
+    /**
+     * Acquires forks for a test task. The forks are released once the task has finished.
+     *
+     * @param taskPath The path of the test task
+     * @param maxHeapSize The maximum heap size of the test JVMs, if it was configured
+     * @param scheduled The paths of the test tasks that the build runs
+     * @return how many forks the test task can use, this is always at least one.
+     */
+    public int acquire(
+            @NotNull String taskPath, @Nullable String maxHeapSize, @NotNull Collection<String> scheduled) {
+        return acquire(taskPath, budget(maxHeapSize), scheduled);
+    }
+
+    synchronized int acquire(@NotNull String taskPath, int budget, @NotNull Collection<String> scheduled) {
+        final Integer existing = granted.get(taskPath);
+        if (existing != null) return existing;
+
+        int pending = 0;
+        for (String path : scheduled) {
+            if (!path.equals(taskPath) && !granted.containsKey(path) && !finished.contains(path)) pending++;
+        }
+
+        // The test tasks that didn't start yet can only run at the same time as this one if there are
+        // workers left for them.
+        final int running = granted.size();
+        final int starting =
+                1 + Math.min(pending, Math.max(0, getParameters().getMaxConcurrentTasks().get() - running - 1));
+
+        final int forks = Math.max(1, (budget - inUse) / starting);
+        granted.put(taskPath, forks);
+        inUse += forks;
+
+        LOG.info(
+                "Test task {} was granted {} fork(s) ({} of {} in use, {} other test task(s) to go)",
+                taskPath,
+                forks,
+                inUse,
+                budget,
+                pending);
+
+        return forks;
+    }
+
+    /**
+     * Releases the forks that were acquired by a test task.
+     * @param taskPath The path of the test task
+     */
+    public synchronized void release(@NotNull String taskPath) {
+        finished.add(taskPath);
+
+        final Integer forks = granted.remove(taskPath);
+        if (forks != null) inUse -= forks;
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        if (event instanceof TaskFinishEvent taskEvent)
+            release(taskEvent.getDescriptor().getTaskPath());
+    }
+
+    private static int budget(@Nullable String maxHeapSize) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final long forkHeap = maxHeapSize != null ? ByteSize.parse(maxHeapSize) : DEFAULT_FORK_HEAP;
+
+        // Leave room for the Gradle daemon itself and the rest of the system, and account
+        // for the JVM's non-heap memory, which is roughly a quarter on top of the heap.
+        final long available = (long) (totalPhysicalMemory() * 0.8) - Runtime.getRuntime().maxMemory();
+        final long perFork = forkHeap + forkHeap / 4;
+        final long byMemory = Math.max(1, available / perFork);
+
+        return (int) Math.max(1, Math.min(processors, byMemory));
+    }
+
+    static long totalPhysicalMemory() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof OperatingSystemMXBean os)
+            return os.getTotalMemorySize();
+
+        return Runtime.getRuntime().maxMemory() * 4;
+    }
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link Property<Integer>} of how many test tasks can run at the same time at most, which
+         * is the max worker count of the build.
+         */
+        Property<Integer> getMaxConcurrentTasks();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Java agent that is attached to the test JVMs of the <code>testImpacted</code> task, which records the
+ * classes that were loaded from the classes directories of the project. This only uses the JDK, since it is
+ * copied into its own JAR by {@link TestImpactSupport} and runs on the classpath of the tests.
+ *
+ * <p>Every JVM runs a single test class, which is the first class that is loaded from the test classes
+ * directories (a class is always loaded before its superclass), and is the first line of the record.
+ *
+ * <p>The argument of the agent is the directory to write the record to, how many test classes directories there
+ * are, the test classes directories and then the other classes directories, separated by {@link File#pathSeparator}.
+ */
+public final class TestImpactAgent implements ClassFileTransformer {
+    private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+    private final Map<String, Boolean> locations = new ConcurrentHashMap<>();
+    private final AtomicReference<String> testClass = new AtomicReference<>();
+    private final List<String> testRoots;
+    private final List<String> roots;
+    private final File output;
+
+    private TestImpactAgent(File output, List<String> testRoots, List<String> roots) {
+        this.output = output;
+        this.testRoots = testRoots;
+        this.roots = roots;
+    }
+
+    public static void premain(String args, Instrumentation instrumentation) {
+        final List<String> parts = List.of(args.split(File.pathSeparator));
+        final int testRoots = Integer.parseInt(parts.get(1));
+        final TestImpactAgent agent = new TestImpactAgent(
+                new File(parts.get(0)), parts.subList(2, 2 + testRoots), parts.subList(2, parts.size()));
+
+        instrumentation.addTransformer(agent);
+        Runtime.getRuntime().addShutdownHook(new Thread(agent::write, "noelware-test-impact"));
+    }
+
+    @Override
+    public byte[] transform(
+            ClassLoader loader, String className, Class<?> redefined, ProtectionDomain domain, byte[] bytes) {
+        if (className == null || domain == null || domain.getCodeSource() == null) return null;
+
+        final URL location = domain.getCodeSource().getLocation();
+        if (location != null && locations.computeIfAbsent(location.toString(), (key) -> isRoot(location, roots))) {
+            loaded.add(className.replace('/', '.'));
+            if (testClass.get() == null && isRoot(location, testRoots))
+                testClass.compareAndSet(null, className.replace('/', '.'));
+        }
+
+        // The class is never changed
+        return null;
+    }
+
+    private static boolean isRoot(URL location, List<String> roots) {
+        try {
+            return roots.contains(new File(location.toURI()).getAbsolutePath());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void write() {
+        //noinspection ResultOfMethodCallIgnored
+        output.mkdirs();
+
+        // Nothing to attribute the classes to if the JVM didn't get to run a test class
+        final String test = testClass.get();
+        if (test == null) return;
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(test);
+        lines.addAll(new TreeSet<>(loaded));
+
+        final File file = new File(output, ProcessHandle.current().pid() + ".txt");
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("[noelware] Unable to write the loaded classes to " + file + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Hashing;
+
+/**
+ * Represents which classes of the project each test class loaded, and what those classes (and the rest of the
+ * classpath) looked like when that test class last ran. A test class that didn't run keeps what it saw the
+ * last time it did. The index is written as a small text file: a table of every class with the hash of its
+ * class file, and for every test class, the hash of the classpath and the positions of its classes in the
+ * table.
+ *
+ * <pre>
+ * noelware-test-impact 2
+ * classes {count}
+ * {hash} {class}
+ * tests {count}
+ * {test class} {classpath} {position} {position} ...
+ * </pre>
+ */
+@ApiStatus.Internal
+public class TestImpactIndex {
+    private static final Logger LOG = Logging.getLogger(TestImpactIndex.class);
+    private static final String HEADER = "noelware-test-impact 2";
+
+    private final Map<String, Entry> tests = new TreeMap<>();
+
+    /**
+     * Loads the index from a file, or returns an empty index if it doesn't exist or can't be read.
+     * @param file The file to load from
+     * @return the {@link TestImpactIndex}
+     */
+    @NotNull
+    public static TestImpactIndex load(@NotNull File file) {
+        final TestImpactIndex index = new TestImpactIndex();
+        if (!file.exists()) return index;
+
+        try {
+            final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(HEADER)) return index;
+
+            int line = 1;
+            final int classCount = Integer.parseInt(lines.get(line++).substring("classes ".length()));
+            final List<String[]> table = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) table.add(lines.get(line++).split(" ", 2));
+
+            final int testCount = Integer.parseInt(lines.get(line++).substring("tests ".length()));
+            for (int i = 0; i < testCount; i++) {
+                final String[] entry = lines.get(line++).split(" ");
+                final Map<String, String> dependencies = new TreeMap<>();
+                for (int j = 2; j < entry.length; j++) {
+                    final String[] dependency = table.get(Integer.parseInt(entry[j]));
+                    dependencies.put(dependency[1], dependency[0]);
+                }
+
+                index.tests.put(entry[0], new Entry(entry[1], dependencies));
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read the test impact index [{}], every test will be run", file, e);
+            return new TestImpactIndex();
+        }
+
+        return index;
+    }
+
+    /**
+     * Saves the index to a file.
+     * @param file The file to save to
+     */
+    public void save(@NotNull File file) {
+        // Test classes that ran at different times can refer to different versions of the same class
+        final Map<String, Integer> positions = new HashMap<>();
+        final List<String> table = new ArrayList<>();
+        for (Entry entry : tests.values()) {
+            for (Map.Entry<String, String> dependency : entry.dependencies().entrySet()) {
+                final String row = dependency.getValue() + " " + dependency.getKey();
+                if (positions.putIfAbsent(row, table.size()) == null) table.add(row);
+            }
+        }
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add("classes " + table.size());
+        lines.addAll(table);
+
+        lines.add("tests " + tests.size());
+        for (Map.Entry<String, Entry> entry : tests.entrySet()) {
+            final StringBuilder line =
+                    new StringBuilder(entry.getKey()).append(' ').append(entry.getValue().classpath());
+
+            for (Map.Entry<String, String> dependency : entry.getValue().dependencies().entrySet())
+                line.append(' ').append(positions.get(dependency.getValue() + " " + dependency.getKey()));
+
+            lines.add(line.toString());
+        }
+
+        try {
+            //noinspection ResultOfMethodCallIgnored
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the test classes that have to run: the ones that aren't in the index yet, the ones that ran
+     * with a different classpath (its JARs or resources), and the ones that loaded a class that changed or was
+     * removed since.
+     *
+     * @param testClasses The top-level test classes
+     * @param currentClasses The classes of the project with the hashes of their class files
+     * @param currentClasspath The hash of the classpath, without its class files
+     * @return the test classes that have to run
+     */
+    @NotNull
+    public Set<String> select(
+            @NotNull Collection<String> testClasses,
+            @NotNull Map<String, String> currentClasses,
+            @NotNull String currentClasspath) {
+        final Set<String> selected = new TreeSet<>();
+        for (String test : testClasses) {
+            final Entry entry = tests.get(test);
+            if (entry == null || !entry.classpath().equals(currentClasspath)) {
+                selected.add(test);
+                continue;
+            }
+
+            for (Map.Entry<String, String> dependency : entry.dependencies().entrySet()) {
+                if (!dependency.getValue().equals(currentClasses.get(dependency.getKey()))) {
+                    selected.add(test);
+                    break;
+                }
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Records the classes that the test JVMs of a run loaded. Each test JVM ran a single test class, which
+     * depends on all the classes of its record; the other test classes it loaded (like an abstract base test)
+     * are left alone. Nested classes count towards the top-level class that contains them. Only the test
+     * classes that have a record are updated; the ones that didn't run (because they were filtered out, or
+     * the run stopped early) keep what they saw the last time they ran, so they still run once something they
+     * depend on changed.
+     *
+     * @param records The classes that each test JVM loaded, by the test class that it ran
+     * @param testClasses The top-level test classes that exist right now
+     * @param currentClasses The classes of the project with the hashes of their class files
+     * @param currentClasspath The hash of the classpath, without its class files
+     */
+    public void record(
+            @NotNull Map<String, Set<String>> records,
+            @NotNull Set<String> testClasses,
+            @NotNull Map<String, String> currentClasses,
+            @NotNull String currentClasspath) {
+        final Map<String, Set<String>> ran = new HashMap<>();
+        records.forEach((testClass, loaded) -> {
+            final String test = topLevelOf(testClass);
+            if (testClasses.contains(test)) ran.computeIfAbsent(test, (key) -> new TreeSet<>()).addAll(loaded);
+        });
+
+        for (Map.Entry<String, Set<String>> entry : ran.entrySet()) {
+            final Map<String, String> dependencies = new TreeMap<>();
+            for (String dependency : entry.getValue()) {
+                final String hash = currentClasses.get(dependency);
+                if (hash != null) dependencies.put(dependency, hash);
+            }
+
+            tests.put(entry.getKey(), new Entry(currentClasspath, dependencies));
+        }
+
+        tests.keySet().retainAll(testClasses);
+    }
+
+    /**
+     * Hashes the class files of the given directories.
+     * @param directories The classes directories
+     * @return the class names with the hashes of their class files
+     */
+    @NotNull
+    public static Map<String, String> hashClasses(@NotNull Iterable<File> directories) {
+        final Map<String, String> hashes = new TreeMap<>();
+        for (File directory : directories) {
+            if (!directory.isDirectory()) continue;
+
+            final Path root = directory.toPath();
+            try (final Stream<Path> paths = Files.walk(root)) {
+                for (Path path : paths.filter((p) -> p.toString().endsWith(".class")).toList()) {
+                    try (final InputStream stream = Files.newInputStream(path)) {
+                        hashes.put(classNameOf(root.relativize(path).toString()), shortHashOf(stream.readAllBytes()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return hashes;
+    }
+
+    /**
+     * Hashes everything on a classpath that isn't a class file in one of its directories: the path, size and
+     * modification time of its JARs, and the contents of the other files in its directories (i.e, the
+     * resources). The agent only sees which classes a test loaded, so any of these changing runs every test.
+     *
+     * @param classpath The classpath
+     * @return the hash
+     */
+    @NotNull
+    public static String hashClasspath(@NotNull Iterable<File> classpath) {
+        final StringBuilder key = new StringBuilder();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                key.append(file.getAbsolutePath())
+                        .append(':')
+                        .append(file.length())
+                        .append(':')
+                        .append(file.lastModified())
+                        .append('\n');
+            } else if (file.isDirectory()) {
+                key.append(file.getAbsolutePath()).append('\n');
+
+                final Path root = file.toPath();
+                try (final Stream<Path> paths = Files.walk(root)) {
+                    final List<Path> files = paths.filter(
+                                    (p) -> Files.isRegularFile(p) && !p.toString().endsWith(".class"))
+                            .sorted()
+                            .toList();
+
+                    for (Path path : files) {
+                        key.append("  ")
+                                .append(root.relativize(path).toString().replace(File.separatorChar, '/'))
+                                .append(':')
+                                .append(shortHashOf(Files.readAllBytes(path)))
+                                .append('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        return shortHashOf(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts the relative path of a class file into the name of the class.
+     * @param relativePath The relative path, i.e, <code>org/noelware/Main.class</code>
+     * @return the class name
+     */
+    @NotNull
+    public static String classNameOf(@NotNull String relativePath) {
+        final String name = relativePath.replace(File.separatorChar, '/');
+        return name.substring(0, name.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * @param className The name of a class
+     * @return the name of the top-level class that contains it
+     */
+    @NotNull
+    public static String topLevelOf(@NotNull String className) {
+        final int nested = className.indexOf('$');
+        return nested == -1 ? className : className.substring(0, nested);
+    }
+
+    private static String shortHashOf(byte[] bytes) {
+        return Hashing.sha256(bytes).substring(0, 16);
+    }
+
+    /**
+     * What a test class saw the last time it ran.
+     *
+     * @param classpath The hash of the classpath
+     * @param dependencies The classes that it loaded, with the hashes of their class files
+     */
+    private record Entry(String classpath, Map<String, String> dependencies) {}
+}
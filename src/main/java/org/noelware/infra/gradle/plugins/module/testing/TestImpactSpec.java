@@ -0,0 +1,103 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Spec} that only includes the test classes that are affected by the classes that changed since the
+ * {@link TestImpactIndex} was last recorded. The affected classes are computed once, when the test task
+ * scans for test classes.
+ */
+public class TestImpactSpec implements Spec<FileTreeElement> {
+    private static final Logger LOG = Logging.getLogger(TestImpactSpec.class);
+
+    private final FileCollection testClassesDirs;
+    private final FileCollection classesDirs;
+    private final FileCollection classpath;
+    private final Provider<RegularFile> indexFile;
+    private transient Set<String> selected;
+
+    public TestImpactSpec(
+            @NotNull FileCollection testClassesDirs,
+            @NotNull FileCollection classesDirs,
+            @NotNull FileCollection classpath,
+            @NotNull Provider<RegularFile> indexFile) {
+        this.testClassesDirs = testClassesDirs;
+        this.classesDirs = classesDirs;
+        this.classpath = classpath;
+        this.indexFile = indexFile;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        if (element.isDirectory() || !element.getName().endsWith(".class")) return true;
+
+        final String className = TestImpactIndex.classNameOf(element.getRelativePath().getPathString());
+        return getSelected().contains(TestImpactIndex.topLevelOf(className));
+    }
+
+    private synchronized Set<String> getSelected() {
+        if (selected != null) return selected;
+
+        final Set<String> testClasses = topLevelClassesOf(testClassesDirs);
+        final Map<String, String> classes = TestImpactIndex.hashClasses(
+                testClassesDirs.plus(classesDirs).getFiles());
+
+        selected = TestImpactIndex.load(indexFile.get().getAsFile())
+                .select(testClasses, classes, TestImpactIndex.hashClasspath(classpath));
+
+        LOG.lifecycle(
+                "{} of {} test class(es) are affected by the classes that changed since the last run",
+                selected.size(),
+                testClasses.size());
+
+        return selected;
+    }
+
+    /**
+     * @param directories The classes directories
+     * @return the top-level classes in the given directories
+     */
+    static Set<String> topLevelClassesOf(FileCollection directories) {
+        final Set<String> classes = new TreeSet<>();
+        for (String className :
+                TestImpactIndex.hashClasses(directories.getFiles()).keySet()) {
+            classes.add(TestImpactIndex.topLevelOf(className));
+        }
+
+        return classes;
+    }
+}
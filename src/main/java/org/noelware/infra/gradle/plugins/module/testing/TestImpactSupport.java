@@ -0,0 +1,220 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.process.CommandLineArgumentProvider;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
+
+/**
+ * Registers the <code>testImpacted</code> task, which only runs the test classes that are affected by the
+ * classes that changed since it last ran. Each test class runs in its own JVM, with the
+ * {@link TestImpactAgent} recording which classes of the project it loaded into a {@link TestImpactIndex}
+ * under <code>build/noelware/test-impact</code>.
+ */
+@ApiStatus.Internal
+public class TestImpactSupport {
+    private static final String TASK_NAME = "testImpacted";
+
+    /**
+     * Registers the <code>testImpacted</code> task. Every test class needs its own JVM no matter what the fork
+     * settings say, so the task sets its own <code>forkEvery</code>, which {@link TestJvmSupport} leaves alone.
+     *
+     * @param project The project
+     */
+    public static void configure(@NotNull Project project) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        final Provider<Directory> directory = project.getLayout().getBuildDirectory().dir("noelware/test-impact");
+        final Provider<RegularFile> indexFile = directory.map((dir) -> dir.file(TASK_NAME + ".idx"));
+        final Provider<Directory> recordsDirectory = directory.map((dir) -> dir.dir("records"));
+        final Provider<RegularFile> agentJar = directory.map((dir) -> dir.file("agent.jar"));
+
+        project.getTasks().withType(Test.class).configureEach(profiler.wrap("TestImpactSupport", (test) -> {
+            if (!test.getName().equals(TASK_NAME)) return;
+
+            final FileCollection classesDirs = project.getExtensions()
+                    .getByType(SourceSetContainer.class)
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                    .getOutput()
+                    .getClassesDirs();
+
+            final FileCollection testClassesDirs = test.getTestClassesDirs();
+            final FileCollection classpath = test.getClasspath();
+            test.include(new TestImpactSpec(testClassesDirs, classesDirs, classpath, indexFile));
+            test.getJvmArgumentProviders()
+                    .add(new AgentArguments(agentJar, recordsDirectory, testClassesDirs, classesDirs));
+
+            test.doFirst((task) -> {
+                writeAgentJar(agentJar.get().getAsFile());
+                deleteRecords(recordsDirectory.get().getAsFile());
+            });
+
+            test.doLast((task) -> {
+                final File records = recordsDirectory.get().getAsFile();
+                final File file = indexFile.get().getAsFile();
+                final TestImpactIndex index = TestImpactIndex.load(file);
+
+                index.record(
+                        readRecords(records),
+                        TestImpactSpec.topLevelClassesOf(testClassesDirs),
+                        TestImpactIndex.hashClasses(testClassesDirs.plus(classesDirs).getFiles()),
+                        TestImpactIndex.hashClasspath(classpath));
+
+                index.save(file);
+                deleteRecords(records);
+            });
+        }));
+
+        project.getTasks().register(TASK_NAME, Test.class, (impacted) -> {
+            final Test test = project.getTasks().named("test", Test.class).get();
+
+            impacted.setGroup("verification");
+            impacted.setDescription("Runs the tests that are affected by the classes that changed since it last ran");
+            TestingSupport.copySetup(test, impacted);
+
+            // The agent can only tell the test classes apart if each of them has its own JVM
+            impacted.setForkEvery(1L);
+        });
+    }
+
+    private static void writeAgentJar(File jar) {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Premain-Class", TestImpactAgent.class.getName());
+
+        final String entry = TestImpactAgent.class.getName().replace('.', '/') + ".class";
+        try (final InputStream agent = TestImpactAgent.class.getClassLoader().getResourceAsStream(entry)) {
+            if (agent == null) throw new GradleException("Unable to find [%s] in the plugin".formatted(entry));
+
+            //noinspection ResultOfMethodCallIgnored
+            jar.getParentFile().mkdirs();
+            try (final OutputStream file = Files.newOutputStream(jar.toPath());
+                    final JarOutputStream stream = new JarOutputStream(file, manifest)) {
+                stream.putNextEntry(new JarEntry(entry));
+                agent.transferTo(stream);
+                stream.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the records of the agent, keyed by the test class that each test JVM ran.
+     */
+    private static Map<String, Set<String>> readRecords(File directory) {
+        final Map<String, Set<String>> records = new HashMap<>();
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) return records;
+
+        for (File file : files) {
+            try {
+                final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                if (lines.isEmpty()) continue;
+
+                records.computeIfAbsent(lines.get(0), (key) -> new TreeSet<>())
+                        .addAll(lines.subList(1, lines.size()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return records;
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static void deleteRecords(File directory) {
+        final File[] files = directory.listFiles();
+        if (files != null) for (File file : files) file.delete();
+    }
+
+    /**
+     * Attaches the {@link TestImpactAgent} to the test JVMs. The agent only records what the tests loaded, so
+     * it isn't part of the task's inputs.
+     */
+    public static class AgentArguments implements CommandLineArgumentProvider {
+        private final Provider<RegularFile> agentJar;
+        private final Provider<Directory> recordsDirectory;
+        private final FileCollection testClassesDirs;
+        private final FileCollection classesDirs;
+
+        AgentArguments(
+                Provider<RegularFile> agentJar,
+                Provider<Directory> recordsDirectory,
+                FileCollection testClassesDirs,
+                FileCollection classesDirs) {
+            this.agentJar = agentJar;
+            this.recordsDirectory = recordsDirectory;
+            this.testClassesDirs = testClassesDirs;
+            this.classesDirs = classesDirs;
+        }
+
+        @Internal
+        public Provider<RegularFile> getAgentJar() {
+            return agentJar;
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            final List<String> arguments = new ArrayList<>();
+            arguments.add(recordsDirectory.get().getAsFile().getAbsolutePath());
+            arguments.add(String.valueOf(testClassesDirs.getFiles().size()));
+            for (File dir : testClassesDirs.getFiles()) arguments.add(dir.getAbsolutePath());
+            for (File dir : classesDirs.getFiles()) arguments.add(dir.getAbsolutePath());
+
+            return List.of("-javaagent:%s=%s"
+                    .formatted(
+                            agentJar.get().getAsFile().getAbsolutePath(),
+                            String.join(File.pathSeparator, arguments)));
+        }
+    }
+}
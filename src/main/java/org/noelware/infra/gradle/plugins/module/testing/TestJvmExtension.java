@@ -0,0 +1,83 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Represents the <code>noelware.testing.jvm</code> block, which configures the JVMs that the
+ * {@link org.gradle.api.tasks.testing.Test} tasks fork.
+ */
+public abstract class TestJvmExtension {
+    /**
+     * @return {@link Property<TestJvmPreset>} of the preset of JVM flags, defaults to the
+     * <code>org.noelware.gradle.test.jvmPreset</code> system property, or {@link TestJvmPreset#NONE}.
+     */
+    public abstract Property<TestJvmPreset> getPreset();
+
+    /**
+     * @return {@link Property<String>} of the maximum heap size of each test JVM (i.e, "1g")
+     */
+    public abstract Property<String> getMaxHeapSize();
+
+    /**
+     * @return {@link ListProperty} of extra flags for each test JVM, which are added after the preset's
+     */
+    public abstract ListProperty<String> getJvmArgs();
+
+    /**
+     * @return {@link Property<Long>} of how many test classes a test JVM runs before it is replaced by
+     * a new one. If this isn't set, it is decided by {@link #getAutoForkEvery()}.
+     */
+    public abstract Property<Long> getForkEvery();
+
+    /**
+     * @return {@link Property<Boolean>} whether if the heap growth of each test JVM is recorded, so test
+     * JVMs that would run out of heap are replaced before they do. Defaults to <code>true</code>.
+     */
+    public abstract Property<Boolean> getAutoForkEvery();
+
+    /**
+     * Uses a preset by its name.
+     * @param name The name of the preset, i.e, <code>fast-startup</code>
+     */
+    public void preset(String name) {
+        getPreset().set(TestJvmPreset.of(name));
+    }
+
+    /**
+     * Uses the {@link TestJvmPreset#FAST_STARTUP} preset.
+     */
+    public void fastStartup() {
+        getPreset().set(TestJvmPreset.FAST_STARTUP);
+    }
+
+    /**
+     * Uses the {@link TestJvmPreset#THROUGHPUT} preset.
+     */
+    public void throughput() {
+        getPreset().set(TestJvmPreset.THROUGHPUT);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.util.List;
+import java.util.Locale;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a preset of JVM flags for the test JVMs.
+ */
+public enum TestJvmPreset {
+    /**
+     * Doesn't add any flags, so the JVM's ergonomics decide.
+     */
+    NONE(List.of()),
+
+    /**
+     * For test suites that are dominated by starting the JVM and loading classes: only compiles with C1,
+     * uses the Serial garbage collector and an AppCDS archive of the test classpath, which is created on the
+     * first run that uses a single fork, or by the <code>trainAppCds</code> task.
+     */
+    FAST_STARTUP(List.of("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC", "-Xshare:auto")),
+
+    /**
+     * For long-running test suites: uses the Parallel garbage collector, and a higher initial metaspace
+     * threshold so loading many classes doesn't trigger full collections early on.
+     */
+    THROUGHPUT(List.of("-XX:+UseParallelGC", "-XX:MetaspaceSize=128m", "-XX:ReservedCodeCacheSize=256m"));
+
+    private final List<String> jvmArgs;
+
+    TestJvmPreset(List<String> jvmArgs) {
+        this.jvmArgs = jvmArgs;
+    }
+
+    /**
+     * @return the JVM flags of this preset
+     */
+    @NotNull
+    public List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+
+    /**
+     * Returns the preset by its name, i.e, <code>fast-startup</code> or <code>throughput</code>.
+     * @param name The name of the preset
+     * @return the {@link TestJvmPreset}
+     */
+    @NotNull
+    public static TestJvmPreset of(@NotNull String name) {
+        final String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (TestJvmPreset preset : values()) {
+            if (preset.name().equals(normalized)) return preset;
+        }
+
+        throw new IllegalArgumentException(
+                "Unknown test JVM preset [%s], expected one of: none, fast-startup, throughput".formatted(name));
+    }
+}
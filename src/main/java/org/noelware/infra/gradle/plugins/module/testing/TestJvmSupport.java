@@ -0,0 +1,209 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.process.CommandLineArgumentProvider;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.noelware.infra.gradle.ByteSize;
+import org.noelware.infra.gradle.Flags;
+
+/**
+ * Configures the JVMs of the {@link Test} tasks from the <code>noelware.testing.jvm</code> block.
+ */
+@ApiStatus.Internal
+public class TestJvmSupport {
+    private static final Logger LOG = Logging.getLogger(TestJvmSupport.class);
+
+    /**
+     * Sets up the conventions of the <code>noelware.testing.jvm</code> block.
+     * @param jvm The test JVM extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull TestJvmExtension jvm) {
+        jvm.getPreset()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.test.jvmPreset")
+                        .map(TestJvmPreset::of)
+                        .orElse(TestJvmPreset.NONE));
+
+        jvm.getAutoForkEvery()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.test.autoForkEvery")
+                        .map(Flags::isEnabled)
+                        .orElse(true));
+    }
+
+    /**
+     * Configures the JVMs of a {@link Test} task. The class data sharing archive of the
+     * {@link TestJvmPreset#FAST_STARTUP} preset is set up by
+     * {@link org.noelware.infra.gradle.plugins.module.cds.AppCdsSupport}.
+     *
+     * @param project The project
+     * @param test The test task
+     * @param jvm The test JVM extension
+     * @param historyFile The file that the heap growth of the test JVMs is recorded in
+     */
+    public static void configure(
+            @NotNull Project project,
+            @NotNull Test test,
+            @NotNull TestJvmExtension jvm,
+            @NotNull Provider<RegularFile> historyFile) {
+        final Provider<String> maxHeapSize = jvm.getMaxHeapSize();
+        final JvmArguments arguments = new JvmArguments(jvm.getPreset(), jvm.getJvmArgs(), maxHeapSize);
+        test.getJvmArgumentProviders().add(arguments);
+
+        final Provider<Long> forkEvery = jvm.getForkEvery();
+        final Provider<Boolean> autoForkEvery = jvm.getAutoForkEvery();
+        final Provider<Directory> workDirectory =
+                project.getLayout().getBuildDirectory().dir("noelware/test-jvm/" + test.getName());
+
+        test.doFirst((task) -> {
+            final Test self = (Test) task;
+            final File directory = workDirectory.get().getAsFile();
+            final List<String> runtimeArgs = new ArrayList<>();
+
+            // A task that replaces its JVMs by itself (i.e, `testImpacted`) is left alone
+            if (self.getForkEvery() != 0) {
+                LOG.info(
+                        "Test task {} already replaces its JVMs every {} test classes",
+                        self.getPath(),
+                        self.getForkEvery());
+            } else if (forkEvery.isPresent()) {
+                self.setForkEvery(forkEvery.get());
+            } else if (autoForkEvery.get()) {
+                final String heap = maxHeapSizeOf(self, maxHeapSize);
+                final long maxHeap =
+                        heap != null ? ByteSize.parse(heap) : TestForkSchedulerService.totalPhysicalMemory() / 4;
+
+                final long recommended =
+                        ForkHeapHistory.load(historyFile.get().getAsFile()).recommendForkEvery(maxHeap);
+
+                if (recommended > 0) {
+                    LOG.info("Test task {} replaces its JVMs every {} test classes", self.getPath(), recommended);
+                    self.setForkEvery(recommended);
+                }
+
+                final File gcLogs = prepareGcLogs(directory);
+                runtimeArgs.add("-Xlog:gc:file=\"%s\"".formatted(new File(gcLogs, "gc-%p.log")));
+
+                // Recorded by a listener, so the heap growth of a run that failed is kept too
+                self.addTestListener(new ForkHeapListener(gcLogs, historyFile.get().getAsFile()));
+            }
+
+            arguments.setRuntimeArgs(runtimeArgs);
+        });
+    }
+
+    /**
+     * @param test The test task
+     * @param maxHeapSize The maximum heap size from the <code>noelware.testing.jvm</code> block
+     * @return the maximum heap size that the test JVMs run with, or <code>null</code> if it wasn't configured.
+     * The one from the <code>noelware.testing.jvm</code> block comes after the task's own in the JVM's
+     * arguments, so it wins.
+     */
+    @Nullable
+    public static String maxHeapSizeOf(@NotNull Test test, @NotNull Provider<String> maxHeapSize) {
+        return maxHeapSize.isPresent() ? maxHeapSize.get() : test.getMaxHeapSize();
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static File prepareGcLogs(File directory) {
+        final File gcLogs = new File(directory, "gc");
+        gcLogs.mkdirs();
+
+        // Only the JVMs of this run should be measured
+        final File[] previous = gcLogs.listFiles();
+        if (previous != null) for (File log : previous) log.delete();
+
+        return gcLogs;
+    }
+
+    /**
+     * The JVM flags of the preset and the <code>noelware.testing.jvm</code> block. The flags that depend on
+     * the machine (the GC logs) are decided when the task starts, and
+     * aren't part of the task's inputs.
+     */
+    public static class JvmArguments implements CommandLineArgumentProvider {
+        private final Provider<TestJvmPreset> preset;
+        private final Provider<List<String>> jvmArgs;
+        private final Provider<String> maxHeapSize;
+        private List<String> runtimeArgs = List.of();
+
+        JvmArguments(Provider<TestJvmPreset> preset, Provider<List<String>> jvmArgs, Provider<String> maxHeapSize) {
+            this.preset = preset;
+            this.jvmArgs = jvmArgs;
+            this.maxHeapSize = maxHeapSize;
+        }
+
+        @Input
+        public Provider<TestJvmPreset> getPreset() {
+            return preset;
+        }
+
+        @Input
+        public Provider<List<String>> getJvmArgs() {
+            return jvmArgs;
+        }
+
+        @Input
+        @Optional
+        public Provider<String> getMaxHeapSize() {
+            return maxHeapSize;
+        }
+
+        @Internal
+        public List<String> getRuntimeArgs() {
+            return runtimeArgs;
+        }
+
+        void setRuntimeArgs(List<String> runtimeArgs) {
+            this.runtimeArgs = List.copyOf(runtimeArgs);
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            final List<String> arguments = new ArrayList<>(preset.get().getJvmArgs());
+            arguments.addAll(jvmArgs.get());
+            if (maxHeapSize.isPresent()) arguments.add("-Xmx" + maxHeapSize.get());
+
+            arguments.addAll(runtimeArgs);
+
+            return arguments;
+        }
+    }
+}
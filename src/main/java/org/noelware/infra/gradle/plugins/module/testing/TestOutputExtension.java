@@ -0,0 +1,105 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.util.Locale;
+import org.gradle.api.provider.Property;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the <code>noelware.testing.output</code> block, which configures where the output of the tests
+ * goes.
+ */
+public abstract class TestOutputExtension {
+    /**
+     * @return {@link Property<Mode>} of where the output of the tests goes. Defaults to the
+     * <code>org.noelware.gradle.test.output</code> system property, or {@link Mode#STREAMING} on CI
+     * (when the <code>CI</code> environment variable is set) and {@link Mode#CONSOLE} everywhere else.
+     */
+    public abstract Property<Mode> getMode();
+
+    /**
+     * @return {@link Property<Integer>} of how many of the last lines of output of a failed test are shown on the
+     * console in {@link Mode#STREAMING}, defaults to <code>50</code>.
+     */
+    public abstract Property<Integer> getFailureTailLines();
+
+    /**
+     * @return {@link Property<String>} of how big (i.e, "10m") an output file can get before it is rotated in
+     * {@link Mode#STREAMING}, defaults to <code>10m</code>.
+     */
+    public abstract Property<String> getMaxFileSize();
+
+    /**
+     * @return {@link Property<Integer>} of how many output files of a test class are kept, including the one
+     * that is being written to, defaults to <code>3</code>.
+     */
+    public abstract Property<Integer> getMaxFiles();
+
+    /**
+     * Logs every test event and line of output to the console.
+     */
+    public void console() {
+        getMode().set(Mode.CONSOLE);
+    }
+
+    /**
+     * Writes the output of each test class to <code>build/test-output/{task}</code>, and only shows failures
+     * (with the last lines of their output) on the console.
+     */
+    public void streaming() {
+        getMode().set(Mode.STREAMING);
+    }
+
+    /**
+     * Represents where the output of the tests goes.
+     */
+    public enum Mode {
+        /**
+         * Every test event and line of output goes through Gradle's logging to the console.
+         */
+        CONSOLE,
+
+        /**
+         * The output goes to rotating files per test class, and only failures are shown on the console.
+         */
+        STREAMING;
+
+        /**
+         * Returns the mode by its name, i.e, <code>streaming</code>.
+         * @param name The name of the mode
+         * @return the {@link Mode}
+         */
+        @NotNull
+        public static Mode of(@NotNull String name) {
+            final String normalized = name.trim().toUpperCase(Locale.ROOT);
+            for (Mode mode : values()) {
+                if (mode.name().equals(normalized)) return mode;
+            }
+
+            throw new IllegalArgumentException(
+                    "Unknown test output mode [%s], expected one of: console, streaming".formatted(name));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.EnumSet;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.api.tasks.testing.logging.TestExceptionFormat;
+import org.gradle.api.tasks.testing.logging.TestLogEvent;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.ByteSize;
+
+/**
+ * Configures where the output of the {@link Test} tasks goes from the <code>noelware.testing.output</code>
+ * block.
+ */
+@ApiStatus.Internal
+public class TestOutputSupport {
+    /**
+     * Sets up the conventions of the <code>noelware.testing.output</code> block.
+     * @param output The test output extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull TestOutputExtension output) {
+        output.getMode()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.test.output")
+                        .map(TestOutputExtension.Mode::of)
+                        .orElse(project.getProviders()
+                                .environmentVariable("CI")
+                                .map((value) -> TestOutputExtension.Mode.STREAMING)
+                                .orElse(TestOutputExtension.Mode.CONSOLE)));
+
+        output.getFailureTailLines().convention(50);
+        output.getMaxFileSize().convention("10m");
+        output.getMaxFiles().convention(3);
+    }
+
+    /**
+     * Configures where the output of a {@link Test} task goes. The mode is only read when the task starts,
+     * so the build script can still change it after the task was configured.
+     *
+     * @param project The project
+     * @param test The test task
+     * @param output The test output extension
+     * @param showStandardStreams If the console mode should show the standard streams of the tests, the Kotlin
+     *                            module plugin never turned them on
+     */
+    public static void configure(
+            @NotNull Project project,
+            @NotNull Test test,
+            @NotNull TestOutputExtension output,
+            boolean showStandardStreams) {
+        final Provider<TestOutputExtension.Mode> mode = output.getMode();
+        final Provider<Directory> outputDirectory =
+                project.getLayout().getBuildDirectory().dir("test-output/" + test.getName());
+
+        final Provider<Integer> tailLines = output.getFailureTailLines();
+        final Provider<Long> maxFileSize = output.getMaxFileSize().map(ByteSize::parse);
+        final Provider<Integer> maxFiles = output.getMaxFiles();
+
+        // The listeners are added when the task starts, so each run writes to a fresh set of files
+        test.doFirst((task) -> {
+            final Test self = (Test) task;
+            if (mode.get() == TestOutputExtension.Mode.CONSOLE) {
+                self.testLogging((logging) -> {
+                    logging.events(
+                            TestLogEvent.PASSED,
+                            TestLogEvent.FAILED,
+                            TestLogEvent.SKIPPED,
+                            TestLogEvent.STANDARD_ERROR,
+                            TestLogEvent.STANDARD_OUT,
+                            TestLogEvent.STARTED);
+
+                    logging.setShowCauses(true);
+                    if (showStandardStreams) logging.setShowStandardStreams(true);
+                    logging.setShowExceptions(true);
+                    logging.setExceptionFormat(TestExceptionFormat.FULL);
+                });
+
+                return;
+            }
+
+            // `events()` adds to what the build script set, which would still log the passing tests
+            self.testLogging((logging) -> {
+                logging.setEvents(EnumSet.of(TestLogEvent.FAILED, TestLogEvent.SKIPPED));
+                logging.setShowCauses(true);
+                logging.setShowStandardStreams(false);
+                logging.setShowExceptions(true);
+                logging.setExceptionFormat(TestExceptionFormat.FULL);
+            });
+
+            final TestOutputWriter writer = new TestOutputWriter(
+                    prepare(outputDirectory.get().getAsFile()), tailLines.get(), maxFileSize.get(), maxFiles.get());
+
+            self.addTestOutputListener(writer);
+            self.addTestListener(writer);
+        });
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static File prepare(File directory) {
+        directory.mkdirs();
+
+        final File[] previous = directory.listFiles((dir, name) -> name.endsWith(".log"));
+        if (previous != null) for (File file : previous) file.delete();
+
+        return directory;
+    }
+}
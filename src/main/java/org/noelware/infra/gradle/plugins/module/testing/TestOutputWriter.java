@@ -0,0 +1,207 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestOutputListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Writes the output of each test class to its own file as it comes in, and keeps the last lines of output
+ * of every running test, so they can be shown when the test fails. A file is rotated into
+ * <code>{class}.1.log</code>, <code>{class}.2.log</code>, ... once it gets too big.
+ */
+@ApiStatus.Internal
+public class TestOutputWriter implements TestListener, TestOutputListener {
+    private static final Logger LOG = Logging.getLogger(TestOutputWriter.class);
+
+    private final Map<String, ClassOutput> classes = new HashMap<>();
+    private final Map<String, Deque<String>> tails = new HashMap<>();
+    private final File directory;
+    private final int tailLines;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    public TestOutputWriter(@NotNull File directory, int tailLines, long maxFileSize, int maxFiles) {
+        this.directory = directory;
+        this.tailLines = tailLines;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    @Override
+    public synchronized void onOutput(TestDescriptor descriptor, TestOutputEvent event) {
+        final String message = event.getMessage();
+        final ClassOutput output = classes.computeIfAbsent(fileNameOf(descriptor), ClassOutput::new);
+        try {
+            output.write(descriptor.getName(), event.getDestination(), message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (tailLines <= 0 || descriptor.isComposite()) return;
+
+        final Deque<String> tail = tails.computeIfAbsent(keyOf(descriptor), (key) -> new ArrayDeque<>());
+        for (String line : message.split("\\R")) {
+            if (tail.size() == tailLines) tail.removeFirst();
+            tail.addLast(line);
+        }
+    }
+
+    @Override
+    public void beforeSuite(TestDescriptor suite) {}
+
+    @Override
+    public synchronized void afterSuite(TestDescriptor suite, TestResult result) {
+        if (suite.getParent() == null) {
+            close();
+            return;
+        }
+
+        // The suite of a test class is done, so its file can be closed
+        if (suite.getClassName() != null && suite.getClassName().equals(suite.getName())) {
+            final ClassOutput output = classes.remove(fileNameOf(suite));
+            if (output != null) output.close();
+        }
+    }
+
+    @Override
+    public void beforeTest(TestDescriptor descriptor) {}
+
+    @Override
+    public synchronized void afterTest(TestDescriptor descriptor, TestResult result) {
+        final Deque<String> tail = tails.remove(keyOf(descriptor));
+        if (result.getResultType() != TestResult.ResultType.FAILURE || tail == null) return;
+
+        LOG.lifecycle(
+                "Last {} line(s) of output of {} > {} (see [{}] for all of it):\n{}",
+                tail.size(),
+                descriptor.getClassName(),
+                descriptor.getName(),
+                new File(directory, fileNameOf(descriptor) + ".log"),
+                String.join("\n", tail));
+    }
+
+    /**
+     * Closes every file that is still open.
+     */
+    public synchronized void close() {
+        for (ClassOutput output : classes.values()) output.close();
+        classes.clear();
+        tails.clear();
+    }
+
+    private static String keyOf(TestDescriptor descriptor) {
+        return descriptor.getClassName() + "#" + descriptor.getName();
+    }
+
+    private static String fileNameOf(TestDescriptor descriptor) {
+        final String name = descriptor.getClassName() != null ? descriptor.getClassName() : descriptor.getName();
+        return name.replaceAll("[^A-Za-z0-9._$-]", "_");
+    }
+
+    private final class ClassOutput {
+        private final String name;
+        private BufferedWriter writer;
+        private String lastTest;
+        private long written;
+
+        ClassOutput(String name) {
+            this.name = name;
+        }
+
+        void write(String test, TestOutputEvent.Destination destination, String message) throws IOException {
+            if (writer == null || written >= maxFileSize) rotate();
+            if (!test.equals(lastTest)) {
+                lastTest = test;
+                append("=== " + test + " ===\n");
+            }
+
+            append(destination == TestOutputEvent.Destination.StdErr ? "[stderr] " + message : message);
+        }
+
+        private void append(String value) throws IOException {
+            writer.write(value);
+            written += value.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        private void rotate() throws IOException {
+            final boolean first = writer == null;
+            if (writer != null) writer.close();
+
+            final File current = new File(directory, name + ".log");
+            if (!first && maxFiles > 1) {
+                for (int i = maxFiles - 1; i >= 1; i--) {
+                    final File from = i == 1 ? current : new File(directory, "%s.%d.log".formatted(name, i - 1));
+                    if (from.exists())
+                        Files.move(
+                                from.toPath(),
+                                new File(directory, "%s.%d.log".formatted(name, i)).toPath(),
+                                StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            // A test class can run again in another JVM, which shouldn't overwrite what it wrote before, unless
+            // there is only the one file to keep it under the limit
+            final boolean truncate = !first && maxFiles == 1;
+            writer = Files.newBufferedWriter(
+                    current.toPath(),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+
+            written = truncate ? 0 : current.length();
+            lastTest = null;
+        }
+
+        void close() {
+            if (writer == null) return;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close the test output file of [{}]", name, e);
+            }
+
+            writer = null;
+        }
+    }
+}
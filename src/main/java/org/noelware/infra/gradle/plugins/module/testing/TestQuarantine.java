@@ -0,0 +1,140 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the test classes that failed and then passed on a retry, which is kept in a small JSON file
+ * so it can be carried between builds and CI nodes. Quarantined test classes run after the rest of the suite,
+ * and are let out of the quarantine once they passed {@link #CLEAN_RUNS} runs in a row.
+ */
+public class TestQuarantine {
+    private static final Logger LOG = Logging.getLogger(TestQuarantine.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int CLEAN_RUNS = 10;
+
+    private final Map<String, Entry> entries;
+
+    private TestQuarantine(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the quarantine from a file, if the file doesn't exist or is corrupted, then an empty
+     * quarantine is returned.
+     *
+     * @param file The quarantine file
+     * @return the {@link TestQuarantine}
+     */
+    @NotNull
+    public static TestQuarantine load(@NotNull File file) {
+        if (!file.exists()) return new TestQuarantine(new TreeMap<>());
+
+        try {
+            return new TestQuarantine(MAPPER.readValue(file, new TypeReference<TreeMap<String, Entry>>() {}));
+        } catch (IOException e) {
+            LOG.warn("Unable to read test quarantine [{}], starting from scratch", file, e);
+            return new TestQuarantine(new TreeMap<>());
+        }
+    }
+
+    /**
+     * @return the names of the quarantined test classes
+     */
+    @NotNull
+    public Set<String> getClasses() {
+        return entries.keySet();
+    }
+
+    /**
+     * Records that a test class failed, and then passed on a retry.
+     * @param className The name of the test class
+     */
+    public void recordFlaky(@NotNull String className) {
+        final Entry entry = entries.computeIfAbsent(className, (key) -> new Entry());
+        entry.flakyRuns++;
+        entry.cleanRuns = 0;
+        entry.lastFlaky = Instant.now().toString();
+    }
+
+    /**
+     * Records that a quarantined test class passed on its first try.
+     * @param className The name of the test class
+     */
+    public void recordClean(@NotNull String className) {
+        final Entry entry = entries.get(className);
+        if (entry == null) return;
+
+        if (++entry.cleanRuns >= CLEAN_RUNS) {
+            LOG.lifecycle("Test class {} passed {} runs in a row, and is no longer quarantined", className, CLEAN_RUNS);
+            entries.remove(className);
+        }
+    }
+
+    /**
+     * Saves this quarantine to a file.
+     * @param file The quarantine file
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public void save(@NotNull File file) {
+        file.getParentFile().mkdirs();
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, entries);
+        } catch (IOException e) {
+            LOG.warn("Unable to write test quarantine [{}]", file, e);
+        }
+    }
+
+    /**
+     * Represents a quarantined test class.
+     */
+    public static class Entry {
+        /**
+         * How many times the test class failed and then passed on a retry.
+         */
+        public int flakyRuns;
+
+        /**
+         * How many runs in a row the test class passed on its first try since it last was flaky.
+         */
+        public int cleanRuns;
+
+        /**
+         * When the test class last was flaky, as an ISO-8601 timestamp.
+         */
+        public String lastFlaky;
+    }
+}
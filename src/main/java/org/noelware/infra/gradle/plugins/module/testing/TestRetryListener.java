@@ -0,0 +1,140 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link TestListener} that records which test classes failed in an attempt of the <code>test</code> task
+ * into the {@link TestRetryService}, and which of them are flaky into the {@link TestQuarantine}, once the
+ * attempt has run all of its tests, so the last attempt records them even when it fails the build.
+ *
+ * <p>Every test class can be retried as many times as there are retries, counting from the first attempt
+ * that runs it: the <code>test</code> task for most of them, and the first retry for the quarantined ones.
+ */
+@ApiStatus.Internal
+public class TestRetryListener implements TestListener {
+    private static final Logger LOG = Logging.getLogger(TestRetryListener.class);
+
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+    private final TestRetryService service;
+    private final String testPath;
+    private final int attempt;
+    private final int retries;
+    private final File quarantineFile;
+
+    public TestRetryListener(
+            @NotNull TestRetryService service,
+            @NotNull String testPath,
+            int attempt,
+            int retries,
+            @NotNull File quarantineFile) {
+        this.service = service;
+        this.testPath = testPath;
+        this.attempt = attempt;
+        this.retries = retries;
+        this.quarantineFile = quarantineFile;
+    }
+
+    @Override
+    public void beforeSuite(TestDescriptor suite) {}
+
+    @Override
+    public void afterSuite(TestDescriptor suite, TestResult result) {
+        if (suite.getParent() == null) {
+            record();
+            return;
+        }
+
+        // The suites of the test executors don't have a class
+        if (suite.getClassName() != null)
+            results.merge(
+                    TestImpactIndex.topLevelOf(suite.getClassName()),
+                    result.getResultType() == TestResult.ResultType.FAILURE,
+                    Boolean::logicalOr);
+    }
+
+    @Override
+    public void beforeTest(TestDescriptor testDescriptor) {}
+
+    @Override
+    public void afterTest(TestDescriptor testDescriptor, TestResult result) {}
+
+    private void record() {
+        final Set<String> quarantined = service.getQuarantined(testPath, quarantineFile);
+        final Set<String> failed = new TreeSet<>();
+        results.forEach((className, failure) -> {
+            if (failure) failed.add(className);
+        });
+
+        // Only the test classes that failed are retried, the ones without a result were filtered out
+        final Set<String> remaining = new TreeSet<>(failed);
+        if (attempt == 0) remaining.addAll(quarantined);
+
+        final Set<String> exhausted = new TreeSet<>();
+        for (String className : remaining) {
+            final int firstAttempt = quarantined.contains(className) ? 1 : 0;
+            if (firstAttempt + retries <= attempt) exhausted.add(className);
+        }
+
+        remaining.removeAll(exhausted);
+        if (attempt > 0) {
+            final TestQuarantine quarantine = TestQuarantine.load(quarantineFile);
+            final Set<String> previouslyFailed = service.getFailed(testPath, attempt - 1);
+            final Set<String> flaky = new TreeSet<>();
+            results.forEach((className, failure) -> {
+                if (failure) return;
+                if (previouslyFailed.contains(className)) {
+                    flaky.add(className);
+                    quarantine.recordFlaky(className);
+                } else if (attempt == 1 && quarantined.contains(className)) {
+                    quarantine.recordClean(className);
+                }
+            });
+
+            if (!flaky.isEmpty())
+                LOG.lifecycle(
+                        "{} test class(es) passed on retry {} and are quarantined in [{}]: {}",
+                        flaky.size(),
+                        attempt,
+                        quarantineFile,
+                        String.join(", ", flaky));
+
+            quarantine.save(quarantineFile);
+        }
+
+        service.record(testPath, attempt, failed, remaining, exhausted);
+    }
+}
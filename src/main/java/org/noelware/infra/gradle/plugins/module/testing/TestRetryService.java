@@ -0,0 +1,133 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Build-scoped {@link BuildService} that keeps the results of every attempt of a test task, so its retries
+ * only see what happened in this build.
+ */
+public abstract class TestRetryService implements BuildService<BuildServiceParameters.None> {
+    private static final String NAME = "noelwareTestRetries";
+
+    private final Map<String, Attempt> attempts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> quarantined = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the {@link TestRetryService} for the build if it wasn't already.
+     * @param project The project that is requesting the service
+     * @return {@link Provider} of the service
+     */
+    public static Provider<TestRetryService> register(@NotNull Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, TestRetryService.class, (spec) -> {});
+    }
+
+    /**
+     * Records the results of an attempt.
+     *
+     * @param testPath The path of the test task
+     * @param attempt The attempt, <code>0</code> for the test task itself
+     * @param failed The test classes that failed
+     * @param remaining The test classes that the next attempt has to run
+     * @param exhausted The test classes that failed, and have no retries left
+     */
+    public void record(
+            @NotNull String testPath,
+            int attempt,
+            @NotNull Set<String> failed,
+            @NotNull Set<String> remaining,
+            @NotNull Set<String> exhausted) {
+        attempts.put(
+                keyOf(testPath, attempt),
+                new Attempt(Set.copyOf(failed), Set.copyOf(remaining), Set.copyOf(exhausted)));
+    }
+
+    /**
+     * Returns the test classes that were quarantined when the build started, which is read once, so the
+     * test classes that are quarantined during the build don't change which attempt runs them first.
+     *
+     * @param testPath The path of the test task
+     * @param quarantineFile The {@link TestQuarantine} file
+     * @return the quarantined test classes
+     */
+    @NotNull
+    public Set<String> getQuarantined(@NotNull String testPath, @NotNull File quarantineFile) {
+        return quarantined.computeIfAbsent(
+                testPath, (key) -> Set.copyOf(TestQuarantine.load(quarantineFile).getClasses()));
+    }
+
+    /**
+     * @param testPath The path of the test task
+     * @param attempt The attempt, <code>0</code> for the test task itself
+     * @return the test classes that failed in the attempt
+     */
+    @NotNull
+    public Set<String> getFailed(@NotNull String testPath, int attempt) {
+        final Attempt result = attempts.get(keyOf(testPath, attempt));
+        return result != null ? result.failed() : Set.of();
+    }
+
+    /**
+     * @param testPath The path of the test task
+     * @param attempt The attempt, <code>0</code> for the test task itself
+     * @return the test classes that failed in the attempt, and have no retries left
+     */
+    @NotNull
+    public Set<String> getExhausted(@NotNull String testPath, int attempt) {
+        final Attempt result = attempts.get(keyOf(testPath, attempt));
+        return result != null ? result.exhausted() : Set.of();
+    }
+
+    /**
+     * Returns the test classes that the attempt after the given one has to run. If the test task itself
+     * didn't run in this build (i.e, everything that is left is quarantined), that's the quarantined classes.
+     *
+     * @param testPath The path of the test task
+     * @param attempt The attempt, <code>0</code> for the test task itself
+     * @param quarantineFile The {@link TestQuarantine} file
+     * @return the test classes that the next attempt has to run
+     */
+    @NotNull
+    public Set<String> getRemaining(@NotNull String testPath, int attempt, @NotNull File quarantineFile) {
+        final Attempt result = attempts.get(keyOf(testPath, attempt));
+        if (result != null) return result.remaining();
+
+        return attempt == 0 ? getQuarantined(testPath, quarantineFile) : Set.of();
+    }
+
+    private static String keyOf(String testPath, int attempt) {
+        return testPath + "#" + attempt;
+    }
+
+    private record Attempt(Set<String> failed, Set<String> remaining, Set<String> exhausted) {}
+}
@@ -0,0 +1,129 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.util.Set;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Spec} that matches the test classes that a retry of the <code>test</code> task has to run, or the
+ * quarantined test classes that the first attempt leaves for the retries. The classes are read once, when
+ * the test task scans for test classes.
+ */
+public class TestRetrySpec implements Spec<FileTreeElement> {
+    private static final Logger LOG = Logging.getLogger(TestRetrySpec.class);
+
+    private final Provider<RegularFile> quarantineFile;
+    private final Provider<Integer> retries;
+    private final Provider<TestRetryService> service;
+    private final String testPath;
+    private final int previousAttempt;
+    private final boolean remaining;
+    private transient Set<String> classes;
+
+    private TestRetrySpec(
+            Provider<RegularFile> quarantineFile,
+            Provider<Integer> retries,
+            Provider<TestRetryService> service,
+            String testPath,
+            int previousAttempt,
+            boolean remaining) {
+        this.quarantineFile = quarantineFile;
+        this.retries = retries;
+        this.service = service;
+        this.testPath = testPath;
+        this.previousAttempt = previousAttempt;
+        this.remaining = remaining;
+    }
+
+    /**
+     * Matches the test classes that failed in the previous attempt, which should be included.
+     *
+     * @param quarantineFile The {@link TestQuarantine} file
+     * @param retries How many retries there are
+     * @param service The service that has the results of the previous attempt
+     * @param testPath The path of the test task
+     * @param previousAttempt The previous attempt
+     * @return the {@link TestRetrySpec}
+     */
+    @NotNull
+    public static TestRetrySpec remaining(
+            @NotNull Provider<RegularFile> quarantineFile,
+            @NotNull Provider<Integer> retries,
+            @NotNull Provider<TestRetryService> service,
+            @NotNull String testPath,
+            int previousAttempt) {
+        return new TestRetrySpec(quarantineFile, retries, service, testPath, previousAttempt, true);
+    }
+
+    /**
+     * Matches the quarantined test classes, which should be excluded from the first attempt.
+     * @param quarantineFile The {@link TestQuarantine} file
+     * @param retries How many retries there are, nothing is quarantined without any
+     * @param service The service that has the test classes that were quarantined when the build started
+     * @param testPath The path of the test task
+     * @return the {@link TestRetrySpec}
+     */
+    @NotNull
+    public static TestRetrySpec quarantined(
+            @NotNull Provider<RegularFile> quarantineFile,
+            @NotNull Provider<Integer> retries,
+            @NotNull Provider<TestRetryService> service,
+            @NotNull String testPath) {
+        return new TestRetrySpec(quarantineFile, retries, service, testPath, -1, false);
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        // Directories have to be included to get to the classes in them, and never excluded
+        if (element.isDirectory() || !element.getName().endsWith(".class")) return remaining;
+
+        final String className = TestImpactIndex.classNameOf(element.getRelativePath().getPathString());
+        return getClasses().contains(TestImpactIndex.topLevelOf(className));
+    }
+
+    private synchronized Set<String> getClasses() {
+        if (classes != null) return classes;
+        if (retries.get() == 0) {
+            classes = Set.of();
+            return classes;
+        }
+
+        if (remaining) {
+            classes = service.get().getRemaining(testPath, previousAttempt, quarantineFile.get().getAsFile());
+        } else {
+            classes = service.get().getQuarantined(testPath, quarantineFile.get().getAsFile());
+            if (!classes.isEmpty())
+                LOG.lifecycle("{} quarantined test class(es) run after the rest of the suite", classes.size());
+        }
+
+        return classes;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.testing.Test;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Retries the test classes of the <code>test</code> task that failed. Every retry is its own
+ * <code>testRetry{n}</code> task that finalizes the previous attempt, so the test classes run in fresh JVMs,
+ * and a test class only fails the build once it has no retries left. The attempts don't stop at the first
+ * failure, so a test class that has no result was filtered out, and is never retried.
+ *
+ * <p>Test classes that pass on a retry are recorded in a {@link TestQuarantine}, and the first attempt
+ * leaves them for the retries, so they run after the rest of the suite. They keep all of their retries,
+ * since there's one more retry than {@link TestingExtension#getRetries()} that only runs them.
+ */
+@ApiStatus.Internal
+public class TestRetrySupport {
+    private static final Pattern RETRY_TASK = Pattern.compile("^testRetry(\\d+)$");
+    private static final String TASK_NAME = "test";
+
+    /**
+     * Configures the attempts of the <code>test</code> task, and registers its retries once they're enabled
+     * with {@link TestingExtension#retries(int)}.
+     *
+     * @param project The project
+     * @param testing The testing extension
+     */
+    public static void configure(@NotNull Project project, @NotNull TestingExtension testing) {
+        final Provider<TestRetryService> service = TestRetryService.register(project);
+        final String testPath = project.getPath().equals(":") ? ":" + TASK_NAME : project.getPath() + ":" + TASK_NAME;
+
+        final String historyName = testPath.substring(1).replace(':', '-');
+        final Provider<RegularFile> quarantineFile =
+                testing.getHistoryDirectory().file(historyName + "-quarantine.json");
+
+        // Setting the retries directly doesn't register the tasks that run them, so there are only
+        // as many retries as there are tasks for
+        final Property<Integer> registered = project.getObjects().property(Integer.class).convention(0);
+        final Provider<Integer> retries = testing.getRetries().zip(registered, Math::min);
+
+        final int[] tasks = {0};
+        testing.whenRetriesEnabled((count) -> {
+            for (int attempt = tasks[0] + 1; attempt <= count + 1; attempt++) {
+                final int number = attempt;
+                final int previous = attempt - 1;
+                final String name = TASK_NAME + "Retry" + attempt;
+
+                project.getTasks().register(name, Test.class, (retry) -> {
+                    final Test test = project.getTasks().named(TASK_NAME, Test.class).get();
+
+                    retry.setGroup("verification");
+                    retry.setDescription("Runs the test classes of the `test` task that failed again");
+                    TestingSupport.copySetup(test, retry);
+                    for (String pattern : commandLinePatternsOf(project, testPath))
+                        retry.getFilter().includeTestsMatching(pattern);
+
+                    retry.include(TestRetrySpec.remaining(quarantineFile, retries, service, testPath, previous));
+                    retry.onlyIf(
+                            "test classes failed in the previous attempt",
+                            (task) -> number <= retries.get() + 1
+                                    && !service.get()
+                                            .getRemaining(testPath, previous, quarantineFile.get().getAsFile())
+                                            .isEmpty());
+                });
+
+                project.getTasks()
+                        .named(previous == 0 ? TASK_NAME : TASK_NAME + "Retry" + previous)
+                        .configure((task) -> task.finalizedBy(name));
+            }
+
+            tasks[0] = Math.max(tasks[0], count + 1);
+            registered.set(Math.max(registered.get(), count));
+        });
+
+        project.getTasks().withType(Test.class).configureEach((test) -> {
+            final int attempt = attemptOf(test.getName());
+            if (attempt < 0) return;
+
+            test.usesService(service);
+            if (attempt == 0) test.exclude(TestRetrySpec.quarantined(quarantineFile, retries, service, testPath));
+
+            // The test classes that have retries left don't fail the build, the ones that don't are failed
+            // below, once the listener has recorded them. Every scheduled test class has to run, since
+            // the ones that didn't aren't retried.
+            test.doFirst((task) -> {
+                if (retries.get() == 0) return;
+
+                final Test self = (Test) task;
+                self.setFailFast(false);
+                self.setIgnoreFailures(true);
+                self.addTestListener(new TestRetryListener(
+                        service.get(), testPath, attempt, retries.get(), quarantineFile.get().getAsFile()));
+            });
+
+            test.doLast((task) -> {
+                if (retries.get() == 0) return;
+
+                final Set<String> exhausted = service.get().getExhausted(testPath, attempt);
+                if (!exhausted.isEmpty())
+                    throw new GradleException("%d test class(es) failed, and have no retries left: %s"
+                            .formatted(exhausted.size(), String.join(", ", exhausted)));
+            });
+        });
+    }
+
+    /**
+     * The test name patterns that the task was given with <code>--tests</code> on the command line. They
+     * only apply to the task itself, but its retries must not run the test classes that they filter out
+     * either (i.e, the quarantined ones).
+     *
+     * @param project The project
+     * @param testPath The path of the <code>test</code> task
+     * @return the patterns, if any
+     */
+    private static List<String> commandLinePatternsOf(@NotNull Project project, @NotNull String testPath) {
+        final List<String> patterns = new ArrayList<>();
+        for (TaskExecutionRequest request : project.getGradle().getStartParameter().getTaskRequests()) {
+            boolean selected = false;
+            final List<String> args = request.getArgs();
+            for (int i = 0; i < args.size(); i++) {
+                final String arg = args.get(i);
+                if (arg.equals("--tests") && i + 1 < args.size()) {
+                    if (selected) patterns.add(args.get(++i));
+                } else if (arg.startsWith("--tests=")) {
+                    if (selected) patterns.add(arg.substring("--tests=".length()));
+                } else if (!arg.startsWith("-")) {
+                    selected = arg.equals(TASK_NAME) || arg.equals(testPath) || arg.equals(testPath.substring(1));
+                }
+            }
+        }
+
+        return patterns;
+    }
+
+    /**
+     * @param name The name of a test task
+     * @return <code>0</code> for the <code>test</code> task, the number of the retry for its retries, or
+     * <code>-1</code> for any other task
+     */
+    public static int attemptOf(@NotNull String name) {
+        if (name.equals(TASK_NAME)) return 0;
+
+        final Matcher matcher = RETRY_TASK.matcher(name);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
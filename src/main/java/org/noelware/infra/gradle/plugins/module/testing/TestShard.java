@@ -0,0 +1,134 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a shard of the test classes, which is set with the <code>org.noelware.gradle.test.shard</code>
+ * Gradle property (i.e, <code>-Porg.noelware.gradle.test.shard=2/4</code> runs the second of four shards).
+ *
+ * @param index The index of this shard, starting from 1
+ * @param total How many shards there are
+ */
+public record TestShard(int index, int total) implements Serializable {
+    /**
+     * Name of the Gradle property that selects the shard to run.
+     */
+    public static final String PROPERTY = "org.noelware.gradle.test.shard";
+
+    /**
+     * Parses a shard from the <code>i/n</code> notation.
+     * @param value The value of the {@link #PROPERTY} property
+     * @return the {@link TestShard}
+     */
+    @NotNull
+    public static TestShard parse(@NotNull String value) {
+        final String[] parts = value.trim().split("/");
+        try {
+            if (parts.length == 2) {
+                final int index = Integer.parseInt(parts[0].trim());
+                final int total = Integer.parseInt(parts[1].trim());
+                if (total >= 1 && index >= 1 && index <= total) return new TestShard(index, total);
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the exception below
+        }
+
+        throw new GradleException(
+                "Expected `%s` to be in the form of `i/n` (where 1 <= i <= n), received `%s`".formatted(PROPERTY, value));
+    }
+
+    /**
+     * Splits the test classes across all shards with the longest-processing-time first heuristic: the slowest
+     * class is given to the shard with the least amount of work until every class has a shard. Classes that
+     * don't have a recorded duration (new test classes, or ones that never produced any test results like
+     * abstract or helper classes) weigh nothing, and are split by the hash of their name instead, so they
+     * don't skew the balance of the classes that do.
+     *
+     * <p>Every shard has to use the same durations, or the shards won't agree on which shard runs a class.
+     *
+     * @param classes The test classes
+     * @param durations The recorded durations of the test classes
+     * @return the test classes that this shard should run
+     */
+    @NotNull
+    public Set<String> select(@NotNull Collection<String> classes, @NotNull Map<String, Double> durations) {
+        final List<String> sorted = new ArrayList<>();
+        final List<String> unknown = new ArrayList<>();
+        for (String name : classes) {
+            if (durations.containsKey(name)) sorted.add(name);
+            else unknown.add(name);
+        }
+
+        sorted.sort(Comparator.<String>comparingDouble(durations::get)
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        final double[] loads = new double[total];
+        final Set<String> selected = selectByHash(unknown);
+        for (String name : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < total; i++) {
+                if (loads[i] < loads[lightest]) lightest = i;
+            }
+
+            loads[lightest] += durations.get(name);
+            if (lightest == index - 1) selected.add(name);
+        }
+
+        return selected;
+    }
+
+    /**
+     * Splits the test classes across all shards by the hash of their name, which is what every shard
+     * computes the same way when there are no durations that every shard shares.
+     *
+     * @param classes The test classes
+     * @return the test classes that this shard should run
+     */
+    @NotNull
+    public Set<String> selectByHash(@NotNull Collection<String> classes) {
+        final Set<String> selected = new HashSet<>();
+        for (String name : classes) {
+            if (Math.floorMod(name.hashCode(), total) == index - 1) selected.add(name);
+        }
+
+        return selected;
+    }
+
+    @Override
+    public String toString() {
+        return "%d/%d".formatted(index, total);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Spec} that only includes the test classes of a {@link TestShard}. The shard's classes are
+ * computed once, when the test task scans for test classes. They're balanced by the durations in the
+ * {@link TestingExtension#getShardDurations() shared durations file} if there is one, and split by the
+ * hash of their name otherwise.
+ */
+public class TestShardSpec implements Spec<FileTreeElement> {
+    private final TestShard shard;
+    private final FileCollection testClassesDirs;
+    private final Provider<RegularFile> durationsFile;
+    private transient Set<String> selected;
+
+    public TestShardSpec(
+            @NotNull TestShard shard,
+            @NotNull FileCollection testClassesDirs,
+            @NotNull Provider<RegularFile> durationsFile) {
+        this.shard = shard;
+        this.testClassesDirs = testClassesDirs;
+        this.durationsFile = durationsFile;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        if (element.isDirectory() || !element.getName().endsWith(".class")) return true;
+        return getSelected().contains(toClassName(element.getRelativePath().getPathString()));
+    }
+
+    private synchronized Set<String> getSelected() {
+        if (selected != null) return selected;
+
+        final Set<String> classes = new TreeSet<>();
+        for (File dir : testClassesDirs.getFiles()) {
+            if (!dir.isDirectory()) continue;
+
+            final Path root = dir.toPath();
+            try (final Stream<Path> paths = Files.walk(root)) {
+                paths.filter((path) -> path.toString().endsWith(".class"))
+                        .map((path) -> toClassName(root.relativize(path).toString()))
+                        .forEach(classes::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        selected = durationsFile.isPresent()
+                ? shard.select(classes, TestDurationHistory.load(durationsFile.get().getAsFile()).getDurations())
+                : shard.selectByHash(classes);
+
+        return selected;
+    }
+
+    /**
+     * Converts the relative path of a class file into the name of its top-level class, so nested
+     * classes are always run in the same shard as the class that contains them.
+     */
+    private static String toClassName(String relativePath) {
+        String name = relativePath.replace(File.separatorChar, '/');
+        name = name.substring(0, name.length() - ".class".length());
+
+        final int nested = name.indexOf('$');
+        if (nested != -1) name = name.substring(0, nested);
+
+        return name.replace('/', '.');
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.Action;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Nested;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Represents the <code>noelware.testing</code> block, which configures how the {@link org.gradle.api.tasks.testing.Test}
+ * tasks are run by the Java and Kotlin module plugins.
+ */
+public abstract class TestingExtension {
+    private final List<Action<? super Integer>> retriesEnabledActions = new ArrayList<>();
+
+    /**
+     * @return {@link Property<ForkMode>} of how many forks each {@link org.gradle.api.tasks.testing.Test} task
+     * is allowed to use, defaults to {@link ForkMode#AUTO}.
+     */
+    public abstract Property<ForkMode> getForkMode();
+
+    /**
+     * @return {@link Property<Integer>} of how many forks each test task can use when using {@link ForkMode#FIXED}.
+     */
+    public abstract Property<Integer> getMaxParallelForks();
+
+    /**
+     * @return {@link Property<Boolean>} whether if test tasks can be up-to-date when none of their inputs
+     * have changed, defaults to <code>false</code> so tests are always re-run.
+     */
+    public abstract Property<Boolean> getUpToDateChecks();
+
+    /**
+     * @return {@link DirectoryProperty} of where the recorded durations of each test class (and the rest of
+     * the test history) are kept. Defaults to <code>.gradle/noelware/test-history</code> in the root project,
+     * so it can be cached between CI runs.
+     */
+    public abstract DirectoryProperty getHistoryDirectory();
+
+    /**
+     * @return {@link RegularFileProperty} of the durations that the shards are balanced with when running with
+     * <code>-Porg.noelware.gradle.test.shard=i/n</code>. Every shard has to see the same file, i.e, one that
+     * is committed, or merged from the recorded durations of every CI node of a previous run (the files in
+     * {@link #getHistoryDirectory()} have the same format). Defaults to the file in the
+     * <code>org.noelware.gradle.test.shardDurations</code> Gradle property; without one, the test classes
+     * are split by the hash of their name.
+     */
+    public abstract RegularFileProperty getShardDurations();
+
+    /**
+     * @return {@link Property<Integer>} of how many times the test classes of the <code>test</code> task that
+     * failed are retried. The task doesn't stop at the first failure then, so every test class gets to run.
+     * Defaults to the <code>org.noelware.gradle.test.retries</code> system property, or <code>0</code>. Use
+     * {@link #retries(int)} to enable the retries, which registers the tasks that run them; setting this
+     * directly only lowers how many of the registered retries run.
+     */
+    public abstract Property<Integer> getRetries();
+
+    /**
+     * @return {@link TestJvmExtension} that configures the JVMs that the test tasks fork
+     */
+    @Nested
+    public abstract TestJvmExtension getJvm();
+
+    /**
+     * Configures the JVMs that the test tasks fork.
+     * @param action The action to configure the {@link TestJvmExtension}
+     */
+    public void jvm(Action<? super TestJvmExtension> action) {
+        action.execute(getJvm());
+    }
+
+    /**
+     * @return {@link TestOutputExtension} that configures where the output of the tests goes
+     */
+    @Nested
+    public abstract TestOutputExtension getOutput();
+
+    /**
+     * Configures where the output of the tests goes.
+     * @param action The action to configure the {@link TestOutputExtension}
+     */
+    public void output(Action<? super TestOutputExtension> action) {
+        action.execute(getOutput());
+    }
+
+    /**
+     * Retries the test classes of the <code>test</code> task that failed, each retry in fresh JVMs. Test
+     * classes that pass on a retry are quarantined, and run after the rest of the suite from then on, with
+     * just as many retries as the rest.
+     *
+     * @param retries How many times the test classes are retried
+     */
+    public void retries(int retries) {
+        if (retries < 0)
+            throw new IllegalArgumentException("Expected at least zero retries, received %d".formatted(retries));
+
+        getRetries().set(retries);
+        for (Action<? super Integer> action : retriesEnabledActions) action.execute(retries);
+    }
+
+    /**
+     * Runs the given action every time the retries are set with {@link #retries(int)}, and right away if
+     * they're already enabled by the <code>org.noelware.gradle.test.retries</code> system property.
+     * @param action The action to run
+     */
+    @ApiStatus.Internal
+    public void whenRetriesEnabled(Action<? super Integer> action) {
+        retriesEnabledActions.add(action);
+        if (getRetries().getOrElse(0) > 0) action.execute(getRetries().get());
+    }
+
+    /**
+     * Shares a memory and core-aware fork budget across every test task that is running
+     * at the same time.
+     */
+    public void auto() {
+        getForkMode().set(ForkMode.AUTO);
+    }
+
+    /**
+     * Uses a fixed amount of forks for each test task.
+     * @param forks The amount of forks
+     */
+    public void fixed(int forks) {
+        if (forks < 1) throw new IllegalArgumentException("Expected at least one fork, received %d".formatted(forks));
+
+        getForkMode().set(ForkMode.FIXED);
+        getMaxParallelForks().set(forks);
+    }
+
+    /**
+     * Lets every test task use as many forks as there are processors, without coordinating
+     * with other test tasks.
+     */
+    public void perTask() {
+        getForkMode().set(ForkMode.PER_TASK);
+    }
+
+    /**
+     * Represents how the amount of forks for a test task is determined.
+     */
+    public enum ForkMode {
+        /**
+         * Forks are taken from a budget that is shared across all running test tasks, based
+         * off the available processors and physical memory.
+         */
+        AUTO,
+
+        /**
+         * Every test task uses {@link TestingExtension#getMaxParallelForks()} forks.
+         */
+        FIXED,
+
+        /**
+         * Every test task uses as many forks as there are available processors.
+         */
+        PER_TASK
+    }
+}
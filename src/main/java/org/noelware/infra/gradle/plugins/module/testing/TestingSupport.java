@@ -0,0 +1,203 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
+import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.profiling.ConfigurationProfiler;
+
+/**
+ * Configures the {@link Test} tasks of a project from the <code>noelware.testing</code> block.
+ */
+@ApiStatus.Internal
+public class TestingSupport {
+    /**
+     * Sets up the conventions of the <code>noelware.testing</code> block.
+     * @param testing The testing extension
+     */
+    public static void conventions(@NotNull Project project, @NotNull TestingExtension testing) {
+        testing.getForkMode().convention(TestingExtension.ForkMode.AUTO);
+        testing.getMaxParallelForks().convention(Runtime.getRuntime().availableProcessors());
+        testing.getUpToDateChecks().convention(false);
+        testing.getHistoryDirectory()
+                .convention(project.getRootProject().getLayout().getProjectDirectory().dir(".gradle/noelware/test-history"));
+
+        testing.getShardDurations()
+                .convention(project.getProviders()
+                        .gradleProperty("org.noelware.gradle.test.shardDurations")
+                        .map((path) -> project.getRootProject().getLayout().getProjectDirectory().file(path)));
+
+        TestJvmSupport.conventions(project, testing.getJvm());
+        TestOutputSupport.conventions(project, testing.getOutput());
+        testing.getRetries()
+                .convention(project.getProviders()
+                        .systemProperty("org.noelware.gradle.test.retries")
+                        .map(Integer::parseInt)
+                        .orElse(0));
+    }
+
+    /**
+     * Configures every {@link Test} task in the project.
+     * @param project The project
+     * @param testing The testing extension
+     * @param registry The registry to listen for task completion on
+     * @param showStandardStreams If the console output mode shows the standard streams of the tests
+     */
+    public static void configure(
+            @NotNull Project project,
+            @NotNull TestingExtension testing,
+            @NotNull BuildEventsListenerRegistry registry,
+            boolean showStandardStreams) {
+        final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+        final Provider<TestForkSchedulerService> scheduler = TestForkSchedulerService.register(project, registry);
+        final Provider<TestingExtension.ForkMode> forkMode = testing.getForkMode();
+        final Provider<Integer> maxParallelForks = testing.getMaxParallelForks();
+        final Provider<Boolean> upToDateChecks = testing.getUpToDateChecks();
+        final Provider<String> maxHeapSize = testing.getJvm().getMaxHeapSize();
+        final Provider<TestShard> shard =
+                project.getProviders().gradleProperty(TestShard.PROPERTY).map(TestShard::parse);
+
+        // The fork budget is only split between the test tasks that this build runs, the retries
+        // never run at the same time as the task they retry.
+        final SetProperty<String> scheduledTests = project.getObjects().setProperty(String.class);
+        project.getGradle().getTaskGraph().whenReady((graph) -> scheduledTests.set(graph.getAllTasks().stream()
+                .filter((task) -> task instanceof Test && TestRetrySupport.attemptOf(task.getName()) < 1)
+                .map(Task::getPath)
+                .toList()));
+
+        project.getTasks().withType(Test.class).configureEach(profiler.wrap("TestingSupport.configureEach", (test) -> {
+            test.getOutputs().upToDateWhen((task) -> upToDateChecks.get());
+            test.usesService(scheduler);
+            TestOutputSupport.configure(project, test, testing.getOutput(), showStandardStreams);
+
+            // How long each test class took, which the shards of later runs can be balanced with
+            final String historyName = test.getPath().substring(1).replace(':', '-');
+            final Provider<RegularFile> historyFile = testing.getHistoryDirectory().file(historyName + ".json");
+
+            // doFirst actions run in the reverse order they're added in, so the JVM's actions
+            // run once the fork count is decided.
+            TestJvmSupport.configure(
+                    project, test, testing.getJvm(), testing.getHistoryDirectory().file(historyName + "-heap.json"));
+
+            // The fork count is only decided when the task starts, since that's when we
+            // know which other test tasks are running.
+            test.doFirst((task) -> {
+                final Test self = (Test) task;
+                final int forks =
+                        switch (forkMode.get()) {
+                            case AUTO -> scheduler.get()
+                                    .acquire(
+                                            self.getPath(),
+                                            TestJvmSupport.maxHeapSizeOf(self, maxHeapSize),
+                                            scheduledTests.get());
+                            case FIXED -> maxParallelForks.get();
+                            case PER_TASK -> Runtime.getRuntime().availableProcessors();
+                        };
+
+                self.setMaxParallelForks(forks);
+            });
+
+            // Recorded by a listener, so the durations of a run that failed are kept too
+            test.doFirst((task) ->
+                    ((Test) task).addTestListener(new TestDurationListener(historyFile.get().getAsFile())));
+
+            // The retries include what's left to run themselves, and the include specs would only add to
+            // that, so they exclude the other shards' test classes instead
+            if (shard.isPresent()) {
+                test.getInputs().property("noelware.shard", shard.map(TestShard::toString));
+                test.getInputs()
+                        .file(testing.getShardDurations())
+                        .optional()
+                        .withPathSensitivity(PathSensitivity.NONE)
+                        .withPropertyName("noelware.shardDurations");
+
+                final TestShardSpec spec =
+                        new TestShardSpec(shard.get(), test.getTestClassesDirs(), testing.getShardDurations());
+
+                if (TestRetrySupport.attemptOf(test.getName()) < 1) test.include(spec);
+                else test.exclude((element) -> !element.isDirectory() && !spec.isSatisfiedBy(element));
+            }
+        }));
+
+        TestRetrySupport.configure(project, testing);
+    }
+
+    /**
+     * Sets up a test task that runs (some of) the test classes of another one, i.e, a retry, in the same
+     * kind of JVM: with the same classes, classpath, toolchain, system properties, environment, JVM
+     * arguments, heap size and test framework options. It never runs a test class that the other task
+     * filters out: its include and exclude patterns and test filter are kept too.
+     *
+     * @param from The test task to copy from
+     * @param to The test task to set up
+     */
+    public static void copySetup(@NotNull Test from, @NotNull Test to) {
+        to.setTestClassesDirs(from.getTestClassesDirs());
+        to.setClasspath(from.getClasspath());
+        to.getJavaLauncher().set(from.getJavaLauncher());
+        to.setSystemProperties(from.getSystemProperties());
+        to.setEnvironment(from.getEnvironment());
+        to.setJvmArgs(from.getJvmArgs());
+        to.setMinHeapSize(from.getMinHeapSize());
+        to.setMaxHeapSize(from.getMaxHeapSize());
+
+        // The task includes its own test classes, which the include patterns would only add to
+        to.exclude(from.getExcludes());
+        if (!from.getIncludes().isEmpty()) {
+            final Spec<FileTreeElement> included = new PatternSet().include(from.getIncludes()).getAsSpec();
+            to.exclude((element) -> !element.isDirectory() && !included.isSatisfiedBy(element));
+        }
+
+        to.getFilter().setIncludePatterns(from.getFilter().getIncludePatterns().toArray(String[]::new));
+        to.getFilter().setExcludePatterns(from.getFilter().getExcludePatterns().toArray(String[]::new));
+        to.getFilter().setFailOnNoMatchingTests(false);
+
+        if (from.getOptions() instanceof JUnitPlatformOptions options) {
+            to.useJUnitPlatform((platform) -> {
+                platform.includeEngines(options.getIncludeEngines().toArray(String[]::new));
+                platform.excludeEngines(options.getExcludeEngines().toArray(String[]::new));
+                platform.includeTags(options.getIncludeTags().toArray(String[]::new));
+                platform.excludeTags(options.getExcludeTags().toArray(String[]::new));
+            });
+        } else if (from.getOptions() instanceof JUnitOptions options) {
+            to.useJUnit((junit) -> {
+                junit.includeCategories(options.getIncludeCategories().toArray(String[]::new));
+                junit.excludeCategories(options.getExcludeCategories().toArray(String[]::new));
+            });
+        }
+    }
+}
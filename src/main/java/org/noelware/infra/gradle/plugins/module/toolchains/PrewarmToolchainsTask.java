@@ -0,0 +1,60 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.toolchains;
+
+import java.util.Set;
+import java.util.TreeSet;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+/**
+ * Resolves every Java toolchain a project needs ahead of time. Gradle locates (or downloads and unpacks)
+ * a toolchain when it resolves the launchers as the task's inputs, so this task only reports which installations
+ * are used. Running <code>prewarmToolchains</code> with <code>--parallel</code> provisions the toolchains of
+ * every project at the same time, before any compilation has to wait on them.
+ */
+public abstract class PrewarmToolchainsTask extends DefaultTask {
+    /**
+     * @return {@link ListProperty} of the launchers of every toolchain the project needs
+     */
+    @Nested
+    public abstract ListProperty<JavaLauncher> getLaunchers();
+
+    @TaskAction
+    public void prewarm() {
+        final Set<String> installations = new TreeSet<>();
+        for (JavaLauncher launcher : getLaunchers().get()) {
+            installations.add("Java %s (%s) at %s"
+                    .formatted(
+                            launcher.getMetadata().getLanguageVersion(),
+                            launcher.getMetadata().getVendor(),
+                            launcher.getMetadata().getInstallationPath().getAsFile()));
+        }
+
+        for (String installation : installations) getLogger().lifecycle("Using {}", installation);
+    }
+}
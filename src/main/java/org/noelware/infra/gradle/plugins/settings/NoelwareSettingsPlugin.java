@@ -27,24 +27,54 @@ import com.gradle.enterprise.gradleplugin.GradleEnterpriseExtension;
 import com.gradle.enterprise.gradleplugin.GradleEnterprisePlugin;
 import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Inject;
 import org.gradle.api.GradleException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.Plugin;
 import org.gradle.api.initialization.Settings;
-import org.gradle.caching.http.HttpBuildCache;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.gradle.jvm.toolchain.JavaToolchainResolverRegistry;
+import org.gradle.jvm.toolchain.JvmToolchainManagement;
+import org.jetbrains.kotlin.gradle.tasks.CompileUsingKotlinDaemon;
 import org.jetbrains.annotations.NotNull;
 import org.noelware.infra.gradle.Architecture;
+import org.noelware.infra.gradle.ByteSize;
+import org.noelware.infra.gradle.Flags;
 import org.noelware.infra.gradle.OperatingSystem;
+import org.noelware.infra.gradle.plugins.settings.cache.CacheStatsService;
+import org.noelware.infra.gradle.plugins.settings.cache.LocalCacheEvictionService;
+import org.noelware.infra.gradle.plugins.settings.cache.NoelwareHttpBuildCache;
+import org.noelware.infra.gradle.plugins.settings.cache.NoelwareHttpBuildCacheServiceFactory;
+import org.noelware.infra.gradle.plugins.settings.cache.TaskCachePolicy;
+import org.noelware.infra.gradle.plugins.settings.performance.JvmTuning;
+import org.noelware.infra.gradle.plugins.settings.performance.MachineResources;
+import org.noelware.infra.gradle.plugins.settings.performance.PerformanceProfile;
+import org.noelware.infra.gradle.plugins.settings.toolchains.LocalMirrorToolchainResolver;
 
 /**
  * Represents a {@link Plugin<Settings>} for configuring the settings initialization for Noelware's
  * projects.
  */
 @SuppressWarnings("UnstableApiUsage")
-public class NoelwareSettingsPlugin implements Plugin<Settings> {
-    private static final Pattern BOOLEAN_REGEX = Pattern.compile("^(yes|true|1|si|si*)$");
+public abstract class NoelwareSettingsPlugin implements Plugin<Settings> {
+    private static final Logger LOG = Logging.getLogger(NoelwareSettingsPlugin.class);
+
+    /** The default size budget of the read-through directory of the remote build cache. */
+    private static final String DEFAULT_READ_THROUGH_MAX_SIZE = "5g";
+
+    @Inject
+    protected abstract BuildEventsListenerRegistry getEventsListenerRegistry();
+
+    @Inject
+    protected abstract JavaToolchainResolverRegistry getToolchainResolverRegistry();
 
     @Override
     public void apply(@NotNull Settings settings) {
@@ -52,6 +82,22 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
         settings.getPlugins().apply("jvm-toolchain-management");
         settings.getPluginManager().apply(GradleEnterprisePlugin.class);
 
+        // Register our remote build cache, which is configured when the settings are evaluated
+        settings.getBuildCache()
+                .registerBuildCacheService(NoelwareHttpBuildCache.class, NoelwareHttpBuildCacheServiceFactory.class);
+
+        // Provision toolchains from a local mirror of JDK archives first, if there is one. This is
+        // registered before the settings script runs, so any other repositories are only used as a fallback.
+        if (System.getProperty(LocalMirrorToolchainResolver.MIRROR_PROPERTY) != null) {
+            getToolchainResolverRegistry().register(LocalMirrorToolchainResolver.class);
+            settings.getToolchainManagement()
+                    .getExtensions()
+                    .configure(JvmToolchainManagement.class, (jvm) -> jvm.getJavaRepositories()
+                            .repository("noelware-mirror", (repository) -> repository
+                                    .getResolverClass()
+                                    .set(LocalMirrorToolchainResolver.class)));
+        }
+
         // Apply when all settings are evaluated
         settings.getGradle().settingsEvaluated(this::onSettingsEvaluated);
 
@@ -96,16 +142,9 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
                     .formatted(name, System.getProperty("os.arch")));
 
         final JavaVersion javaVersion = JavaVersion.current();
-        boolean disableJavaSanityCheck = BOOLEAN_REGEX
-                .matcher(System.getProperty("org.noelware.gradle.ignoreJavaCheck", "false"))
-                .matches();
-
-        final String disableCheck2 = System.getenv("GRADLE_DISABLE_JAVA_SANITY_CHECK");
-        if (BOOLEAN_REGEX
-                .matcher(disableCheck2 != null ? disableCheck2 : "false")
-                .matches()) {
-            disableJavaSanityCheck = true;
-        }
+        final boolean disableJavaSanityCheck =
+                Flags.isEnabled(System.getProperty("org.noelware.gradle.ignoreJavaCheck"))
+                        || Flags.isEnabled(System.getenv("GRADLE_DISABLE_JAVA_SANITY_CHECK"));
 
         if (!disableJavaSanityCheck && Integer.parseInt(javaVersion.getMajorVersion()) < 17) {
             throw new GradleException(
@@ -121,6 +160,11 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
                             .formatted(name, javaVersion.getMajorVersion()));
         }
 
+        final String performanceProfile = System.getProperty("org.noelware.gradle.performanceProfile");
+        if (performanceProfile != null && !performanceProfile.isBlank())
+            applyPerformanceProfile(settings, PerformanceProfile.of(performanceProfile));
+
+        final Provider<CacheStatsService> cacheStats = registerCacheStats(settings);
         final String buildCacheUri = System.getProperty("org.noelware.gradle.buildCache.url");
         final String buildCacheDir = System.getProperty("org.noelware.gradle.buildCache.dir");
         final boolean shouldOverride = buildCacheDir != null || buildCacheUri != null;
@@ -129,11 +173,19 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
             final URI uri = URI.create(buildCacheUri);
             final boolean ci = System.getenv("CI") != null;
 
+            final String readThrough = System.getProperty("org.noelware.gradle.buildCache.readThrough");
+            final File readThroughDir = readThrough == null || readThrough.isBlank()
+                    ? null
+                    : Flags.isEnabled(readThrough)
+                            ? new File(settings.getGradle().getGradleUserHomeDir(), "caches/noelware-remote")
+                            : new File(readThrough);
+
             settings.buildCache((cache) -> {
-                cache.remote(HttpBuildCache.class, (remoteCache) -> {
+                cache.remote(NoelwareHttpBuildCache.class, (remoteCache) -> {
                     remoteCache.setAllowInsecureProtocol("http".equalsIgnoreCase(uri.getScheme()));
                     remoteCache.setPush(ci);
                     remoteCache.setUrl(uri);
+                    remoteCache.setStats(cacheStats);
 
                     final String username = System.getProperty("org.noelware.gradle.buildCache.username");
                     if (username != null) {
@@ -142,13 +194,39 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
                             throw new GradleException(
                                     "Missing `org.noelware.gradle.buildCache.password` system property");
 
-                        remoteCache.credentials((credentials) -> {
-                            credentials.setUsername(username);
-                            credentials.setPassword(password);
-                        });
+                        remoteCache.setUsername(username);
+                        remoteCache.setPassword(password);
                     }
+
+                    final String minEntrySize = System.getProperty("org.noelware.gradle.buildCache.minEntrySize");
+                    if (minEntrySize != null) remoteCache.setMinEntrySize(ByteSize.parse(minEntrySize));
+
+                    final String maxEntrySize = System.getProperty("org.noelware.gradle.buildCache.maxEntrySize");
+                    if (maxEntrySize != null) remoteCache.setMaxEntrySize(ByteSize.parse(maxEntrySize));
+
+                    if (readThroughDir != null) remoteCache.setReadThroughDirectory(readThroughDir);
                 });
             });
+
+            // Unlike the local build cache, nothing else cleans up the read-through directory
+            if (readThroughDir != null) {
+                final String maxSize = System.getProperty(
+                        "org.noelware.gradle.buildCache.readThrough.maxSize", DEFAULT_READ_THROUGH_MAX_SIZE);
+
+                registerCacheEviction(
+                        settings, "noelwareReadThroughCacheEviction", readThroughDir, ByteSize.parse(maxSize));
+            }
+        }
+
+        final TaskCachePolicy policy = TaskCachePolicy.of(
+                System.getProperty("org.noelware.gradle.buildCache.tasks.allow"),
+                System.getProperty("org.noelware.gradle.buildCache.tasks.deny"));
+
+        if (!policy.isEmpty()) {
+            settings.getGradle().allprojects((project) -> project.getTasks().configureEach((task) -> task.getOutputs()
+                    .doNotCacheIf(
+                            "Task type is excluded by org.noelware.gradle.buildCache.tasks.allow/deny",
+                            (t) -> !policy.isCacheable(t))));
         }
 
         if (shouldOverride && buildCacheDir != null) {
@@ -161,6 +239,99 @@ public class NoelwareSettingsPlugin implements Plugin<Settings> {
                 local.setDirectory(file.toString());
                 local.setRemoveUnusedEntriesAfterDays(14);
             }));
+
+            final String maxSize = System.getProperty("org.noelware.gradle.buildCache.maxSize");
+            if (maxSize != null)
+                registerCacheEviction(settings, "noelwareLocalCacheEviction", file, ByteSize.parse(maxSize));
+        }
+    }
+
+    private void registerCacheEviction(Settings settings, String name, File directory, long maxSize) {
+        final Provider<LocalCacheEvictionService> service = settings.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(name, LocalCacheEvictionService.class, (spec) -> {
+                    spec.getParameters().getDirectory().set(directory);
+                    spec.getParameters().getMaxSize().set(maxSize);
+                });
+
+        getEventsListenerRegistry().onTaskCompletion(service);
+    }
+
+    private void applyPerformanceProfile(Settings settings, PerformanceProfile profile) {
+        final MachineResources resources = MachineResources.current();
+        final JvmTuning tuning = JvmTuning.recommend(profile, resources);
+        LOG.info(
+                "Using performance profile [{}] for {} MiB of memory and {} processors ({})",
+                tuning.profile(),
+                resources.totalMemory() / MachineResources.MIB,
+                resources.processors(),
+                resources.architecture().getName());
+
+        // The daemon is already running by the time the settings are evaluated, so all we can do is
+        // tell whether it was started with the right arguments.
+        final long heap = Runtime.getRuntime().maxMemory();
+        final JvmTuning.GarbageCollector gc = JvmTuning.GarbageCollector.current();
+        final int workers = settings.getStartParameter().getMaxWorkerCount();
+        final List<String> problems = new ArrayList<>();
+        if (heap < tuning.daemonHeap() * 3 / 4 || heap > tuning.daemonHeap() * 3 / 2)
+            problems.add("the daemon has a %d MiB heap, but %d MiB is recommended"
+                    .formatted(heap / MachineResources.MIB, tuning.daemonHeap() / MachineResources.MIB));
+
+        if (gc != null && gc != tuning.gc())
+            problems.add("the daemon uses the %s garbage collector, but %s is recommended".formatted(gc, tuning.gc()));
+
+        if (heap / workers < 256 * MachineResources.MIB)
+            problems.add("%d workers only have %d MiB of heap each".formatted(workers, heap / workers / MachineResources.MIB));
+
+        if (!problems.isEmpty()) {
+            LOG.warn(
+                    """
+            The Gradle daemon is outside of the recommended envelope for the `{}` performance profile:
+                * {}
+
+            Use the following in `gradle.properties` to fix it:
+
+                org.gradle.jvmargs={}
+                org.gradle.workers.max={}
+                kotlin.daemon.jvmargs={}
+            """,
+                    tuning.profile().name().toLowerCase(Locale.ROOT),
+                    String.join("\n    * ", problems),
+                    tuning.gradleJvmArgs(),
+                    tuning.maxWorkers(),
+                    tuning.kotlinDaemonJvmArgs());
         }
+
+        // The Kotlin daemon is started by the build though, so it can be sized unless the
+        // project already does that by itself.
+        if (settings.getProviders().gradleProperty("kotlin.daemon.jvmargs").isPresent()) return;
+
+        final List<String> kotlinDaemonArgs = List.of(tuning.kotlinDaemonJvmArgs().split(" "));
+        settings.getGradle().allprojects((project) -> project.getTasks()
+                .withType(CompileUsingKotlinDaemon.class)
+                .configureEach((task) -> task.getKotlinDaemonJvmArguments().set(kotlinDaemonArgs)));
+    }
+
+    private Provider<CacheStatsService> registerCacheStats(Settings settings) {
+        // Tasks are only known once they're realized, which is before the service's parameters are
+        // resolved since it only listens to tasks that run.
+        final Map<String, String> taskTypes = new ConcurrentHashMap<>();
+        settings.getGradle().allprojects((project) -> project.getTasks()
+                .configureEach((task) -> taskTypes.put(task.getPath(), CacheStatsService.typeOf(task.getClass()))));
+
+        final boolean summary = Flags.isEnabled(System.getProperty("org.noelware.gradle.buildCache.summary"));
+
+        final File rootDir = settings.getRootDir();
+        final Provider<CacheStatsService> service = settings.getGradle()
+                .getSharedServices()
+                .registerIfAbsent("noelwareCacheStats", CacheStatsService.class, (spec) -> {
+                    spec.getParameters().getTaskTypes().putAll(settings.getProviders().provider(() -> taskTypes));
+                    spec.getParameters().getReportFile().set(new File(rootDir, "build/reports/noelware/cache-stats.json"));
+                    spec.getParameters().getDurationsFile().set(new File(rootDir, ".gradle/noelware/task-durations.json"));
+                    spec.getParameters().getSummary().set(summary);
+                });
+
+        getEventsListenerRegistry().onTaskCompletion(service);
+        return service;
     }
 }
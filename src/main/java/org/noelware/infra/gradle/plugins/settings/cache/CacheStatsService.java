@@ -0,0 +1,246 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskOperationResult;
+import org.gradle.tooling.events.task.TaskSkippedResult;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+/**
+ * Build-scoped {@link BuildService} that records how every task type used the build cache, and writes it to
+ * <code>build/reports/noelware/cache-stats.json</code> in the root project when the build finishes. It only relies
+ * on task finish events and the counters of the {@link NoelwareHttpBuildCacheService}, so it works offline.
+ *
+ * <p>Gradle doesn't say which cache tier a task was loaded from, so the local and remote split is only
+ * known for the build as a whole.
+ */
+public abstract class CacheStatsService
+        implements BuildService<CacheStatsService.Params>, OperationCompletionListener, AutoCloseable {
+    private static final Logger LOG = Logging.getLogger(CacheStatsService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, TaskTypeStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Long> executedDurations = new ConcurrentHashMap<>();
+    private final Map<String, Long> cachedDurations = new ConcurrentHashMap<>();
+    private final CacheTransferStats transfers = new CacheTransferStats();
+    private volatile Map<String, String> taskTypes;
+
+    /**
+     * Returns the name of a task type, without the suffix of the subclass that Gradle generates.
+     * @param task The class of the task
+     * @return the name of the task type
+     */
+    public static String typeOf(Class<?> task) {
+        return task.getSimpleName().replace("_Decorated", "");
+    }
+
+    /**
+     * @return the counters of what the {@link NoelwareHttpBuildCacheService} transferred during this build
+     */
+    public CacheTransferStats getTransfers() {
+        return transfers;
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        if (!(event instanceof TaskFinishEvent taskEvent)) return;
+
+        final String path = taskEvent.getDescriptor().getTaskPath();
+        final String type = taskTypeOf(path);
+        final TaskOperationResult result = taskEvent.getResult();
+        final long duration = result.getEndTime() - result.getStartTime();
+        final TaskTypeStats typeStats = stats.computeIfAbsent(type, (t) -> new TaskTypeStats());
+
+        synchronized (typeStats) {
+            if (result instanceof TaskSuccessResult success) {
+                if (success.isFromCache()) {
+                    typeStats.fromCache++;
+                    typeStats.cachedMillis += duration;
+                    cachedDurations.put(path, duration);
+                } else if (success.isUpToDate()) {
+                    typeStats.upToDate++;
+                } else {
+                    typeStats.executed++;
+                    typeStats.executedMillis += duration;
+                    executedDurations.put(path, duration);
+                }
+            } else if (result instanceof TaskSkippedResult) {
+                typeStats.skipped++;
+            } else {
+                typeStats.failed++;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        final File durationsFile = getParameters().getDurationsFile().get().getAsFile();
+        final Map<String, Long> durations = loadDurations(durationsFile);
+
+        // The time a task took the last time it actually ran is the best guess of what a cache hit saved
+        long savedMillis = 0;
+        final Map<String, Long> savedByType = new TreeMap<>();
+        for (Map.Entry<String, Long> cached : cachedDurations.entrySet()) {
+            final Long executed = durations.get(cached.getKey());
+            if (executed == null) continue;
+
+            final long saved = Math.max(0, executed - cached.getValue());
+            final String type = taskTypeOf(cached.getKey());
+            savedByType.merge(type, saved, Long::sum);
+            savedMillis += saved;
+        }
+
+        if (!executedDurations.isEmpty()) {
+            durations.putAll(executedDurations);
+            writeJson(durationsFile, new TreeMap<>(durations));
+        }
+
+        // Nothing was loaded from or pushed to any cache (i.e, `help` or a fully up-to-date build), so a report
+        // would only overwrite the last useful one with zeroes.
+        if (cachedDurations.isEmpty() && this.transfers.isEmpty()) return;
+
+        final CacheTransferStats.Snapshot transfers = this.transfers.snapshot();
+        final Map<String, Object> types = new TreeMap<>();
+        long fromCache = 0;
+        long executed = 0;
+        for (Map.Entry<String, TaskTypeStats> entry : stats.entrySet()) {
+            final TaskTypeStats typeStats = entry.getValue();
+            fromCache += typeStats.fromCache;
+            executed += typeStats.executed;
+
+            final Map<String, Object> type = new LinkedHashMap<>();
+            type.put("fromCache", typeStats.fromCache);
+            type.put("executed", typeStats.executed);
+            type.put("upToDate", typeStats.upToDate);
+            type.put("skipped", typeStats.skipped);
+            type.put("failed", typeStats.failed);
+            type.put("cachedMillis", typeStats.cachedMillis);
+            type.put("executedMillis", typeStats.executedMillis);
+            type.put("estimatedSavedMillis", savedByType.getOrDefault(entry.getKey(), 0L));
+            types.put(entry.getKey(), type);
+        }
+
+        final long remoteHits = transfers.remoteHits() + transfers.readThroughHits();
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("fromCache", fromCache);
+        report.put("executed", executed);
+        report.put("localHits", Math.max(0, fromCache - remoteHits));
+        report.put("remote", transfers);
+        report.put("estimatedSavedMillis", savedMillis);
+        report.put("taskTypes", types);
+
+        final File reportFile = getParameters().getReportFile().get().getAsFile();
+        writeJson(reportFile, report);
+
+        if (getParameters().getSummary().get()) {
+            LOG.lifecycle(
+                    "Build cache: {} task(s) from cache ({} remote), {} executed, {} KiB down / {} KiB up in {} ms, ~{} ms saved. See {}",
+                    fromCache,
+                    remoteHits,
+                    executed,
+                    transfers.bytesDownloaded() / 1024,
+                    transfers.bytesUploaded() / 1024,
+                    transfers.loadMillis() + transfers.storeMillis(),
+                    savedMillis,
+                    reportFile);
+        }
+    }
+
+    private String taskTypeOf(String path) {
+        if (taskTypes == null) taskTypes = getParameters().getTaskTypes().get();
+        return taskTypes.getOrDefault(path, "unknown");
+    }
+
+    private static Map<String, Long> loadDurations(File file) {
+        if (!file.exists()) return new TreeMap<>();
+
+        try {
+            return MAPPER.readValue(file, new TypeReference<TreeMap<String, Long>>() {});
+        } catch (IOException e) {
+            LOG.warn("Unable to read task durations [{}], starting from scratch", file, e);
+            return new TreeMap<>();
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private static void writeJson(File file, Object value) {
+        file.getParentFile().mkdirs();
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, value);
+        } catch (IOException e) {
+            LOG.warn("Unable to write [{}]", file, e);
+        }
+    }
+
+    private static final class TaskTypeStats {
+        long fromCache;
+        long executed;
+        long upToDate;
+        long skipped;
+        long failed;
+        long cachedMillis;
+        long executedMillis;
+    }
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link MapProperty} of every task path to its task type
+         */
+        MapProperty<String, String> getTaskTypes();
+
+        /**
+         * @return {@link RegularFileProperty} of where the report is written to
+         */
+        RegularFileProperty getReportFile();
+
+        /**
+         * @return {@link RegularFileProperty} of where the last execution time of every task is kept
+         */
+        RegularFileProperty getDurationsFile();
+
+        /**
+         * @return {@link Property<Boolean>} if a summary is printed when the build finishes
+         */
+        Property<Boolean> getSummary();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Counters of what the {@link NoelwareHttpBuildCacheService} transferred during the current build. They are
+ * owned by the {@link CacheStatsService}, so every build starts from zero, and builds running in the same
+ * daemon (i.e, included builds or a continuous build) don't count each other's transfers.
+ */
+@ApiStatus.Internal
+public class CacheTransferStats {
+    final AtomicLong remoteHits = new AtomicLong();
+    final AtomicLong remoteMisses = new AtomicLong();
+    final AtomicLong readThroughHits = new AtomicLong();
+    final AtomicLong stores = new AtomicLong();
+    final AtomicLong skippedStores = new AtomicLong();
+    final AtomicLong bytesDownloaded = new AtomicLong();
+    final AtomicLong bytesUploaded = new AtomicLong();
+    final AtomicLong loadNanos = new AtomicLong();
+    final AtomicLong storeNanos = new AtomicLong();
+
+    /**
+     * Represents a snapshot of the counters.
+     *
+     * @param remoteHits How many entries were downloaded from the remote cache
+     * @param remoteMisses How many entries weren't in the remote cache
+     * @param readThroughHits How many entries were served from the local read-through directory
+     * @param stores How many entries were pushed
+     * @param skippedStores How many entries weren't pushed because of their size, or were refused by the remote cache
+     * @param bytesDownloaded How many bytes were downloaded
+     * @param bytesUploaded How many bytes were uploaded
+     * @param loadMillis Time spent loading entries, in milliseconds
+     * @param storeMillis Time spent pushing entries, in milliseconds
+     */
+    public record Snapshot(
+            long remoteHits,
+            long remoteMisses,
+            long readThroughHits,
+            long stores,
+            long skippedStores,
+            long bytesDownloaded,
+            long bytesUploaded,
+            long loadMillis,
+            long storeMillis) {}
+
+    /**
+     * @return if the remote cache wasn't used at all
+     */
+    public boolean isEmpty() {
+        return remoteHits.get() == 0
+                && remoteMisses.get() == 0
+                && readThroughHits.get() == 0
+                && stores.get() == 0
+                && skippedStores.get() == 0;
+    }
+
+    /**
+     * @return a {@link Snapshot} of the counters
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(
+                remoteHits.get(),
+                remoteMisses.get(),
+                readThroughHits.get(),
+                stores.get(),
+                skippedStores.get(),
+                bytesDownloaded.get(),
+                bytesUploaded.get(),
+                loadNanos.get() / 1_000_000,
+                storeNanos.get() / 1_000_000);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+
+/**
+ * Build-scoped {@link BuildService} that keeps the local build cache directory under a size budget
+ * (<code>org.noelware.gradle.buildCache.maxSize</code>), and the read-through directory of the remote
+ * build cache under its own (<code>org.noelware.gradle.buildCache.readThrough.maxSize</code>). When the
+ * build finishes, the least recently used entries are evicted before the service is closed. Eviction stops
+ * after {@link #MAX_EVICTION_TIME}, so a cache that is far over its budget doesn't hold up the end of the build
+ * for long; the next build picks up where it left off.
+ *
+ * <p>Gradle touches the last modified time of an entry every time it is used (and so does the remote build
+ * cache for its read-through entries), so that is what the entries are ordered by. The sizes of the entries
+ * are kept in a {@link LocalCacheIndex}, so a cache that is still within its budget only needs a directory
+ * listing to know that.
+ */
+public abstract class LocalCacheEvictionService
+        implements BuildService<LocalCacheEvictionService.Params>, OperationCompletionListener, AutoCloseable {
+    private static final Logger LOG = Logging.getLogger(LocalCacheEvictionService.class);
+
+    /** Entries are named after the hex-encoded hash of their cache key. */
+    private static final Pattern ENTRY_NAME = Pattern.compile("^[0-9a-f]{32,}$");
+
+    private static final String INDEX_FILE = ".noelware-index";
+    private static final String LOCK_FILE = ".noelware-eviction.lock";
+
+    /**
+     * Evicting stops once the cache is under this fraction of the budget, so the next few builds
+     * don't have to evict again right away.
+     */
+    private static final double LOW_WATERMARK = 0.9;
+
+    /** How long a single build spends evicting entries. */
+    static final Duration MAX_EVICTION_TIME = Duration.ofSeconds(5);
+
+    /** How often the sizes of all entries are read again, in case an entry was overwritten. */
+    static final Duration REFRESH_INTERVAL = Duration.ofDays(1);
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        // We only listen to tasks so Gradle keeps us around until the end of the build
+    }
+
+    @Override
+    public void close() {
+        final Path directory = getParameters().getDirectory().get().getAsFile().toPath();
+        final long maxSize = getParameters().getMaxSize().get();
+
+        // This runs on the thread that closes the build services, so the daemon can't start the next
+        // build before the eviction is done, or be stopped in the middle of it.
+        try {
+            evict(directory, maxSize);
+        } catch (IOException e) {
+            LOG.warn("Unable to evict entries from the local build cache [{}]", directory, e);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries of a local build cache directory until it is under the budget,
+     * or until {@link #MAX_EVICTION_TIME} has passed.
+     *
+     * @param directory The local build cache directory
+     * @param maxSize The budget, in bytes
+     * @throws IOException If the directory couldn't be read
+     */
+    public static void evict(Path directory, long maxSize) throws IOException {
+        evict(directory, maxSize, System.currentTimeMillis(), MAX_EVICTION_TIME);
+    }
+
+    static void evict(Path directory, long maxSize, long now, Duration timeBudget) throws IOException {
+        if (!Files.isDirectory(directory)) return;
+        final long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        // The same cache directory can be shared by multiple builds (i.e, on CI), only one of them
+        // needs to evict at a time.
+        try (final FileChannel lockChannel = FileChannel.open(
+                        directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                final FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) return;
+
+            final Path indexFile = directory.resolve(INDEX_FILE);
+            final LocalCacheIndex index = LocalCacheIndex.load(indexFile);
+            final Map<String, Long> sizes = index.getSizes();
+            final boolean refresh = now - index.getLastRefresh() >= REFRESH_INTERVAL.toMillis();
+            if (refresh) index.setLastRefresh(now);
+
+            final Set<String> present = new HashSet<>();
+            try (final DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    final String name = entry.getFileName().toString();
+                    if (!ENTRY_NAME.matcher(name).matches()) continue;
+
+                    present.add(name);
+                    if (refresh || !sizes.containsKey(name)) {
+                        try {
+                            sizes.put(name, Files.size(entry));
+                        } catch (NoSuchFileException ignored) {
+                            present.remove(name);
+                        }
+                    }
+                }
+            }
+
+            // Entries that Gradle removed by itself
+            sizes.keySet().retainAll(present);
+
+            long total = index.totalSize();
+            if (total > maxSize) {
+                final long target = (long) (maxSize * LOW_WATERMARK);
+                final List<Candidate> candidates = new ArrayList<>(sizes.size());
+                for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                    try {
+                        final long lastAccess = Files.getLastModifiedTime(directory.resolve(entry.getKey()))
+                                .toMillis();
+
+                        candidates.add(new Candidate(entry.getKey(), entry.getValue(), lastAccess));
+                    } catch (NoSuchFileException ignored) {
+                        // removed since we listed the directory
+                    }
+                }
+
+                candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+
+                int evicted = 0;
+                final long before = total;
+                for (Candidate candidate : candidates) {
+                    if (total <= target) break;
+                    if (System.nanoTime() >= deadline) {
+                        LOG.info("Ran out of time evicting entries from [{}], continuing in the next build", directory);
+                        break;
+                    }
+
+                    Files.deleteIfExists(directory.resolve(candidate.name()));
+                    sizes.remove(candidate.name());
+                    total -= candidate.size();
+                    evicted++;
+                }
+
+                LOG.info(
+                        "Evicted {} entries from the local build cache [{}] ({} -> {} bytes)",
+                        evicted,
+                        directory,
+                        before,
+                        total);
+            }
+
+            index.save(indexFile);
+        }
+    }
+
+    private record Candidate(String name, long size, long lastAccess) {}
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link DirectoryProperty} of the local build cache directory
+         */
+        DirectoryProperty getDirectory();
+
+        /**
+         * @return {@link Property<Long>} of the size budget of the directory, in bytes
+         */
+        Property<Long> getMaxSize();
+    }
+}
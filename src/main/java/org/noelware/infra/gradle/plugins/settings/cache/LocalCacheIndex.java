@@ -0,0 +1,141 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the compact index of the entries in a local build cache directory. Entries rarely change once
+ * they're written, so the index only keeps the size of every entry: the total size of the cache can then
+ * be known by only looking at the entries that are new since the last time. The sizes of all entries are
+ * read again every once in a while (see {@link #getLastRefresh()}) in case an entry was overwritten.
+ */
+public class LocalCacheIndex {
+    private static final Logger LOG = Logging.getLogger(LocalCacheIndex.class);
+    private static final int VERSION = 2;
+
+    private final Map<String, Long> sizes;
+    private long lastRefresh;
+
+    private LocalCacheIndex(Map<String, Long> sizes, long lastRefresh) {
+        this.sizes = sizes;
+        this.lastRefresh = lastRefresh;
+    }
+
+    /**
+     * Loads the index, if the file doesn't exist or is corrupted, then an empty index is returned.
+     * @param file The index file
+     * @return the {@link LocalCacheIndex}
+     */
+    @NotNull
+    public static LocalCacheIndex load(@NotNull Path file) {
+        final Map<String, Long> sizes = new HashMap<>();
+        if (!Files.exists(file)) return new LocalCacheIndex(sizes, 0);
+
+        try (final DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (stream.readInt() != VERSION) return new LocalCacheIndex(sizes, 0);
+
+            final long lastRefresh = stream.readLong();
+            final int count = stream.readInt();
+            for (int i = 0; i < count; i++) {
+                sizes.put(stream.readUTF(), stream.readLong());
+            }
+
+            return new LocalCacheIndex(sizes, lastRefresh);
+        } catch (IOException e) {
+            LOG.warn("Unable to read local build cache index [{}], starting from scratch", file, e);
+            sizes.clear();
+        }
+
+        return new LocalCacheIndex(sizes, 0);
+    }
+
+    /**
+     * @return the size of every entry, keyed by the entry's file name
+     */
+    @NotNull
+    public Map<String, Long> getSizes() {
+        return sizes;
+    }
+
+    /**
+     * @return when the sizes of all entries were last read again from the directory, in milliseconds since
+     * the epoch, or <code>0</code> if they never were.
+     */
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    public void setLastRefresh(long lastRefresh) {
+        this.lastRefresh = lastRefresh;
+    }
+
+    /**
+     * @return the total size of all entries
+     */
+    public long totalSize() {
+        long total = 0;
+        for (long size : sizes.values()) total += size;
+
+        return total;
+    }
+
+    /**
+     * Saves the index, it is written to a temporary file first so a build that is reading it at the same
+     * time never sees a partially written index.
+     *
+     * @param file The index file
+     */
+    public void save(@NotNull Path file) {
+        try {
+            final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (final DataOutputStream stream =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                stream.writeInt(VERSION);
+                stream.writeLong(lastRefresh);
+                stream.writeInt(sizes.size());
+                for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                    stream.writeUTF(entry.getKey());
+                    stream.writeLong(entry.getValue());
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write local build cache index [{}]", file, e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.io.File;
+import java.net.URI;
+import org.gradle.api.provider.Provider;
+import org.gradle.caching.configuration.AbstractBuildCache;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents the configuration of Noelware's remote build cache. It speaks the same protocol as Gradle's
+ * <code>HttpBuildCache</code> (<code>GET</code> and <code>PUT</code> on <code>{url}/{key}</code>), but only pushes
+ * entries within a size range, and can keep a local read-through copy of the entries it downloads.
+ */
+public class NoelwareHttpBuildCache extends AbstractBuildCache {
+    private URI url;
+    private String username;
+    private String password;
+    private boolean allowInsecureProtocol = false;
+    private long minEntrySize = 0;
+    private long maxEntrySize = Long.MAX_VALUE;
+    private File readThroughDirectory;
+    private Provider<CacheStatsService> stats;
+
+    /**
+     * @return the URL of the remote cache
+     */
+    @Nullable
+    public URI getUrl() {
+        return url;
+    }
+
+    public void setUrl(URI url) {
+        this.url = url;
+    }
+
+    /**
+     * @return the username to authenticate with, or <code>null</code> if the cache doesn't require authentication
+     */
+    @Nullable
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * @return the password to authenticate with
+     */
+    @Nullable
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * @return if the remote cache is allowed to be used over plain HTTP
+     */
+    public boolean isAllowInsecureProtocol() {
+        return allowInsecureProtocol;
+    }
+
+    public void setAllowInsecureProtocol(boolean allowInsecureProtocol) {
+        this.allowInsecureProtocol = allowInsecureProtocol;
+    }
+
+    /**
+     * @return the size (in bytes) an entry needs to be before it is pushed, since tiny entries are usually
+     * cheaper to rebuild than to download.
+     */
+    public long getMinEntrySize() {
+        return minEntrySize;
+    }
+
+    public void setMinEntrySize(long minEntrySize) {
+        this.minEntrySize = minEntrySize;
+    }
+
+    /**
+     * @return the maximum size (in bytes) of an entry that is pushed
+     */
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * @return the directory that downloaded and pushed entries are kept in, so they are only downloaded
+     * once per machine, or <code>null</code> to always go to the remote cache.
+     */
+    @Nullable
+    public File getReadThroughDirectory() {
+        return readThroughDirectory;
+    }
+
+    public void setReadThroughDirectory(File readThroughDirectory) {
+        this.readThroughDirectory = readThroughDirectory;
+    }
+
+    /**
+     * @return the {@link CacheStatsService} that records what was transferred during the build, or <code>null</code>
+     * if nothing is recorded.
+     */
+    @Nullable
+    public Provider<CacheStatsService> getStats() {
+        return stats;
+    }
+
+    public void setStats(Provider<CacheStatsService> stats) {
+        this.stats = stats;
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Base64;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.caching.BuildCacheEntryReader;
+import org.gradle.caching.BuildCacheEntryWriter;
+import org.gradle.caching.BuildCacheException;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link BuildCacheService} for the {@link NoelwareHttpBuildCache}. A single {@link HttpClient} is used for the
+ * whole build, so connections to the cache node are kept alive and reused between entries.
+ *
+ * <p>Entries aren't compressed again, since Gradle already packs them as gzip'd archives.
+ */
+public class NoelwareHttpBuildCacheService implements BuildCacheService {
+    private static final Logger LOG = Logging.getLogger(NoelwareHttpBuildCacheService.class);
+    private static final String CONTENT_TYPE = "application/vnd.gradle.build-cache-artifact.v2";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client;
+    private final URI root;
+    private final String authorization;
+    private final boolean push;
+    private final long minEntrySize;
+    private final long maxEntrySize;
+    private final Path readThrough;
+    private final CacheTransferStats stats;
+
+    public NoelwareHttpBuildCacheService(@NotNull NoelwareHttpBuildCache config) {
+        final URI url = config.getUrl();
+        if (url == null) throw new IllegalArgumentException("Noelware build cache URL must be set");
+        if (!config.isAllowInsecureProtocol() && "http".equalsIgnoreCase(url.getScheme()))
+            throw new IllegalArgumentException(
+                    "Using an insecure protocol for the Noelware build cache (%s) is not allowed".formatted(url));
+
+        this.root = url.toString().endsWith("/") ? url : URI.create(url + "/");
+        this.push = config.isPush();
+        this.minEntrySize = config.getMinEntrySize();
+        this.maxEntrySize = config.getMaxEntrySize();
+        this.readThrough = config.getReadThroughDirectory() != null
+                ? config.getReadThroughDirectory().toPath()
+                : null;
+
+        this.authorization = authorizationOf(config.getUsername(), config.getPassword());
+
+        // The cache can also be configured without the settings plugin, which doesn't record anything
+        this.stats = config.getStats() != null
+                ? config.getStats().get().getTransfers()
+                : new CacheTransferStats();
+
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public boolean load(@NotNull BuildCacheKey key, @NotNull BuildCacheEntryReader reader) throws BuildCacheException {
+        final long start = System.nanoTime();
+        try {
+            return doLoad(key, reader);
+        } finally {
+            stats.loadNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private boolean doLoad(BuildCacheKey key, BuildCacheEntryReader reader) {
+        final Path cached = readThroughEntry(key);
+        if (cached != null && Files.isRegularFile(cached)) {
+            try (final InputStream stream = Files.newInputStream(cached)) {
+                reader.readFrom(stream);
+                stats.readThroughHits.incrementAndGet();
+
+                // The read-through directory is evicted the same way as the local build cache, which
+                // orders entries by their last modified time.
+                touchQuietly(cached);
+                return true;
+            } catch (IOException e) {
+                deleteQuietly(cached);
+                throw new BuildCacheException("Unable to load entry [%s] from the read-through cache".formatted(key), e);
+            }
+        }
+
+        final HttpRequest request = request(key).GET().build();
+        final HttpResponse<InputStream> response = send(key, request, HttpResponse.BodyHandlers.ofInputStream());
+        try (final InputStream body = response.body()) {
+            if (response.statusCode() == 404) {
+                stats.remoteMisses.incrementAndGet();
+                return false;
+            }
+
+            if (response.statusCode() / 100 != 2)
+                throw new BuildCacheException("Loading entry [%s] from %s returned status code %d"
+                        .formatted(key, request.uri(), response.statusCode()));
+
+            stats.remoteHits.incrementAndGet();
+            if (cached == null) {
+                final CountingInputStream counting = new CountingInputStream(body);
+                try {
+                    reader.readFrom(counting);
+                } finally {
+                    stats.bytesDownloaded.addAndGet(counting.getCount());
+                }
+
+                return true;
+            }
+
+            // Keep a copy of the entry first, so the next build on this machine doesn't download it again.
+            final Path temp = Files.createTempFile(readThrough, key.getHashCode(), ".tmp");
+            try {
+                stats.bytesDownloaded.addAndGet(
+                        Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING));
+                move(temp, cached);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            try (final InputStream stream = Files.newInputStream(cached)) {
+                reader.readFrom(stream);
+            }
+
+            return true;
+        } catch (IOException e) {
+            throw new BuildCacheException("Unable to load entry [%s] from %s".formatted(key, request.uri()), e);
+        }
+    }
+
+    @Override
+    public void store(@NotNull BuildCacheKey key, @NotNull BuildCacheEntryWriter writer) throws BuildCacheException {
+        if (!push) return;
+
+        final long size = writer.getSize();
+        if (size < minEntrySize || size > maxEntrySize) {
+            stats.skippedStores.incrementAndGet();
+            LOG.info(
+                    "Not pushing entry [{}] since its size ({} bytes) is outside of [{}, {}]",
+                    key,
+                    size,
+                    minEntrySize,
+                    maxEntrySize);
+
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final Path cached = readThroughEntry(key);
+        Path temp = null;
+        try {
+            temp = readThrough != null
+                    ? Files.createTempFile(readThrough, key.getHashCode(), ".tmp")
+                    : Files.createTempFile(key.getHashCode(), ".tmp");
+
+            try (final OutputStream stream = Files.newOutputStream(temp)) {
+                writer.writeTo(stream);
+            }
+
+            final HttpRequest request = request(key)
+                    .header("Content-Type", CONTENT_TYPE)
+                    .PUT(HttpRequest.BodyPublishers.ofFile(temp))
+                    .build();
+
+            final HttpResponse<Void> response = send(key, request, HttpResponse.BodyHandlers.discarding());
+
+            // The cache node refusing the entry isn't an error, Gradle's own HTTP cache ignores it as well.
+            if (response.statusCode() == 413) {
+                stats.skippedStores.incrementAndGet();
+                LOG.info("Remote cache refused entry [{}] since it is too large", key);
+            } else if (response.statusCode() / 100 != 2) {
+                throw new BuildCacheException("Storing entry [%s] to %s returned status code %d"
+                        .formatted(key, request.uri(), response.statusCode()));
+            } else {
+                stats.stores.incrementAndGet();
+                stats.bytesUploaded.addAndGet(Files.size(temp));
+            }
+
+            if (cached != null) {
+                move(temp, cached);
+                temp = null;
+            }
+        } catch (IOException e) {
+            throw new BuildCacheException("Unable to store entry [%s]".formatted(key), e);
+        } finally {
+            if (temp != null) deleteQuietly(temp);
+            stats.storeNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        // The HTTP client doesn't hold on to anything that needs to be closed before Java 21
+    }
+
+    private HttpRequest.Builder request(BuildCacheKey key) {
+        final HttpRequest.Builder builder =
+                HttpRequest.newBuilder(root.resolve(key.getHashCode())).timeout(REQUEST_TIMEOUT);
+
+        if (authorization != null) builder.header("Authorization", authorization);
+        return builder;
+    }
+
+    private <T> HttpResponse<T> send(BuildCacheKey key, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return client.send(request, handler);
+        } catch (IOException e) {
+            throw new BuildCacheException("Unable to reach the remote cache for entry [%s]".formatted(key), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildCacheException("Interrupted while reaching the remote cache for entry [%s]".formatted(key), e);
+        }
+    }
+
+    @Nullable
+    private Path readThroughEntry(BuildCacheKey key) {
+        if (readThrough == null) return null;
+
+        try {
+            Files.createDirectories(readThrough);
+        } catch (IOException e) {
+            throw new BuildCacheException("Unable to create read-through cache directory [%s]".formatted(readThrough), e);
+        }
+
+        return readThrough.resolve(key.getHashCode());
+    }
+
+    @Nullable
+    private static String authorizationOf(@Nullable String username, @Nullable String password) {
+        if (username == null) return null;
+
+        final String credentials = "%s:%s".formatted(username, password != null ? password : "");
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // it'll be overwritten or cleaned up with the rest of the directory
+        }
+    }
+
+    private static void touchQuietly(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // it'll only be evicted a bit earlier than it should be
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) count++;
+
+            return read;
+        }
+
+        @Override
+        public int read(byte @NotNull [] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) count += read;
+
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.BuildCacheServiceFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link BuildCacheServiceFactory} that creates the {@link NoelwareHttpBuildCacheService} from the
+ * {@link NoelwareHttpBuildCache} configuration.
+ */
+public class NoelwareHttpBuildCacheServiceFactory implements BuildCacheServiceFactory<NoelwareHttpBuildCache> {
+    @NotNull
+    @Override
+    public BuildCacheService createBuildCacheService(
+            @NotNull NoelwareHttpBuildCache configuration, @NotNull Describer describer) {
+        describer
+                .type("noelware-http")
+                .config("url", String.valueOf(configuration.getUrl()))
+                .config("authenticated", String.valueOf(configuration.getUsername() != null))
+                .config("minEntrySize", String.valueOf(configuration.getMinEntrySize()))
+                .config("maxEntrySize", String.valueOf(configuration.getMaxEntrySize()));
+
+        if (configuration.getReadThroughDirectory() != null)
+            describer.config("readThroughDirectory", configuration.getReadThroughDirectory().toString());
+
+        return new NoelwareHttpBuildCacheService(configuration);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.gradle.api.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents which task types are allowed to use the build cache, from the
+ * <code>org.noelware.gradle.buildCache.tasks.allow</code> and <code>org.noelware.gradle.buildCache.tasks.deny</code>
+ * system properties. Task types are matched by their simple (<code>Jar</code>) or fully qualified
+ * (<code>org.gradle.jvm.tasks.Jar</code>) class name, including the classes they extend.
+ *
+ * @param allow The task types that are allowed to be cached, all of them if empty
+ * @param deny The task types that are never cached
+ */
+public record TaskCachePolicy(Set<String> allow, Set<String> deny) implements Serializable {
+    /**
+     * Creates the policy from the comma-separated values of the system properties.
+     *
+     * @param allow Comma-separated list of allowed task types, can be <code>null</code>
+     * @param deny Comma-separated list of denied task types, can be <code>null</code>
+     * @return the {@link TaskCachePolicy}
+     */
+    @NotNull
+    public static TaskCachePolicy of(@Nullable String allow, @Nullable String deny) {
+        return new TaskCachePolicy(split(allow), split(deny));
+    }
+
+    /**
+     * @return if this policy doesn't restrict any task type
+     */
+    public boolean isEmpty() {
+        return allow.isEmpty() && deny.isEmpty();
+    }
+
+    /**
+     * Checks if the outputs of the given task are allowed to be stored in and loaded from the build cache.
+     * @param task The task
+     * @return if the task is allowed to be cached
+     */
+    public boolean isCacheable(@NotNull Task task) {
+        if (matches(task.getClass(), deny)) return false;
+        return allow.isEmpty() || matches(task.getClass(), allow);
+    }
+
+    private static boolean matches(Class<?> type, Set<String> names) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            // Gradle generates a subclass (i.e, Jar_Decorated) for every task type
+            final String name = current.getName().replace("_Decorated", "");
+            final String simpleName = current.getSimpleName().replace("_Decorated", "");
+            if (names.contains(name) || names.contains(simpleName)) return true;
+        }
+
+        return false;
+    }
+
+    private static Set<String> split(@Nullable String value) {
+        if (value == null) return Set.of();
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter((name) -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.performance;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents the recommended sizing of a build for a {@link PerformanceProfile} on a machine.
+ *
+ * @param profile The (resolved) profile this was computed for
+ * @param daemonHeap The maximum heap of the Gradle daemon, in bytes
+ * @param gc The garbage collector the Gradle daemon should use
+ * @param maxWorkers The value of <code>org.gradle.workers.max</code>
+ * @param kotlinDaemonHeap The maximum heap of the Kotlin daemon, in bytes
+ */
+public record JvmTuning(
+        @NotNull PerformanceProfile profile,
+        long daemonHeap,
+        @NotNull GarbageCollector gc,
+        int maxWorkers,
+        long kotlinDaemonHeap) {
+    /**
+     * Computes the sizing of a build.
+     *
+     * @param profile The profile, {@link PerformanceProfile#AUTO} is resolved first
+     * @param resources The machine's resources
+     * @return the {@link JvmTuning}
+     */
+    @NotNull
+    public static JvmTuning recommend(@NotNull PerformanceProfile profile, @NotNull MachineResources resources) {
+        final PerformanceProfile resolved = profile.resolve(resources);
+        final long memory = resources.totalMemory();
+        final int processors = resources.processors();
+
+        // The daemon, the Kotlin daemon, and the test workers all share the machine, so the
+        // daemon only gets a part of it.
+        final long heap =
+                switch (resolved) {
+                    case CI -> clamp(memory * 35 / 100, MachineResources.GIB, 8 * MachineResources.GIB);
+                    case WORKSTATION -> clamp(memory / 4, 2 * MachineResources.GIB, 16 * MachineResources.GIB);
+                    default -> clamp(memory / 4, MachineResources.GIB, 4 * MachineResources.GIB);
+                };
+
+        // Leave a core for the IDE on laptops, CI agents don't run anything else
+        final int workers = resolved == PerformanceProfile.LAPTOP ? Math.max(1, processors - 1) : processors;
+
+        // CI builds are short-lived and care about throughput, large heaps care about pause times
+        final GarbageCollector gc;
+        if (heap >= 16 * MachineResources.GIB) {
+            gc = GarbageCollector.Z;
+        } else if (resolved == PerformanceProfile.CI) {
+            gc = GarbageCollector.PARALLEL;
+        } else {
+            gc = GarbageCollector.G1;
+        }
+
+        final long kotlinHeap = roundToMib(Math.max(MachineResources.GIB, heap / 2));
+        return new JvmTuning(resolved, roundToMib(heap), gc, workers, kotlinHeap);
+    }
+
+    /**
+     * @return the recommended value of <code>org.gradle.jvmargs</code>
+     */
+    @NotNull
+    public String gradleJvmArgs() {
+        return "-Xmx%dm %s -XX:+HeapDumpOnOutOfMemoryError -Dfile.encoding=UTF-8"
+                .formatted(daemonHeap / MachineResources.MIB, gc.getFlag());
+    }
+
+    /**
+     * @return the recommended value of <code>kotlin.daemon.jvmargs</code>
+     */
+    @NotNull
+    public String kotlinDaemonJvmArgs() {
+        return "-Xmx%dm %s".formatted(kotlinDaemonHeap / MachineResources.MIB, gc.getFlag());
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static long roundToMib(long bytes) {
+        return bytes / MachineResources.MIB * MachineResources.MIB;
+    }
+
+    /**
+     * Represents a HotSpot garbage collector.
+     */
+    public enum GarbageCollector {
+        G1("-XX:+UseG1GC"),
+        PARALLEL("-XX:+UseParallelGC"),
+        Z("-XX:+UseZGC"),
+        SERIAL("-XX:+UseSerialGC");
+
+        private final String flag;
+
+        GarbageCollector(String flag) {
+            this.flag = flag;
+        }
+
+        /**
+         * @return the JVM flag that selects this garbage collector
+         */
+        @NotNull
+        public String getFlag() {
+            return flag;
+        }
+
+        /**
+         * @return the garbage collector the running JVM uses, or <code>null</code> if it isn't known
+         */
+        @Nullable
+        public static GarbageCollector current() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                final String name = bean.getName();
+                if (name.startsWith("G1 ")) return G1;
+                if (name.startsWith("PS ")) return PARALLEL;
+                if (name.startsWith("ZGC")) return Z;
+                if (name.equals("Copy") || name.equals("MarkSweepCompact")) return SERIAL;
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.performance;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.lang.management.ManagementFactory;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Architecture;
+
+/**
+ * Represents the resources of the machine the build runs on. In a container, these are the container's
+ * limits rather than the host's.
+ *
+ * @param totalMemory The total physical memory, in bytes
+ * @param processors The amount of available processors
+ * @param architecture The CPU architecture
+ */
+public record MachineResources(long totalMemory, int processors, @NotNull Architecture architecture) {
+    public static final long MIB = 1024L * 1024L;
+    public static final long GIB = 1024L * MIB;
+
+    /**
+     * @return the resources of the current machine
+     */
+    @NotNull
+    public static MachineResources current() {
+        final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        return new MachineResources(
+                os.getTotalMemorySize(), Runtime.getRuntime().availableProcessors(), Architecture.current());
+    }
+}
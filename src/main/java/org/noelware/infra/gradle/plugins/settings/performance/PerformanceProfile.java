@@ -0,0 +1,85 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.performance;
+
+import java.util.Locale;
+import org.gradle.api.GradleException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the kind of machine a build runs on, which decides how the Gradle daemon, its workers,
+ * and the Kotlin daemon should be sized (<code>org.noelware.gradle.performanceProfile</code>).
+ */
+public enum PerformanceProfile {
+    /**
+     * Machine that is shared with an IDE and a browser, so the build only takes a part of it.
+     */
+    LAPTOP,
+
+    /**
+     * Dedicated CI agent, the build can take most of the machine and throughput matters more than pauses.
+     */
+    CI,
+
+    /**
+     * Large developer machine with plenty of memory and cores.
+     */
+    WORKSTATION,
+
+    /**
+     * Picks one of the other profiles from the environment and the machine's resources.
+     */
+    AUTO;
+
+    /**
+     * Parses the profile from its name.
+     * @param name The name, i.e, <code>laptop</code>
+     * @return the {@link PerformanceProfile}
+     * @throws GradleException If the name isn't a valid profile
+     */
+    @NotNull
+    public static PerformanceProfile of(@NotNull String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new GradleException(
+                    "Unknown performance profile [%s], expected one of `laptop`, `ci`, `workstation`, or `auto`"
+                            .formatted(name));
+        }
+    }
+
+    /**
+     * @param resources The machine's resources
+     * @return this profile, or the profile that fits the machine if this is {@link #AUTO}
+     */
+    @NotNull
+    public PerformanceProfile resolve(@NotNull MachineResources resources) {
+        if (this != AUTO) return this;
+        if (System.getenv("CI") != null) return CI;
+
+        return resources.processors() >= 16 && resources.totalMemory() >= 32L * MachineResources.GIB
+                ? WORKSTATION
+                : LAPTOP;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.toolchains;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.jvm.toolchain.JavaLanguageVersion;
+import org.gradle.jvm.toolchain.JavaToolchainDownload;
+import org.gradle.jvm.toolchain.JavaToolchainRequest;
+import org.gradle.jvm.toolchain.JavaToolchainResolver;
+import org.gradle.platform.Architecture;
+import org.gradle.platform.OperatingSystem;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link JavaToolchainResolver} that provisions toolchains from a directory of JDK archives
+ * (<code>org.noelware.gradle.toolchains.mirror</code>), so fresh CI agents don't have to download them and
+ * a build can provision toolchains without any network access at all.
+ *
+ * <p>The archives are matched by their file name, which must have the Java version, operating system and
+ * architecture in it, and be a <code>.tar.gz</code> or <code>.zip</code> archive. The vendor is optional:
+ *
+ * <pre>
+ * temurin-17-linux-x64.tar.gz
+ * 17.0.6-linux-aarch64.tar.gz
+ * temurin-19-windows-x64.zip
+ * </pre>
+ */
+public abstract class LocalMirrorToolchainResolver implements JavaToolchainResolver {
+    public static final String MIRROR_PROPERTY = "org.noelware.gradle.toolchains.mirror";
+
+    private static final Pattern ARCHIVE = Pattern.compile(
+            "^(?:[a-z]+-)?(?:jdk-?)?((\\d+)[0-9.+_]*)-(linux|mac|macos|osx|windows)-(x64|x86_64|amd64|aarch64|arm64)\\.(tar\\.gz|tgz|zip)$",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern VERSION_SEPARATOR = Pattern.compile("[.+_]");
+
+    @Override
+    public @NotNull Optional<JavaToolchainDownload> resolve(@NotNull JavaToolchainRequest request) {
+        final String mirror = System.getProperty(MIRROR_PROPERTY);
+        if (mirror == null || !request.getJavaToolchainSpec().getLanguageVersion().isPresent())
+            return Optional.empty();
+
+        final JavaLanguageVersion version =
+                request.getJavaToolchainSpec().getLanguageVersion().get();
+
+        return resolve(
+                        new File(mirror),
+                        version.asInt(),
+                        osOf(request.getBuildPlatform().getOperatingSystem()),
+                        archOf(request.getBuildPlatform().getArchitecture()))
+                .map((archive) -> JavaToolchainDownload.fromUri(archive.toURI()));
+    }
+
+    /**
+     * Finds the archive in the mirror for a Java version and platform.
+     *
+     * @param mirror The mirror directory
+     * @param version The major Java version
+     * @param os The operating system, one of <code>linux</code>, <code>mac</code>, or <code>windows</code>
+     * @param arch The architecture, one of <code>x64</code> or <code>aarch64</code>
+     * @return the archive, if the mirror has one
+     */
+    static Optional<File> resolve(File mirror, int version, String os, String arch) {
+        final File[] archives = mirror.listFiles(File::isFile);
+        if (archives == null) return Optional.empty();
+
+        // The newest patch release wins if the mirror has more than one of them. The versions are compared
+        // number by number, since `17.0.10` is newer than `17.0.9` even though it sorts before it.
+        return Arrays.stream(archives)
+                .map((archive) -> Map.entry(archive, ARCHIVE.matcher(archive.getName())))
+                .filter((entry) -> {
+                    final Matcher matcher = entry.getValue();
+                    return matcher.matches()
+                            && version == Integer.parseInt(matcher.group(2))
+                            && os.equals(osOf(matcher.group(3)))
+                            && arch.equals(archOf(matcher.group(4)));
+                })
+                .max(Comparator.<Map.Entry<File, Matcher>, int[]>comparing(
+                                (entry) -> versionOf(entry.getValue().group(1)), Arrays::compare)
+                        .thenComparing((entry) -> entry.getKey().getName()))
+                .map(Map.Entry::getKey);
+    }
+
+    /**
+     * Splits a version like <code>17.0.6+10</code> into its numbers.
+     * @param version The version
+     * @return the numbers of the version
+     */
+    static int[] versionOf(String version) {
+        return VERSION_SEPARATOR
+                .splitAsStream(version)
+                .filter((part) -> !part.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    private static String osOf(OperatingSystem os) {
+        return switch (os) {
+            case WINDOWS -> "windows";
+            case MAC_OS -> "mac";
+            case LINUX -> "linux";
+            default -> os.name().toLowerCase(Locale.ROOT);
+        };
+    }
+
+    private static String osOf(String os) {
+        return switch (os.toLowerCase(Locale.ROOT)) {
+            case "windows" -> "windows";
+            case "mac", "macos", "osx" -> "mac";
+            default -> "linux";
+        };
+    }
+
+    private static String archOf(Architecture arch) {
+        return arch == Architecture.AARCH64 ? "aarch64" : "x64";
+    }
+
+    private static String archOf(String arch) {
+        return switch (arch.toLowerCase(Locale.ROOT)) {
+            case "aarch64", "arm64" -> "aarch64";
+            default -> "x64";
+        };
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build-scoped {@link BuildService} that collects the timings of the {@link ConfigurationProfiler}, and writes
+ * them when the build finishes:
+ *
+ * <ul>
+ *     <li><code>build/reports/noelware/configuration-profile.json</code>, the time every plugin and
+ *     callback took in every project.</li>
+ *     <li><code>build/reports/noelware/configuration-profile.collapsed</code>, the self time of every stack
+ *     in microseconds, which <code>flamegraph.pl</code> and speedscope can read as is.</li>
+ * </ul>
+ */
+public abstract class ConfigurationProfileService
+        implements BuildService<ConfigurationProfileService.Params>, AutoCloseable {
+    private static final Logger LOG = Logging.getLogger(ConfigurationProfileService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, LongAdder> selfNanosByStack = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Timing>> timingsByProject = new ConcurrentHashMap<>();
+
+    /**
+     * Records a finished frame.
+     *
+     * @param project The path of the project
+     * @param frame The name of the frame
+     * @param stack The collapsed stack of the frame, which includes the frame itself
+     * @param totalNanos The time of the frame, including the frames it called
+     * @param selfNanos The time of the frame by itself
+     */
+    void record(String project, String frame, String stack, long totalNanos, long selfNanos) {
+        selfNanosByStack.computeIfAbsent(stack, (s) -> new LongAdder()).add(selfNanos);
+        timingsByProject
+                .computeIfAbsent(project, (p) -> new ConcurrentHashMap<>())
+                .computeIfAbsent(frame, (f) -> new Timing())
+                .add(totalNanos);
+    }
+
+    @Override
+    public void close() {
+        // Nothing is configured when the configuration cache is reused
+        if (timingsByProject.isEmpty()) return;
+
+        final Map<String, Timing> totals = new TreeMap<>();
+        final Map<String, Object> projects = new TreeMap<>();
+        for (Map.Entry<String, Map<String, Timing>> project : timingsByProject.entrySet()) {
+            final Map<String, Object> projectFrames = new TreeMap<>();
+            for (Map.Entry<String, Timing> frame : project.getValue().entrySet()) {
+                projectFrames.put(frame.getKey(), frame.getValue().toMap());
+                totals.computeIfAbsent(frame.getKey(), (f) -> new Timing()).merge(frame.getValue());
+            }
+
+            projects.put(project.getKey(), projectFrames);
+        }
+
+        final Map<String, Object> frames = new TreeMap<>();
+        totals.forEach((frame, timing) -> frames.put(frame, timing.toMap()));
+
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("projects", timingsByProject.size());
+        report.put("frames", frames);
+        report.put("byProject", projects);
+
+        final File reportFile = getParameters().getReportFile().get().getAsFile();
+        final File collapsedFile = getParameters().getCollapsedFile().get().getAsFile();
+
+        //noinspection ResultOfMethodCallIgnored
+        reportFile.getParentFile().mkdirs();
+
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        } catch (IOException e) {
+            LOG.warn("Unable to write configuration profile [{}]", reportFile, e);
+        }
+
+        try (final PrintWriter writer = new PrintWriter(collapsedFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, LongAdder> stack : new TreeMap<>(selfNanosByStack).entrySet()) {
+                writer.print(stack.getKey());
+                writer.print(' ');
+                writer.println(stack.getValue().sum() / 1000);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to write configuration profile [{}]", collapsedFile, e);
+        }
+
+        LOG.lifecycle("Configuration profile of {} project(s) written to {}", timingsByProject.size(), reportFile);
+    }
+
+    private static final class Timing {
+        final LongAdder calls = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void add(long elapsed) {
+            calls.increment();
+            nanos.add(elapsed);
+        }
+
+        void merge(Timing other) {
+            calls.add(other.calls.sum());
+            nanos.add(other.nanos.sum());
+        }
+
+        Map<String, Object> toMap() {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls.sum());
+            map.put("millis", nanos.sum() / 1e6);
+
+            return map;
+        }
+    }
+
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return {@link RegularFileProperty} of where the JSON report is written to
+         */
+        RegularFileProperty getReportFile();
+
+        /**
+         * @return {@link RegularFileProperty} of where the collapsed stacks are written to
+         */
+        RegularFileProperty getCollapsedFile();
+    }
+}
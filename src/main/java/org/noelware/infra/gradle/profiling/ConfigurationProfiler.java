@@ -0,0 +1,169 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.profiling;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.noelware.infra.gradle.Flags;
+
+/**
+ * Times how long the Noelware plugins take to configure a project, when the
+ * <code>org.noelware.gradle.profileConfiguration</code> system property is enabled. The timings are collected
+ * by the {@link ConfigurationProfileService}.
+ *
+ * <p>When profiling is disabled, {@link #scope(String)} returns a shared no-op and {@link #wrap(String, Action)}
+ * returns the action as is, so the plugins don't pay for anything.
+ *
+ * <pre>
+ * final ConfigurationProfiler profiler = ConfigurationProfiler.of(project);
+ * try (final ConfigurationProfiler.Scope ignored = profiler.scope("JavaModulePlugin.apply")) {
+ *     profiler.time("TestingSupport.configure", () -> TestingSupport.configure(project, testing, registry));
+ *     project.getTasks().withType(Test.class).configureEach(profiler.wrap("Test.configureEach", (test) -> {}));
+ * }
+ * </pre>
+ */
+@ApiStatus.Internal
+public class ConfigurationProfiler {
+    private static final ConfigurationProfiler DISABLED = new ConfigurationProfiler(null, null);
+    private static final Scope NOOP = () -> {};
+
+    // Plugins apply each other, and callbacks can realize other tasks, so frames nest on each thread
+    private static final ThreadLocal<Deque<Frame>> STACK = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final String project;
+    private final Provider<ConfigurationProfileService> service;
+
+    private ConfigurationProfiler(String project, Provider<ConfigurationProfileService> service) {
+        this.project = project;
+        this.service = service;
+    }
+
+    /**
+     * @return if configuration profiling is enabled for this build
+     */
+    public static boolean isEnabled() {
+        return Flags.isEnabled(System.getProperty("org.noelware.gradle.profileConfiguration"));
+    }
+
+    /**
+     * Returns the profiler for the given project.
+     * @param project The project
+     * @return the {@link ConfigurationProfiler}, which does nothing if profiling is disabled
+     */
+    @NotNull
+    public static ConfigurationProfiler of(@NotNull Project project) {
+        if (!isEnabled()) return DISABLED;
+
+        final File reports = new File(project.getRootDir(), "build/reports/noelware");
+        final Provider<ConfigurationProfileService> service = project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent("noelwareConfigurationProfile", ConfigurationProfileService.class, (spec) -> {
+                    spec.getParameters().getReportFile().set(new File(reports, "configuration-profile.json"));
+                    spec.getParameters().getCollapsedFile().set(new File(reports, "configuration-profile.collapsed"));
+                });
+
+        return new ConfigurationProfiler(project.getPath(), service);
+    }
+
+    /**
+     * Starts timing a frame, which is finished when the returned {@link Scope} is closed.
+     * @param name The name of the frame, i.e, <code>JavaModulePlugin.apply</code>
+     * @return the {@link Scope}
+     */
+    @NotNull
+    public Scope scope(@NotNull String name) {
+        if (service == null) return NOOP;
+
+        final Deque<Frame> stack = STACK.get();
+        final Frame parent = stack.peek();
+        final Frame frame = new Frame(
+                name, (parent == null ? project.replace(';', '_') : parent.stack) + ";" + name, System.nanoTime());
+
+        stack.push(frame);
+        return () -> {
+            final long total = System.nanoTime() - frame.start;
+            stack.pop();
+            if (parent != null) parent.childNanos += total;
+
+            service.get().record(project, frame.name, frame.stack, total, total - frame.childNanos);
+        };
+    }
+
+    /**
+     * Times a block of configuration code.
+     *
+     * @param name The name of the frame, i.e, <code>LibraryUtils.configurePublishing</code>
+     * @param body The code to time
+     */
+    public void time(@NotNull String name, @NotNull Runnable body) {
+        try (final Scope ignored = scope(name)) {
+            body.run();
+        }
+    }
+
+    /**
+     * Wraps a deferred callback, i.e, one that is given to <code>configureEach</code>, so every call is timed.
+     *
+     * @param name The name of the frame, i.e, <code>Test.configureEach</code>
+     * @param action The callback
+     * @return the timed callback, or <code>action</code> if profiling is disabled
+     */
+    @NotNull
+    public <T> Action<T> wrap(@NotNull String name, @NotNull Action<T> action) {
+        if (service == null) return action;
+
+        return (value) -> {
+            try (final Scope ignored = scope(name)) {
+                action.execute(value);
+            }
+        };
+    }
+
+    /**
+     * Represents a frame that is being timed.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Frame {
+        final String name;
+        final String stack;
+        final long start;
+        long childNanos;
+
+        Frame(String name, String stack, long start) {
+            this.name = name;
+            this.stack = stack;
+            this.start = start;
+        }
+    }
+}
@@ -23,4 +23,434 @@
 
 package org.noelware.infra.gradle;
 
-public class JavaLibraryPluginTests {}
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class JavaLibraryPluginTests {
+    @TempDir
+    private File testProjectDir;
+
+    HttpServer s3Server;
+    final Map<String, byte[]> s3Objects = new ConcurrentHashMap<>();
+    final Map<String, String> s3Checksums = new ConcurrentHashMap<>();
+    final Map<String, Integer> s3Puts = new ConcurrentHashMap<>();
+    final Map<String, Map<Integer, byte[]>> s3Uploads = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final File settingsGradleKts = new File(testProjectDir, "settings.gradle.kts");
+        FileUtils.writeFile(settingsGradleKts, """
+        rootProject.name = "test-project-1"
+        """);
+
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(
+                buildGradleKts,
+                """
+        plugins {
+            id("org.noelware.gradle.java-library")
+        }
+
+        description = "a test project"
+        noelware {
+            minimumJavaVersion.set(org.gradle.api.JavaVersion.VERSION_17)
+            projectDescription.set("a test project lmao")
+            projectName.set("test-project")
+            license.set(org.noelware.infra.gradle.Licenses.MIT)
+        }
+
+        repositories {
+            mavenCentral()
+        }
+
+        tasks.configureEach {
+            if (this is Jar || this is Javadoc) logger.lifecycle("Realized task $path")
+        }
+        """);
+
+        final File javaFile = new File(testProjectDir, "src/main/java/Main.java");
+        FileUtils.writeFile(
+                javaFile,
+                """
+        public class Main {
+            public static void main(String[] args) {}
+        }
+        """);
+
+        // Stand-in for the S3 bucket, which only speaks the parts of the API that the publish task uses
+        s3Server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        s3Server.createContext("/bucket/", (exchange) -> {
+            final String key = exchange.getRequestURI().getPath().substring("/bucket/".length());
+            final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try (exchange) {
+                switch (exchange.getRequestMethod()) {
+                    case "HEAD" -> {
+                        if (!s3Objects.containsKey(key)) {
+                            exchange.sendResponseHeaders(404, -1);
+                            return;
+                        }
+
+                        final String sha256 = s3Checksums.get(key);
+                        if (sha256 != null) exchange.getResponseHeaders().set("x-amz-meta-sha256", sha256);
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+
+                    case "GET" -> {
+                        final byte[] object = s3Objects.get(key);
+                        if (object == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                            return;
+                        }
+
+                        respond(exchange, object);
+                    }
+
+                    case "PUT" -> {
+                        final byte[] body = readBody(exchange);
+                        if (query.containsKey("partNumber")) {
+                            s3Uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                            exchange.getResponseHeaders().set("ETag", "\"" + query.get("partNumber") + "\"");
+                            exchange.sendResponseHeaders(200, -1);
+                            return;
+                        }
+
+                        store(key, body, exchange.getRequestHeaders().getFirst("x-amz-meta-sha256"));
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+
+                    case "POST" -> {
+                        readBody(exchange);
+                        if (query.containsKey("uploads")) {
+                            final String uploadId = UUID.randomUUID().toString();
+                            s3Uploads.put(uploadId, new TreeMap<>());
+                            s3Checksums.put(uploadId, exchange.getRequestHeaders().getFirst("x-amz-meta-sha256"));
+
+                            final String response = "<InitiateMultipartUploadResult><UploadId>%s</UploadId>"
+                                    + "</InitiateMultipartUploadResult>";
+
+                            respond(exchange, response.formatted(uploadId).getBytes(StandardCharsets.UTF_8));
+
+                            return;
+                        }
+
+                        final String uploadId = query.get("uploadId");
+                        final ByteArrayOutputStream object = new ByteArrayOutputStream();
+                        for (byte[] part : s3Uploads.remove(uploadId).values()) object.write(part);
+
+                        store(key, object.toByteArray(), s3Checksums.remove(uploadId));
+                        respond(exchange, "<CompleteMultipartUploadResult/>".getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    case "DELETE" -> {
+                        s3Uploads.remove(query.get("uploadId"));
+                        exchange.sendResponseHeaders(204, -1);
+                    }
+
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            }
+        });
+
+        s3Server.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        s3Server.stop(0);
+    }
+
+    @Test
+    public void test_doesNotRealizePublishingTasks() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("help")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertFalse(result.getOutput().contains("Realized task"));
+    }
+
+    @Test
+    public void test_publishingDependsOnDocumentationAndSources() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("publishToMavenLocal", "--dry-run")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains(":javadoc SKIPPED"));
+        assertTrue(result.getOutput().contains(":javadocJar SKIPPED"));
+        assertTrue(result.getOutput().contains(":javaSourcesJar SKIPPED"));
+    }
+
+    @Test
+    public void test_archivesAreReproducible() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("verifyReproducibleArchives")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("All 3 archive(s) are reproducible"));
+        assertNotNull(result.task(":jarRepack"));
+        assertNotNull(result.task(":javaSourcesJarRepack"));
+    }
+
+    @Test
+    public void test_apiCheckSkipsWithoutSnapshot() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("apiCheck")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("There is no public API snapshot"));
+        assertFalse(new File(testProjectDir, "api/test-project-1.api").exists());
+    }
+
+    @Test
+    public void test_apiCheckFailsWhenPublicApiChanges() throws IOException {
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("apiDump")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        final String snapshot = FileUtils.readFile(new File(testProjectDir, "api/test-project-1.api"));
+        assertTrue(snapshot.contains("public class Main {"));
+        assertTrue(snapshot.contains("\tpublic static fun main ([Ljava/lang/String;)V"));
+
+        // Changing an implementation detail is fine
+        final File javaFile = new File(testProjectDir, "src/main/java/Main.java");
+        FileUtils.writeFile(javaFile, """
+        public class Main {
+            public static void main(String[] args) { System.out.println(greeting()); }
+
+            private static String greeting() { return "hi"; }
+        }
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("apiCheck")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        assertDoesNotThrow(runner::build);
+
+        // ...but adding to the public API isn't
+        FileUtils.writeFile(javaFile, FileUtils.readFile(javaFile).replace("private static", "public static"));
+
+        final BuildResult result = runner.buildAndFail();
+        assertTrue(result.getOutput().contains("+ public static fun greeting ()Ljava/lang/String;"));
+    }
+
+    @Test
+    public void test_publishToNoelwareS3SkipsUnchangedArtifacts() throws IOException {
+        writeS3Project();
+
+        final String jarKey = "maven/org/example/test-project-1/1.0.0/test-project-1-1.0.0.jar";
+        final String metadataKey = "maven/org/example/test-project-1/maven-metadata.xml";
+
+        final BuildResult first = assertDoesNotThrow(() -> s3Runner().build());
+        assertTrue(first.getOutput().contains("Uploaded "));
+        assertTrue(s3Objects.containsKey(jarKey));
+        assertTrue(s3Objects.containsKey(metadataKey));
+        assertTrue(s3Objects.containsKey(metadataKey + ".sha256"));
+        assertTrue(new String(s3Objects.get(metadataKey), StandardCharsets.UTF_8).contains("<version>1.0.0</version>"));
+        assertEquals(1, (int) s3Puts.get(jarKey));
+
+        // Nothing changed, so the artifacts shouldn't be uploaded again
+        assertDoesNotThrow(() -> s3Runner().build());
+        assertEquals(1, (int) s3Puts.get(jarKey));
+    }
+
+    @Test
+    public void test_publishToNoelwareS3UsesMultipartUploads() throws IOException {
+        writeS3Project();
+
+        final String jarKey = "maven/org/example/test-project-1/1.0.0/test-project-1-1.0.0.jar";
+        assertDoesNotThrow(() -> s3Runner("-Dorg.noelware.gradle.s3.multipartThreshold=1").build());
+
+        assertTrue(s3Objects.containsKey(jarKey));
+        assertTrue(s3Uploads.isEmpty());
+        assertNotNull(s3Checksums.get(jarKey));
+    }
+
+    @Test
+    public void test_publishToNoelwareS3SkipsUnchangedSnapshots() throws IOException {
+        writeS3Project();
+
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(
+                buildGradleKts,
+                FileUtils.readFile(buildGradleKts).replace("version = \"1.0.0\"", "version = \"1.0.0-SNAPSHOT\""));
+
+        final String versionKey = "maven/org/example/test-project-1/1.0.0-SNAPSHOT/";
+        assertDoesNotThrow(() -> s3Runner().build());
+        assertTrue(s3Objects.containsKey(versionKey + ".noelware-snapshot.sha256"));
+
+        final Map<String, Integer> firstPuts = snapshotPuts(versionKey);
+        assertTrue(firstPuts.keySet().stream().anyMatch((key) -> key.endsWith(".jar")));
+
+        // Every snapshot gets a new timestamp, but nothing in it changed
+        assertDoesNotThrow(() -> s3Runner().build());
+        assertEquals(firstPuts, snapshotPuts(versionKey));
+    }
+
+    @Test
+    public void test_publishDoesNotStageForS3() throws IOException {
+        writeS3Project();
+
+        // Publications that the build script adds should be kept out of the staging repository as well
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        publishing {
+            publications {
+                create<MavenPublication>("extra") {
+                    from(components["java"])
+                    artifactId = "extra"
+                }
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("publish", "--dry-run")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains(":publish SKIPPED"));
+        assertTrue(result.getOutput().contains(":publishExtraPublicationToMavenRepository SKIPPED"));
+        assertFalse(result.getOutput().contains("ToNoelwareStagingRepository"));
+    }
+
+    @Test
+    public void test_publishingUsesTheConfiguredNames() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        noelware {
+            mavenPublicationName.set("custom")
+            s3BucketUrl.set("s3://bucket/maven")
+        }
+
+        afterEvaluate {
+            publishing.publications.forEach { logger.lifecycle("Publication ${it.name}") }
+            publishing.repositories.withType<MavenArtifactRepository>().forEach {
+                logger.lifecycle("Repository ${it.name} at ${it.url}")
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("help")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("Publication custom"));
+        assertTrue(result.getOutput().contains("Repository maven at s3://bucket/maven"));
+    }
+
+    private void writeS3Project() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        group = "org.example"
+        version = "1.0.0"
+
+        noelware {
+            s3BucketUrl.set("s3://bucket/maven")
+        }
+        """);
+
+        FileUtils.writeFile(new File(testProjectDir, "gradle/publishing.properties"), """
+        s3.accessKey=access-key
+        s3.secretKey=secret-key
+        """);
+    }
+
+    private Map<String, Integer> snapshotPuts(String versionKey) {
+        final Map<String, Integer> puts = new TreeMap<>();
+        s3Puts.forEach((key, count) -> {
+            if (key.startsWith(versionKey)) puts.put(key, count);
+        });
+
+        return puts;
+    }
+
+    private GradleRunner s3Runner(String... extraArguments) {
+        final String[] arguments = new String[extraArguments.length + 2];
+        arguments[0] = "publishToNoelwareS3";
+        arguments[1] = "-Dorg.noelware.gradle.s3.endpoint=http://127.0.0.1:%d"
+                .formatted(s3Server.getAddress().getPort());
+
+        System.arraycopy(extraArguments, 0, arguments, 2, extraArguments.length);
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments(arguments)
+                .withPluginClasspath()
+                .forwardOutput();
+    }
+
+    private void store(String key, byte[] object, String sha256) {
+        s3Objects.put(key, object);
+        if (sha256 != null) s3Checksums.put(key, sha256);
+
+        s3Puts.merge(key, 1, Integer::sum);
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (final InputStream body = exchange.getRequestBody()) {
+            return body.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            stream.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) return parameters;
+
+        for (String parameter : query.split("&")) {
+            final int index = parameter.indexOf('=');
+            if (index == -1) parameters.put(parameter, "");
+            else parameters.put(parameter.substring(0, index), parameter.substring(index + 1));
+        }
+
+        return parameters;
+    }
+}
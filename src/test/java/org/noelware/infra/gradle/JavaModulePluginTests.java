@@ -23,4 +23,784 @@
 
 package org.noelware.infra.gradle;
 
-public class JavaModulePluginTests {}
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class JavaModulePluginTests {
+    @TempDir
+    private File testProjectDir;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final File settingsGradleKts = new File(testProjectDir, "settings.gradle.kts");
+        FileUtils.writeFile(settingsGradleKts, """
+        rootProject.name = "test-project-1"
+        """);
+
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(
+                buildGradleKts,
+                """
+        plugins {
+            id("org.noelware.gradle.java")
+        }
+
+        description = "a test project"
+        noelware {
+            minimumJavaVersion.set(org.gradle.api.JavaVersion.VERSION_17)
+            projectDescription.set("a test project lmao")
+            projectName.set("test-project")
+            license.set(org.noelware.infra.gradle.Licenses.MIT)
+        }
+
+        repositories {
+            mavenCentral()
+        }
+        """);
+
+        final File javaFile = new File(testProjectDir, "src/main/java/Main.java");
+        FileUtils.writeFile(
+                javaFile,
+                """
+        public class Main {
+            public static void main(String[] args) {}
+        }
+        """);
+    }
+
+    @Test
+    public void test_isConfigurationCacheCompatible() throws IOException {
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("spotlessApply", "--configuration-cache")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        // The license heading is only rendered when Spotless runs, so it has to come out of the
+        // cache entry as well.
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("spotlessCheck", "--rerun-tasks", "--configuration-cache")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertTrue(first.getOutput().contains("Configuration cache entry stored."));
+
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertTrue(second.getOutput().contains("Reusing configuration cache."));
+        assertTrue(FileUtils.readFile(new File(testProjectDir, "src/main/java/Main.java"))
+                .contains("test-project: a test project lmao"));
+    }
+
+    @Test
+    public void test_registersBenchmarksWhenEnabled() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        noelware {
+            benchmarks {
+                iterations.set(2)
+                gc()
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("tasks", "--group", "benchmarks")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("jmh - Runs the JMH benchmarks"));
+        assertTrue(result.getOutput().contains("jmhCompare - "));
+    }
+
+    @Test
+    public void test_jmhGenerateRemovesStaleHarness() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        noelware {
+            benchmarks {}
+        }
+        """);
+
+        final File oldBenchmark = new File(testProjectDir, "src/jmh/java/OldBenchmark.java");
+        FileUtils.writeFile(oldBenchmark, """
+        import org.openjdk.jmh.annotations.Benchmark;
+
+        public class OldBenchmark {
+            @Benchmark
+            public void run() {}
+        }
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("jmhGenerate", "--configuration-cache")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        assertDoesNotThrow(runner::build);
+
+        final File generatedSources = new File(testProjectDir, "build/noelware/jmh/generated-sources");
+        assertTrue(hasFileNamed(generatedSources, "OldBenchmark"));
+
+        assertTrue(oldBenchmark.delete());
+        FileUtils.writeFile(new File(testProjectDir, "src/jmh/java/NewBenchmark.java"), """
+        import org.openjdk.jmh.annotations.Benchmark;
+
+        public class NewBenchmark {
+            @Benchmark
+            public void run() {}
+        }
+        """);
+
+        assertDoesNotThrow(runner::build);
+        assertTrue(hasFileNamed(generatedSources, "NewBenchmark"));
+        assertFalse(hasFileNamed(generatedSources, "OldBenchmark"));
+    }
+
+    @Test
+    public void test_licenseHeaderCheckFailsWithoutHeading() {
+        final BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("licenseHeaderJavaCheck")
+                .withPluginClasspath()
+                .forwardOutput()
+                .buildAndFail();
+
+        assertTrue(result.getOutput().contains("1 file(s) are missing the license heading"));
+        assertTrue(result.getOutput().contains("Main.java"));
+    }
+
+    @Test
+    public void test_applyLicenseHeadersAddsHeading() throws IOException {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("applyLicenseHeaders", "licenseHeaderJavaCheck")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        final String contents = FileUtils.readFile(new File(testProjectDir, "src/main/java/Main.java"));
+        assertTrue(contents.startsWith("/*"));
+        assertTrue(contents.contains("test-project: a test project lmao"));
+        assertTrue(contents.contains("public class Main {"));
+        assertNotNull(result.task(":licenseHeaderJavaCheck"));
+    }
+
+    @Test
+    public void test_prewarmToolchainsResolvesToolchain() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("prewarmToolchains")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("Using Java "));
+        assertNotNull(result.task(":prewarmToolchains"));
+    }
+
+    @Test
+    public void test_fastStartupPresetCreatesCdsArchive() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                fixed(1)
+                jvm {
+                    fastStartup()
+                }
+            }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void test() {}
+        }
+        """);
+
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        final File[] archives = new File(testProjectDir, "build/noelware/cds/test")
+                .listFiles((dir, name) -> name.endsWith(".jsa"));
+
+        assertNotNull(archives);
+        assertEquals(1, archives.length);
+        assertTrue(new File(testProjectDir, ".gradle/noelware/test-history/test-heap.json").exists());
+    }
+
+    @Test
+    public void test_forkHeapIsRecordedWhenTestsFail() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                jvm {
+                    maxHeapSize.set("256m")
+                }
+            }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void fails() {
+                throw new AssertionError("expected failure");
+            }
+        }
+        """);
+
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .buildAndFail());
+
+        assertTrue(new File(testProjectDir, ".gradle/noelware/test-history/test-heap.json").exists());
+    }
+
+    @Test
+    public void test_trainAppCdsCreatesArchiveOnce() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            appCds {
+                enabled.set(true)
+            }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void test() {}
+        }
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("trainAppCds", "test", "--info")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, first.task(":trainAppCds").getOutcome());
+        assertTrue(first.getOutput().contains("Task :test loads its classpath from the AppCDS archive"));
+
+        final File[] archives = new File(testProjectDir, "build/noelware/cds/test")
+                .listFiles((dir, name) -> name.endsWith(".jsa"));
+
+        assertNotNull(archives);
+        assertEquals(1, archives.length);
+
+        // The classpath didn't change, so the archive is reused
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SKIPPED, second.task(":trainAppCds").getOutcome());
+    }
+
+    @Test
+    public void test_jarsFirstServesLibrariesFromTheAppCdsArchive() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            appCds {
+                enabled.set(true)
+                jarsFirst.set(true)
+            }
+        }
+
+        tasks.named<Test>("test") {
+            jvmArgs("-Xlog:class+load=info:file=${layout.buildDirectory.file("class-load.log").get().asFile}")
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void test() {}
+        }
+        """);
+
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("trainAppCds", "test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        final String classLoadLog = FileUtils.readFile(new File(testProjectDir, "build/class-load.log"));
+        assertTrue(classLoadLog.contains("org.junit.jupiter.api.Test source: shared objects file"));
+    }
+
+    @Test
+    public void test_streamingOutputOnlyShowsFailures() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                output {
+                    streaming()
+                    failureTailLines.set(10)
+                }
+            }
+        }
+
+        // Streaming replaces the events, so the passing tests aren't logged anyway
+        tasks.named<Test>("test") {
+            testLogging.events("passed")
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void passes() {
+                System.out.println("passing output");
+            }
+
+            @Test
+            public void fails() {
+                for (int i = 0; i < 100; i++) System.out.println("failing output " + i);
+                throw new AssertionError("expected failure");
+            }
+        }
+        """);
+
+        final BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .buildAndFail();
+
+        assertTrue(result.getOutput().contains("Last 10 line(s) of output of MainTests > fails()"));
+        assertTrue(result.getOutput().contains("failing output 99"));
+        assertFalse(result.getOutput().contains("failing output 89"));
+        assertFalse(result.getOutput().contains("passing output"));
+        assertFalse(result.getOutput().contains("passes() PASSED"));
+
+        final String contents = FileUtils.readFile(new File(testProjectDir, "build/test-output/test/MainTests.log"));
+        assertTrue(contents.contains("passing output"));
+        assertTrue(contents.contains("failing output 0"));
+    }
+
+    @Test
+    public void test_streamingOutputWithOneFileStaysUnderTheLimit() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                output {
+                    streaming()
+                    maxFileSize.set("1k")
+                    maxFiles.set(1)
+                }
+            }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/MainTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class MainTests {
+            @Test
+            public void test() {
+                for (int i = 0; i < 1000; i++) System.out.println("output " + i);
+            }
+        }
+        """);
+
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        // The file is started over once it's full, so it only has the last of the output
+        final File log = new File(testProjectDir, "build/test-output/test/MainTests.log");
+        assertTrue(log.length() < 2048);
+        assertTrue(FileUtils.readFile(log).contains("output 999"));
+        assertFalse(new File(testProjectDir, "build/test-output/test/MainTests.1.log").exists());
+    }
+
+    @Test
+    public void test_testImpactedOnlyRunsAffectedTests() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+        """);
+
+        final File greeter = new File(testProjectDir, "src/main/java/Greeter.java");
+        FileUtils.writeFile(greeter, """
+        public class Greeter {
+            public static String greet() { return "hello"; }
+        }
+        """);
+
+        FileUtils.writeFile(new File(testProjectDir, "src/main/java/Counter.java"), """
+        public class Counter {
+            public static int count() { return 1; }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/GreeterTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class GreeterTests {
+            @Test
+            public void test() { Greeter.greet(); }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/CounterTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class CounterTests {
+            @Test
+            public void test() { Counter.count(); }
+        }
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("testImpacted")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertTrue(first.getOutput().contains("2 of 2 test class(es) are affected"));
+        assertTrue(new File(testProjectDir, "build/noelware/test-impact/testImpacted.idx").exists());
+
+        FileUtils.writeFile(greeter, FileUtils.readFile(greeter).replace("\"hello\"", "\"hi\""));
+
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertTrue(second.getOutput().contains("1 of 2 test class(es) are affected"));
+
+        final BuildResult third = assertDoesNotThrow(runner::build);
+        assertTrue(third.getOutput().contains("0 of 2 test class(es) are affected"));
+    }
+
+    @Test
+    public void test_flakyTestsAreRetriedAndQuarantined() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                retries(1)
+            }
+        }
+        """);
+
+        // Fails the first time it runs, and passes from then on
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/FlakyTests.java"),
+                """
+        import java.io.File;
+        import org.junit.jupiter.api.Test;
+
+        public class FlakyTests {
+            @Test
+            public void test() throws Exception {
+                if (new File("build/flaky-marker").createNewFile()) throw new AssertionError("flaked");
+            }
+        }
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, first.task(":testRetry1").getOutcome());
+        assertTrue(first.getOutput().contains("1 test class(es) passed on retry 1 and are quarantined"));
+
+        final File quarantine = new File(testProjectDir, ".gradle/noelware/test-history/test-quarantine.json");
+        assertTrue(FileUtils.readFile(quarantine).contains("\"FlakyTests\""));
+
+        // The quarantined class is left for the retry, which runs after the rest of the suite
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertTrue(second.getOutput().contains("1 quarantined test class(es) run after the rest of the suite"));
+        assertEquals(TaskOutcome.SUCCESS, second.task(":testRetry1").getOutcome());
+    }
+
+    @Test
+    public void test_failingTestsFailTheBuildWithoutRetryTasks() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                retries.set(1)
+            }
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/FailingTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public class FailingTests {
+            @Test
+            public void test() {
+                throw new AssertionError("failed");
+            }
+        }
+        """);
+
+        // Setting the property directly doesn't register any retries, so the test task can't ignore the failure
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .buildAndFail());
+
+        assertEquals(TaskOutcome.FAILED, result.task(":test").getOutcome());
+        assertNull(result.task(":testRetry1"));
+    }
+
+    @Test
+    public void test_quarantinedTestsKeepTheirRetries() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                retries(1)
+            }
+        }
+        """);
+
+        final File quarantine = new File(testProjectDir, ".gradle/noelware/test-history/test-quarantine.json");
+        FileUtils.writeFile(quarantine, """
+        { "QuarantinedTests": { "flakyRuns": 1, "cleanRuns": 0, "lastFlaky": "2023-01-01T00:00:00Z" } }
+        """);
+
+        // Fails the first time it runs, and passes from then on
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/QuarantinedTests.java"),
+                """
+        import java.io.File;
+        import org.junit.jupiter.api.Test;
+
+        public class QuarantinedTests {
+            @Test
+            public void test() throws Exception {
+                if (new File("build/flaky-marker").createNewFile()) throw new AssertionError("flaked");
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        // The quarantined class first runs on the first retry, and is retried once more on the second
+        assertEquals(TaskOutcome.SUCCESS, result.task(":testRetry1").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, result.task(":testRetry2").getOutcome());
+        assertTrue(result.getOutput().contains("1 test class(es) passed on retry 2 and are quarantined"));
+        assertTrue(FileUtils.readFile(quarantine).contains("\"flakyRuns\" : 2"));
+    }
+
+    @Test
+    public void test_retriesOnlyRunTheTestClassesThatFailed() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        dependencies {
+            testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
+            testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+        }
+
+        noelware {
+            testing {
+                retries(1)
+            }
+        }
+        """);
+
+        final File quarantine = new File(testProjectDir, ".gradle/noelware/test-history/test-quarantine.json");
+        FileUtils.writeFile(quarantine, """
+        { "FilteredTests": { "flakyRuns": 1, "cleanRuns": 0, "lastFlaky": "2023-01-01T00:00:00Z" } }
+        """);
+
+        // Fails the first time it runs, and passes from then on
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/FlakyTests.java"),
+                """
+        import java.io.File;
+        import org.junit.jupiter.api.Test;
+
+        public class FlakyTests {
+            @Test
+            public void test() throws Exception {
+                if (new File("build/flaky-marker").createNewFile()) throw new AssertionError("flaked");
+            }
+        }
+        """);
+
+        // Not a test class on its own
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/AbstractTests.java"),
+                """
+        import org.junit.jupiter.api.Test;
+
+        public abstract class AbstractTests {
+            @Test
+            public void test() {}
+        }
+        """);
+
+        // Filtered out on the command line, so no attempt may run it
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/test/java/FilteredTests.java"),
+                """
+        import java.io.File;
+        import org.junit.jupiter.api.Test;
+
+        public class FilteredTests {
+            @Test
+            public void test() throws Exception {
+                new File("build/filtered-marker").createNewFile();
+                throw new AssertionError("filtered out");
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("test", "--tests", "FlakyTests")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(":testRetry1").getOutcome());
+        assertEquals(TaskOutcome.SKIPPED, result.task(":testRetry2").getOutcome());
+        assertFalse(new File(testProjectDir, "build/filtered-marker").exists());
+    }
+
+    @Test
+    public void test_writesConfigurationProfile() throws IOException {
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("help", "-Dorg.noelware.gradle.profileConfiguration=true")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        final File report = new File(testProjectDir, "build/reports/noelware/configuration-profile.json");
+        assertTrue(FileUtils.readFile(report).contains("\"JavaModulePlugin.apply\""));
+
+        final File collapsed = new File(testProjectDir, "build/reports/noelware/configuration-profile.collapsed");
+        assertTrue(FileUtils.readFile(collapsed).contains(";JavaModulePlugin.apply;spotless "));
+    }
+
+    private static boolean hasFileNamed(File directory, String name) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory.toPath())) {
+            return files.anyMatch((path) -> path.getFileName().toString().contains(name));
+        }
+    }
+}
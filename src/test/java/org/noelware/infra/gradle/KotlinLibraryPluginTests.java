@@ -23,4 +23,159 @@
 
 package org.noelware.infra.gradle;
 
-public class KotlinLibraryPluginTests {}
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class KotlinLibraryPluginTests {
+    @TempDir
+    private File testProjectDir;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final File settingsGradleKts = new File(testProjectDir, "settings.gradle.kts");
+        FileUtils.writeFile(settingsGradleKts, """
+        rootProject.name = "test-project-1"
+        """);
+
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(
+                buildGradleKts,
+                """
+        plugins {
+            id("org.noelware.gradle.kotlin-library")
+            kotlin("jvm") version "1.8.10"
+        }
+
+        description = "a test project"
+        noelware {
+            minimumJavaVersion.set(org.gradle.api.JavaVersion.VERSION_17)
+            projectDescription.set("a test project lmao")
+            projectName.set("test-project")
+            license.set(org.noelware.infra.gradle.Licenses.MIT)
+        }
+
+        repositories {
+            mavenCentral()
+        }
+
+        tasks.configureEach {
+            if (this is Jar || name.startsWith("dokka")) logger.lifecycle("Realized task $path")
+        }
+        """);
+
+        final File kotlinFile = new File(testProjectDir, "src/main/kotlin/Main.kt");
+        FileUtils.writeFile(
+                kotlinFile,
+                """
+        fun main(args: Array<String>) {}
+        """);
+    }
+
+    @Test
+    public void test_doesNotRealizePublishingTasks() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("help")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertFalse(result.getOutput().contains("Realized task"));
+    }
+
+    @Test
+    public void test_publishingDependsOnDocumentationAndSources() {
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("publishToMavenLocal", "--dry-run")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains(":dokkaHtml SKIPPED"));
+        assertTrue(result.getOutput().contains(":dokkaJar SKIPPED"));
+        assertTrue(result.getOutput().contains(":kotlinSourcesJar SKIPPED"));
+    }
+
+    @Test
+    public void test_dokkaOnlyRunsWhenPublicApiChanges() throws IOException {
+        final File kotlinFile = new File(testProjectDir, "src/main/kotlin/Main.kt");
+        FileUtils.writeFile(kotlinFile, """
+        /** Says hello. */
+        fun hello(): String = greeting()
+
+        private fun greeting(): String = "hello"
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("dokkaHtml")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, first.task(":dokkaHtml").getOutcome());
+
+        // Only the body of a private function changed
+        FileUtils.writeFile(kotlinFile, FileUtils.readFile(kotlinFile).replace("\"hello\"", "\"hi\""));
+
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SKIPPED, second.task(":dokkaHtml").getOutcome());
+
+        // ...but the documentation did
+        FileUtils.writeFile(kotlinFile, FileUtils.readFile(kotlinFile).replace("Says hello.", "Says hi."));
+
+        final BuildResult third = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, third.task(":dokkaHtml").getOutcome());
+    }
+
+    @Test
+    public void test_dokkaRunsWhenNullabilityChanges() throws IOException {
+        final File kotlinFile = new File(testProjectDir, "src/main/kotlin/Main.kt");
+        FileUtils.writeFile(kotlinFile, """
+        /** Says hello. */
+        fun hello(name: String): String = "hello $name"
+        """);
+
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("dokkaHtml")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, first.task(":dokkaHtml").getOutcome());
+
+        // The descriptor is the same, only the nullability of the parameter changed
+        FileUtils.writeFile(kotlinFile, FileUtils.readFile(kotlinFile).replace("name: String)", "name: String?)"));
+
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertEquals(TaskOutcome.SUCCESS, second.task(":dokkaHtml").getOutcome());
+    }
+
+    @Test
+    public void test_dokkaApiFingerprintSkipsBinaryResources() throws IOException {
+        final File resource = new File(testProjectDir, "src/main/resources/logo.png");
+        resource.getParentFile().mkdirs();
+        Files.write(resource.toPath(), new byte[] {(byte) 0x89, 'P', 'N', 'G', (byte) 0xff, (byte) 0xfe, 0, 1});
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("dokkaApiFingerprint")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(":dokkaApiFingerprint").getOutcome());
+    }
+}
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.io.IOException;
+import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,6 +80,57 @@ public class KotlinModulePluginTests {
         """);
     }
 
+    @Test
+    public void test_isConfigurationCacheCompatible() throws IOException {
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("spotlessApply", "--configuration-cache")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        // The license heading is only rendered when Spotless runs, so it has to come out of the
+        // cache entry as well.
+        final GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("spotlessCheck", "--rerun-tasks", "--configuration-cache")
+                .withPluginClasspath()
+                .forwardOutput();
+
+        final BuildResult first = assertDoesNotThrow(runner::build);
+        assertTrue(first.getOutput().contains("Configuration cache entry stored."));
+
+        final BuildResult second = assertDoesNotThrow(runner::build);
+        assertTrue(second.getOutput().contains("Reusing configuration cache."));
+        assertTrue(FileUtils.readFile(new File(testProjectDir, "src/main/kotlin/Main.kt"))
+                .contains("test-project: a test project lmao"));
+    }
+
+    @Test
+    public void test_reportsKotlinCompilerPerformance() throws IOException {
+        final File buildGradleKts = new File(testProjectDir, "build.gradle.kts");
+        FileUtils.writeFile(buildGradleKts, FileUtils.readFile(buildGradleKts) + """
+        noelware {
+            kotlin {
+                inProcess()
+                reportPerformance.set(true)
+            }
+        }
+        """);
+
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("compileKotlin")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("Kotlin compiler timings of 1 task(s) written to"));
+
+        final File report = new File(testProjectDir, "build/reports/noelware/kotlin-perf.json");
+        assertTrue(FileUtils.readFile(report).contains("\":compileKotlin\""));
+    }
+
     @Test
     public void test_canWeRunSpotlessCorrectly() throws IOException {
         assertDoesNotThrow(() -> GradleRunner.create()
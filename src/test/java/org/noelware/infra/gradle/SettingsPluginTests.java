@@ -25,9 +25,21 @@ package org.noelware.infra.gradle;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.sun.net.httpserver.HttpServer;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -40,10 +52,55 @@ public class SettingsPluginTests {
     File settingsKtsFile;
     File settingsFile;
 
+    HttpServer cacheServer;
+    final Map<String, byte[]> cacheEntries = new ConcurrentHashMap<>();
+    final AtomicInteger cachePuts = new AtomicInteger();
+    volatile int cachePutStatus = 200;
+
     @BeforeEach
-    public void setup() {
+    public void setup() throws IOException {
         settingsKtsFile = new File(testProjectDir, "settings.gradle.kts");
         settingsFile = new File(testProjectDir, "settings.gradle");
+
+        // Stand-in for the remote build cache node, which speaks the same protocol as Gradle's HTTP build cache
+        cacheServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        cacheServer.createContext("/cache/", (exchange) -> {
+            final String key = exchange.getRequestURI().getPath().substring("/cache/".length());
+            try (exchange) {
+                switch (exchange.getRequestMethod()) {
+                    case "PUT" -> {
+                        try (final InputStream body = exchange.getRequestBody()) {
+                            cacheEntries.put(key, body.readAllBytes());
+                        }
+
+                        cachePuts.incrementAndGet();
+                        exchange.sendResponseHeaders(cachePutStatus, -1);
+                    }
+
+                    case "GET" -> {
+                        final byte[] entry = cacheEntries.get(key);
+                        if (entry == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                            return;
+                        }
+
+                        exchange.sendResponseHeaders(200, entry.length);
+                        try (final OutputStream body = exchange.getResponseBody()) {
+                            body.write(entry);
+                        }
+                    }
+
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            }
+        });
+
+        cacheServer.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        cacheServer.stop(0);
     }
 
     @Test
@@ -95,4 +152,145 @@ public class SettingsPluginTests {
                 .withPluginClasspath()
                 .build());
     }
+
+    @Test
+    public void test_performanceProfileWarnsOutsideOfEnvelope() throws IOException {
+        FileUtils.writeFile(
+                settingsKtsFile,
+                """
+        plugins {
+            id("org.noelware.gradle.settings")
+        }
+
+        rootProject.name = "test"
+        """);
+
+        // TestKit's daemon runs with a small heap, which no profile recommends
+        final BuildResult result = assertDoesNotThrow(() -> GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("help", "-Dorg.noelware.gradle.performanceProfile=workstation")
+                .withPluginClasspath()
+                .forwardOutput()
+                .build());
+
+        assertTrue(result.getOutput().contains("outside of the recommended envelope for the `workstation`"));
+        assertTrue(result.getOutput().contains("org.gradle.jvmargs=-Xmx"));
+    }
+
+    @Test
+    public void test_remoteBuildCachePushesEntries() throws IOException {
+        writeCacheProject();
+
+        assertDoesNotThrow(() -> cacheRunner().build());
+        assertTrue(cachePuts.get() > 0);
+    }
+
+    @Test
+    public void test_remoteBuildCacheSkipsSmallEntries() throws IOException {
+        writeCacheProject();
+
+        assertDoesNotThrow(() -> cacheRunner("-Dorg.noelware.gradle.buildCache.minEntrySize=1g").build());
+
+        assertEquals(0, cachePuts.get());
+    }
+
+    @Test
+    public void test_remoteBuildCacheSkipsDeniedTaskTypes() throws IOException {
+        writeCacheProject();
+
+        assertDoesNotThrow(() -> cacheRunner("-Dorg.noelware.gradle.buildCache.tasks.deny=JavaCompile").build());
+
+        assertEquals(0, cachePuts.get());
+    }
+
+    @Test
+    public void test_writesCacheStats() throws IOException {
+        writeCacheProject();
+
+        assertDoesNotThrow(() -> cacheRunner("-Dorg.noelware.gradle.buildCache.summary=true").build());
+
+        final File stats = new File(testProjectDir, "build/reports/noelware/cache-stats.json");
+        assertTrue(stats.exists());
+
+        final String contents = FileUtils.readFile(stats);
+        assertTrue(contents.contains("\"JavaCompile\""));
+        assertTrue(contents.contains("\"bytesUploaded\""));
+    }
+
+    @Test
+    public void test_refusedEntriesAreNotCountedAsUploaded() throws IOException {
+        writeCacheProject();
+        cachePutStatus = 413;
+
+        assertDoesNotThrow(() -> cacheRunner().build());
+        assertTrue(cachePuts.get() > 0);
+
+        final String contents = FileUtils.readFile(new File(testProjectDir, "build/reports/noelware/cache-stats.json"));
+        assertTrue(contents.contains("\"stores\" : 0"));
+        assertTrue(contents.contains("\"bytesUploaded\" : 0"));
+        assertFalse(contents.contains("\"skippedStores\" : 0"));
+    }
+
+    @Test
+    public void test_doesNotWriteCacheStatsWithoutTransfers() throws IOException {
+        writeCacheProject();
+
+        assertDoesNotThrow(() -> GradleRunner.create()
+                .forwardOutput()
+                .withArguments("help")
+                .withProjectDir(testProjectDir)
+                .withPluginClasspath()
+                .build());
+
+        assertFalse(new File(testProjectDir, "build/reports/noelware/cache-stats.json").exists());
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void writeCacheProject() throws IOException {
+        FileUtils.writeFile(
+                settingsKtsFile,
+                """
+        plugins {
+            id("org.noelware.gradle.settings")
+        }
+
+        rootProject.name = "test"
+        """);
+
+        FileUtils.writeFile(new File(testProjectDir, "build.gradle.kts"), """
+        plugins {
+            java
+        }
+        """);
+
+        FileUtils.writeFile(
+                new File(testProjectDir, "src/main/java/Main.java"),
+                """
+        public class Main {
+            public static void main(String[] args) {}
+        }
+        """);
+
+        new File(testProjectDir, "local-cache").mkdirs();
+    }
+
+    private GradleRunner cacheRunner(String... extraArguments) {
+        final Map<String, String> environment = new HashMap<>(System.getenv());
+        environment.put("CI", "true");
+
+        final List<String> arguments = new ArrayList<>(List.of(
+                "compileJava",
+                "--build-cache",
+                "-Dorg.noelware.gradle.buildCache.url=http://127.0.0.1:%d/cache/"
+                        .formatted(cacheServer.getAddress().getPort()),
+                "-Dorg.noelware.gradle.buildCache.dir=" + new File(testProjectDir, "local-cache").getAbsolutePath()));
+
+        arguments.addAll(List.of(extraArguments));
+        return GradleRunner.create()
+                .forwardOutput()
+                .withEnvironment(environment)
+                .withArguments(arguments)
+                .withProjectDir(testProjectDir)
+                .withPluginClasspath();
+    }
 }
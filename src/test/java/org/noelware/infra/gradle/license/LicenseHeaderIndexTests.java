@@ -0,0 +1,93 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class LicenseHeaderIndexTests {
+    private static final String HEADER = "/* the heading */\n";
+    private static final String DELIMITER = "(package|import)";
+
+    @TempDir
+    private File tempDir;
+
+    @Test
+    public void test_unchangedFilesAreCacheHits() throws IOException {
+        final File indexFile = new File(tempDir, "index.bin");
+        final File source = new File(tempDir, "Main.java");
+        FileUtils.writeFile(source, HEADER + "package org.example;\n");
+
+        final LicenseHeaderIndex index = LicenseHeaderIndex.load(indexFile, HEADER, DELIMITER);
+        assertNull(index.lookup(source));
+
+        index.put(source, true);
+        index.save(indexFile);
+
+        final LicenseHeaderIndex loaded = LicenseHeaderIndex.load(indexFile, HEADER, DELIMITER);
+        assertEquals(Boolean.TRUE, loaded.lookup(source));
+
+        // Touching a file without changing it shouldn't check it again
+        assertTrue(source.setLastModified(source.lastModified() + 10_000));
+        assertEquals(Boolean.TRUE, loaded.lookup(source));
+    }
+
+    @Test
+    public void test_changedContentIsCheckedAgain() throws IOException {
+        final File indexFile = new File(tempDir, "index.bin");
+        final File source = new File(tempDir, "Main.java");
+        FileUtils.writeFile(source, HEADER + "package org.example;\n");
+
+        final LicenseHeaderIndex index = LicenseHeaderIndex.load(indexFile, HEADER, DELIMITER);
+        index.put(source, true);
+        index.save(indexFile);
+
+        // Same size and modification time, only the content changed
+        final long lastModified = source.lastModified();
+        FileUtils.writeFile(source, "/* the headinG */\n" + "package org.example;\n");
+        assertTrue(source.setLastModified(lastModified));
+
+        assertNull(LicenseHeaderIndex.load(indexFile, HEADER, DELIMITER).lookup(source));
+    }
+
+    @Test
+    public void test_changedHeadingStartsFromScratch() throws IOException {
+        final File indexFile = new File(tempDir, "index.bin");
+        final File source = new File(tempDir, "Main.java");
+        FileUtils.writeFile(source, HEADER + "package org.example;\n");
+
+        final LicenseHeaderIndex index = LicenseHeaderIndex.load(indexFile, HEADER, DELIMITER);
+        index.put(source, false);
+        index.save(indexFile);
+
+        final LicenseHeaderIndex loaded = LicenseHeaderIndex.load(indexFile, "/* another heading */\n", DELIMITER);
+        assertNull(loaded.lookup(source));
+        assertTrue(loaded.failures().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.Licenses;
+
+public class LicenseHeaderServiceTests {
+    @TempDir
+    private File testProjectDir;
+
+    @Test
+    public void test_cachesRenderedHeadings() {
+        final Project project = ProjectBuilder.builder().withProjectDir(testProjectDir).build();
+
+        final LicenseHeaderService service = LicenseHeaderService.register(project).get();
+        final String first = service.render(Licenses.MIT, "test-project", "a test project", "2023", "");
+        final String second = service.render(Licenses.MIT, "test-project", "a test project", "2023", "");
+
+        assertSame(first, second);
+        assertEquals(1, service.getHits());
+        assertEquals(1, service.getMisses());
+
+        // Every part of the metadata is part of the key
+        assertNotEquals(first, service.render(Licenses.MIT, "test-project", "a test project", "2024", ""));
+        assertNotEquals(first, service.render(Licenses.APACHE, "test-project", "a test project", "2023", ""));
+        assertEquals(3, service.getMisses());
+    }
+
+    @Test
+    public void test_sharesTheServiceAcrossProjects() {
+        final Project root = ProjectBuilder.builder().withProjectDir(testProjectDir).build();
+        final Project child = ProjectBuilder.builder().withParent(root).withName("child").build();
+
+        assertSame(LicenseHeaderService.register(root).get(), LicenseHeaderService.register(child).get());
+    }
+}
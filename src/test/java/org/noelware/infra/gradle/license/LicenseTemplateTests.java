@@ -0,0 +1,83 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.license;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.noelware.infra.gradle.Licenses;
+
+public class LicenseTemplateTests {
+    @Test
+    public void test_rendersLikeStringReplace() throws IOException {
+        for (Licenses license : Licenses.values()) {
+            for (String emoji : new String[] {"", "🐻‍❄️🐘"}) {
+                assertEquals(
+                        replace(license, "test-project", "a test project lmao", "2023", emoji),
+                        LicenseTemplate.of(license).render("test-project", "a test project lmao", "2023", emoji),
+                        license + " with emoji [" + emoji + "]");
+            }
+        }
+    }
+
+    @Test
+    public void test_keepsUnknownPlaceholders() {
+        final LicenseTemplate template = LicenseTemplate.parse("{{ Emoji }} {{ Name }} {{ Unknown }} {{ Name");
+
+        assertEquals("a {{ Unknown }} {{ Name", template.render("a", "b", "2023", ""));
+        assertEquals("e a {{ Unknown }} {{ Name", template.render("a", "b", "2023", "e"));
+    }
+
+    @Test
+    public void test_parsesTemplatesOnce() throws IOException {
+        assertSame(LicenseTemplate.of(Licenses.MIT), LicenseTemplate.of(Licenses.MIT));
+    }
+
+    // How headings were rendered before the templates were parsed
+    private static String replace(Licenses license, String name, String description, String year, String emoji)
+            throws IOException {
+        final String tmplFile =
+                switch (license) {
+                    case APACHE -> "/templates/apache.heading.tmpl";
+                    case MIT -> "/templates/mit.heading.tmpl";
+                };
+
+        try (final InputStream stream =
+                Objects.requireNonNull(LicenseTemplateTests.class.getResourceAsStream(tmplFile))) {
+            String result = new String(stream.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("{{ Name }}", name)
+                    .replace("{{ Description }}", description)
+                    .replace("{{ CurrentYear }}", year);
+
+            if (!emoji.isBlank()) result = result.replace("{{ Emoji }}", emoji);
+            else result = result.replace("{{ Emoji }} ", "");
+
+            return result;
+        }
+    }
+}
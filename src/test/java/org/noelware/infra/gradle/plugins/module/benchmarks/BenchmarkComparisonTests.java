@@ -0,0 +1,118 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.plugins.module.benchmarks.BenchmarkComparison.Status;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class BenchmarkComparisonTests {
+    @TempDir
+    private File resultsDir;
+
+    @Test
+    public void test_readsJmhResults() throws IOException {
+        final File file = new File(resultsDir, "results.json");
+        FileUtils.writeFile(file, """
+        [
+          {
+            "benchmark" : "org.example.MainBenchmark.run",
+            "mode" : "thrpt",
+            "params" : { "size" : "10" },
+            "primaryMetric" : { "score" : 100.0, "scoreError" : "NaN", "scoreUnit" : "ops/s" }
+          }
+        ]
+        """);
+
+        final Map<String, JmhResult> results = JmhResult.read(file);
+        final JmhResult result = results.get("org.example.MainBenchmark.run {size=10} (thrpt)");
+
+        assertNotNull(result);
+        assertEquals(100.0, result.score());
+        assertEquals(0.0, result.error());
+        assertEquals("ops/s", result.scoreUnit());
+    }
+
+    @Test
+    public void test_throughputRegressesWhenItDrops() {
+        assertEquals(Status.REGRESSED, statusOf(result("thrpt", 100.0, 1.0), result("thrpt", 80.0, 1.0), 5.0));
+        assertEquals(Status.IMPROVED, statusOf(result("thrpt", 100.0, 1.0), result("thrpt", 120.0, 1.0), 5.0));
+    }
+
+    @Test
+    public void test_averageTimeRegressesWhenItGrows() {
+        assertEquals(Status.REGRESSED, statusOf(result("avgt", 100.0, 1.0), result("avgt", 120.0, 1.0), 5.0));
+        assertEquals(Status.IMPROVED, statusOf(result("avgt", 100.0, 1.0), result("avgt", 80.0, 1.0), 5.0));
+    }
+
+    @Test
+    public void test_changesWithinTheThresholdOrNoiseAreUnchanged() {
+        // 4% is within the 5% threshold
+        assertEquals(Status.UNCHANGED, statusOf(result("thrpt", 100.0, 1.0), result("thrpt", 96.0, 1.0), 5.0));
+
+        // 20% is above the threshold, but the confidence intervals overlap
+        assertEquals(Status.UNCHANGED, statusOf(result("thrpt", 100.0, 15.0), result("thrpt", 80.0, 15.0), 5.0));
+    }
+
+    @Test
+    public void test_addedAndRemovedBenchmarks() {
+        final JmhResult removed = new JmhResult("a.Removed.run", Map.of(), "thrpt", 1.0, 0.0, "ops/s");
+        final JmhResult added = new JmhResult("a.Added.run", Map.of(), "thrpt", 1.0, 0.0, "ops/s");
+        final List<BenchmarkComparison> comparisons = BenchmarkComparison.compare(
+                Map.of(removed.key(), removed), Map.of(added.key(), added), 5.0);
+
+        assertEquals(2, comparisons.size());
+        assertEquals(Status.ADDED, comparisons.get(0).status());
+        assertEquals(Status.REMOVED, comparisons.get(1).status());
+        assertTrue(Double.isNaN(comparisons.get(0).change()));
+    }
+
+    @Test
+    public void test_changeIsRelativeToTheBaseline() {
+        final JmhResult before = result("thrpt", 200.0, 0.0);
+        final List<BenchmarkComparison> comparisons = BenchmarkComparison.compare(
+                Map.of(before.key(), before), Map.of(before.key(), result("thrpt", 150.0, 0.0)), 5.0);
+
+        assertEquals(-25.0, comparisons.get(0).change());
+    }
+
+    private static Status statusOf(JmhResult before, JmhResult after, double threshold) {
+        final List<BenchmarkComparison> comparisons =
+                BenchmarkComparison.compare(Map.of(before.key(), before), Map.of(after.key(), after), threshold);
+
+        assertEquals(1, comparisons.size());
+        return comparisons.get(0).status();
+    }
+
+    private static JmhResult result(String mode, double score, double error) {
+        return new JmhResult("org.example.MainBenchmark.run", Map.of(), mode, score, error, "ops/s");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class TestDurationHistoryTests {
+    @TempDir
+    private File historyDir;
+
+    @Test
+    public void test_missingOrCorruptedHistoryIsEmpty() throws IOException {
+        final File file = new File(historyDir, "test.json");
+        assertTrue(TestDurationHistory.load(file).getDurations().isEmpty());
+
+        FileUtils.writeFile(file, "{ not json");
+        assertTrue(TestDurationHistory.load(file).getDurations().isEmpty());
+    }
+
+    @Test
+    public void test_readsTheHistoryFormat() throws IOException {
+        final File file = new File(historyDir, "test.json");
+        FileUtils.writeFile(file, """
+        {
+          "org.example.ATests" : 1200.5,
+          "org.example.BTests" : 30.0
+        }
+        """);
+
+        assertEquals(
+                Map.of("org.example.ATests", 1200.5, "org.example.BTests", 30.0),
+                TestDurationHistory.load(file).getDurations());
+    }
+
+    @Test
+    public void test_smoothsNewDurations() {
+        final File file = new File(historyDir, "nested/test.json");
+        final TestDurationHistory history = TestDurationHistory.load(file);
+
+        history.record(Map.of("ATests", 100.0));
+        history.record(Map.of("ATests", 300.0, "BTests", 50.0));
+        history.save(file);
+
+        assertEquals(Map.of("ATests", 200.0, "BTests", 50.0), TestDurationHistory.load(file).getDurations());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gradle.api.Project;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestForkSchedulerServiceTests {
+    @TempDir
+    private File testProjectDir;
+
+    private Project project;
+    private TestForkSchedulerService scheduler;
+
+    @BeforeEach
+    public void setup() {
+        project = ProjectBuilder.builder().withProjectDir(testProjectDir).build();
+        scheduler = project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent("scheduler", TestForkSchedulerService.class, (spec) -> spec.getParameters()
+                        .getMaxConcurrentTasks()
+                        .set(2))
+                .get();
+    }
+
+    @Test
+    public void test_loneTaskGetsTheWholeBudget() {
+        assertEquals(8, scheduler.acquire(":test", 8, List.of(":test")));
+    }
+
+    @Test
+    public void test_splitsTheBudgetBetweenConcurrentTasks() {
+        final List<String> scheduled = List.of(":a:test", ":b:test");
+
+        assertEquals(4, scheduler.acquire(":a:test", 8, scheduled));
+        assertEquals(4, scheduler.acquire(":b:test", 8, scheduled));
+
+        // A task that is granted forks keeps them
+        assertEquals(4, scheduler.acquire(":a:test", 8, scheduled));
+    }
+
+    @Test
+    public void test_onlyWaitsForTasksThatHaveAWorker() {
+        final List<String> scheduled = List.of(":a:test", ":b:test", ":c:test", ":d:test");
+
+        // Only two test tasks can run at the same time
+        assertEquals(4, scheduler.acquire(":a:test", 8, scheduled));
+        assertEquals(4, scheduler.acquire(":b:test", 8, scheduled));
+
+        scheduler.release(":a:test");
+        assertEquals(4, scheduler.acquire(":c:test", 8, scheduled));
+
+        // The last task gets what the others gave back
+        scheduler.release(":b:test");
+        scheduler.release(":c:test");
+        assertEquals(8, scheduler.acquire(":d:test", 8, scheduled));
+    }
+
+    @Test
+    public void test_skippedTasksDontHoldBackTheBudget() {
+        final List<String> scheduled = List.of(":a:test", ":b:test");
+
+        // :a:test was up-to-date, so it finished without acquiring anything
+        scheduler.release(":a:test");
+        assertEquals(8, scheduler.acquire(":b:test", 8, scheduled));
+    }
+
+    @Test
+    public void test_alwaysGrantsOneFork() {
+        assertEquals(2, scheduler.acquire(":a:test", 2, List.of(":a:test")));
+        assertEquals(1, scheduler.acquire(":b:test", 2, List.of(":a:test", ":b:test")));
+    }
+
+    @Test
+    public void test_listensForTaskCompletionOnce() {
+        final AtomicInteger listeners = new AtomicInteger();
+        final BuildEventsListenerRegistry registry = (listener) -> listeners.incrementAndGet();
+        final Project child = ProjectBuilder.builder().withParent(project).withName("child").build();
+
+        TestForkSchedulerService.register(project, registry);
+        TestForkSchedulerService.register(child, registry);
+        assertEquals(1, listeners.get());
+    }
+}
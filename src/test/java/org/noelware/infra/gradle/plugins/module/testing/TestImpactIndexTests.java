@@ -0,0 +1,110 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class TestImpactIndexTests {
+    private static final Set<String> TESTS = Set.of("ATests", "BTests");
+
+    @TempDir
+    private File directory;
+
+    @Test
+    public void test_onlyTestsThatRanAreUpdated() {
+        final File file = new File(directory, "test.idx");
+        final TestImpactIndex index = TestImpactIndex.load(file);
+        index.record(
+                Map.of("ATests", Set.of("ATests", "Shared"), "BTests", Set.of("BTests", "Shared")),
+                TESTS,
+                Map.of("ATests", "a", "BTests", "b", "Shared", "1"),
+                "classpath");
+
+        index.save(file);
+
+        // Only ATests ran (i.e, with `--tests ATests`) after Shared changed
+        final TestImpactIndex filtered = TestImpactIndex.load(file);
+        final Map<String, String> changed = Map.of("ATests", "a", "BTests", "b", "Shared", "2");
+        filtered.record(Map.of("ATests", Set.of("ATests", "Shared")), TESTS, changed, "classpath");
+        filtered.save(file);
+
+        assertEquals(Set.of("BTests"), TestImpactIndex.load(file).select(TESTS, changed, "classpath"));
+    }
+
+    @Test
+    public void test_testClassesThatWereOnlyLoadedKeepTheirDependencies() {
+        final Set<String> tests = Set.of("BaseTests", "ATests");
+        final TestImpactIndex index = TestImpactIndex.load(new File(directory, "test.idx"));
+        final Map<String, String> classes = Map.of("BaseTests", "base", "ATests", "a", "Shared", "1", "Other", "1");
+
+        // ATests extends BaseTests, so its JVM loads both of them
+        index.record(
+                Map.of(
+                        "BaseTests", Set.of("BaseTests", "Shared"),
+                        "ATests", Set.of("ATests", "BaseTests", "Other"),
+                        "ATests$Nested", Set.of("ATests$Nested")),
+                tests,
+                classes,
+                "classpath");
+
+        final Map<String, String> changed = Map.of("BaseTests", "base", "ATests", "a", "Shared", "2", "Other", "1");
+        assertEquals(Set.of("BaseTests"), index.select(tests, changed, "classpath"));
+    }
+
+    @Test
+    public void test_classpathChangesRunEveryTest() {
+        final TestImpactIndex index = TestImpactIndex.load(new File(directory, "test.idx"));
+        final Map<String, String> classes = Map.of("ATests", "a", "BTests", "b");
+        index.record(Map.of("ATests", Set.of("ATests"), "BTests", Set.of("BTests")), TESTS, classes, "classpath");
+
+        assertEquals(Set.of(), index.select(TESTS, classes, "classpath"));
+        assertEquals(TESTS, index.select(TESTS, classes, "other"));
+    }
+
+    @Test
+    public void test_resourcesArePartOfTheClasspath() throws IOException {
+        final File resources = new File(directory, "resources");
+        final File config = new File(resources, "config/app.properties");
+        FileUtils.writeFile(config, "greeting=hello");
+        FileUtils.writeFile(new File(resources, "Main.class"), "first");
+
+        final String before = TestImpactIndex.hashClasspath(List.of(resources));
+
+        // Class files are tracked for each test class instead
+        FileUtils.writeFile(new File(resources, "Main.class"), "second");
+        assertEquals(before, TestImpactIndex.hashClasspath(List.of(resources)));
+
+        FileUtils.writeFile(config, "greeting=hi");
+        assertNotEquals(before, TestImpactIndex.hashClasspath(List.of(resources)));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.module.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.Test;
+
+public class TestShardTests {
+    private static final List<String> CLASSES = List.of("A", "B", "C", "D", "E", "F", "G");
+
+    @Test
+    public void test_parse() {
+        assertEquals(new TestShard(2, 4), TestShard.parse(" 2 / 4 "));
+        assertThrows(GradleException.class, () -> TestShard.parse("0/4"));
+        assertThrows(GradleException.class, () -> TestShard.parse("5/4"));
+        assertThrows(GradleException.class, () -> TestShard.parse("two/4"));
+    }
+
+    @Test
+    public void test_selectBalancesByDuration() {
+        final Map<String, Double> durations =
+                Map.of("A", 90.0, "B", 50.0, "C", 40.0, "D", 30.0, "E", 20.0, "F", 10.0, "G", 10.0);
+
+        // The slowest class goes to the shard with the least work: 90 | 50 + 20 + 10 | 40 + 30 + 10
+        assertEquals(Set.of("A"), new TestShard(1, 3).select(CLASSES, durations));
+        assertEquals(Set.of("B", "E", "F"), new TestShard(2, 3).select(CLASSES, durations));
+        assertEquals(Set.of("C", "D", "G"), new TestShard(3, 3).select(CLASSES, durations));
+    }
+
+    @Test
+    public void test_selectSplitsUnknownClassesByHash() {
+        final Map<String, Double> durations = Map.of("A", 100.0, "B", 20.0);
+        final List<String> classes = List.of("A", "B", "C", "D", "E");
+
+        // C, D and E weigh nothing, so A and B are balanced on their own
+        assertEquals(Set.of("A", "D"), new TestShard(1, 2).select(classes, durations));
+        assertEquals(Set.of("B", "C", "E"), new TestShard(2, 2).select(classes, durations));
+        assertEquals(new TestShard(1, 2).selectByHash(List.of("C", "D", "E")), Set.of("D"));
+    }
+
+    @Test
+    public void test_everyClassRunsOnExactlyOneShard() {
+        final Map<String, Double> durations = Map.of("A", 5.0, "C", 1.0, "F", 8.0);
+        assertPartitions(CLASSES, (shard) -> shard.select(CLASSES, durations));
+        assertPartitions(CLASSES, (shard) -> shard.selectByHash(CLASSES));
+    }
+
+    @Test
+    public void test_selectByHashDoesntDependOnTheOtherClasses() {
+        final Set<String> selected = new TestShard(1, 3).selectByHash(CLASSES);
+        final Set<String> withMore = new TestShard(1, 3).selectByHash(List.of("A", "B", "C", "D", "E", "F", "G", "H"));
+
+        withMore.remove("H");
+        assertEquals(selected, withMore);
+    }
+
+    private static void assertPartitions(List<String> classes, Function<TestShard, Set<String>> select) {
+        final Set<String> seen = new HashSet<>();
+        for (int index = 1; index <= 3; index++) {
+            for (String name : select.apply(new TestShard(index, 3))) assertTrue(seen.add(name), name + " runs twice");
+        }
+
+        assertEquals(Set.copyOf(classes), seen);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalCacheEvictionServiceTests {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    private File cacheDir;
+
+    @Test
+    public void test_evictsLeastRecentlyUsedEntries() throws IOException {
+        final Path oldest = entry("a".repeat(32), 100, NOW - 3_000);
+        final Path older = entry("b".repeat(32), 100, NOW - 2_000);
+        final Path newest = entry("c".repeat(32), 100, NOW - 1_000);
+
+        // 300 bytes against a budget of 250 evicts down to the low watermark of 225 bytes
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 250, NOW, Duration.ofMinutes(1));
+
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(older));
+        assertTrue(Files.exists(newest));
+    }
+
+    @Test
+    public void test_keepsCachesWithinBudget() throws IOException {
+        final Path first = entry("a".repeat(32), 100, NOW - 2_000);
+        final Path second = entry("b".repeat(32), 100, NOW - 1_000);
+        final Path unrelated = Files.writeString(cacheDir.toPath().resolve("gc.properties"), "x".repeat(500));
+
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 250, NOW, Duration.ofMinutes(1));
+
+        assertTrue(Files.exists(first));
+        assertTrue(Files.exists(second));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    public void test_stopsOnceOutOfTime() throws IOException {
+        final Path first = entry("a".repeat(32), 100, NOW - 2_000);
+        final Path second = entry("b".repeat(32), 100, NOW - 1_000);
+
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 10, NOW, Duration.ZERO);
+
+        assertTrue(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    @Test
+    public void test_refreshesSizesOfOverwrittenEntries() throws IOException {
+        final Path first = entry("a".repeat(32), 100, NOW - 2_000);
+        final Path second = entry("b".repeat(32), 100, NOW - 1_000);
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 250, NOW, Duration.ofMinutes(1));
+
+        // The index still thinks the entry is 100 bytes until the sizes are refreshed
+        Files.write(first, new byte[400]);
+        Files.setLastModifiedTime(first, FileTime.fromMillis(NOW - 2_000));
+
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 250, NOW + 1_000, Duration.ofMinutes(1));
+        assertTrue(Files.exists(first));
+
+        final long later = NOW + LocalCacheEvictionService.REFRESH_INTERVAL.toMillis();
+        LocalCacheEvictionService.evict(cacheDir.toPath(), 250, later, Duration.ofMinutes(1));
+
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    private Path entry(String name, int size, long lastModified) throws IOException {
+        final Path path = Files.write(cacheDir.toPath().resolve(name), new byte[size]);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+
+        return path;
+    }
+}
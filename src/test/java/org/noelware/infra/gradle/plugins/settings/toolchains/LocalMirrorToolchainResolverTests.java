@@ -0,0 +1,103 @@
+/*
+ * 🐻‍❄️🐘 gradle-infra-plugin: Gradle plugin to configure sane defaults for Noelware's Gradle projects
+ * Copyright (c) 2023 Noelware, LLC. <team@noelware.org>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.noelware.infra.gradle.plugins.settings.toolchains;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.noelware.infra.gradle.utils.FileUtils;
+
+public class LocalMirrorToolchainResolverTests {
+    @TempDir
+    private File mirror;
+
+    @Test
+    public void test_resolvesArchiveForVersionAndPlatform() throws IOException {
+        archives(
+                "temurin-17-linux-x64.tar.gz",
+                "temurin-17-linux-aarch64.tar.gz",
+                "temurin-17-windows-x64.zip",
+                "temurin-19-linux-x64.tar.gz",
+                "README.md");
+
+        assertEquals(Optional.of("temurin-17-linux-aarch64.tar.gz"), resolve(17, "linux", "aarch64"));
+        assertEquals(Optional.of("temurin-17-windows-x64.zip"), resolve(17, "windows", "x64"));
+        assertEquals(Optional.of("temurin-19-linux-x64.tar.gz"), resolve(19, "linux", "x64"));
+        assertEquals(Optional.empty(), resolve(17, "mac", "x64"));
+        assertEquals(Optional.empty(), resolve(11, "linux", "x64"));
+    }
+
+    @Test
+    public void test_matchesPlatformAliases() throws IOException {
+        archives("jdk-17.0.6-macos-arm64.tgz", "17.0.6-linux-amd64.tar.gz");
+
+        assertEquals(Optional.of("jdk-17.0.6-macos-arm64.tgz"), resolve(17, "mac", "aarch64"));
+        assertEquals(Optional.of("17.0.6-linux-amd64.tar.gz"), resolve(17, "linux", "x64"));
+    }
+
+    @Test
+    public void test_newestPatchReleaseWinsNumerically() throws IOException {
+        archives("17.0.9-linux-x64.tar.gz", "17.0.10-linux-x64.tar.gz", "17.0.2+8-linux-x64.tar.gz");
+
+        // `17.0.9` sorts after `17.0.10` as a string
+        assertEquals(Optional.of("17.0.10-linux-x64.tar.gz"), resolve(17, "linux", "x64"));
+    }
+
+    @Test
+    public void test_missingMirrorResolvesNothing() {
+        assertEquals(
+                Optional.empty(),
+                LocalMirrorToolchainResolver.resolve(new File(mirror, "missing"), 17, "linux", "x64"));
+    }
+
+    @Test
+    public void test_resolvesToLocalFile() throws IOException {
+        archives("temurin-17-linux-x64.tar.gz");
+
+        // The download is a `file:` URI, so provisioning never goes over the network
+        final File archive = LocalMirrorToolchainResolver.resolve(mirror, 17, "linux", "x64").orElseThrow();
+
+        assertEquals("file", archive.toURI().getScheme());
+        assertEquals(mirror, archive.getParentFile());
+    }
+
+    @Test
+    public void test_parsesVersions() {
+        assertArrayEquals(new int[] {17, 0, 6, 10}, LocalMirrorToolchainResolver.versionOf("17.0.6+10"));
+        assertArrayEquals(new int[] {17, 0, 6}, LocalMirrorToolchainResolver.versionOf("17_0_6"));
+        assertArrayEquals(new int[] {17}, LocalMirrorToolchainResolver.versionOf("17"));
+    }
+
+    private Optional<String> resolve(int version, String os, String arch) {
+        return LocalMirrorToolchainResolver.resolve(mirror, version, os, arch).map(File::getName);
+    }
+
+    private void archives(String... names) throws IOException {
+        for (String name : names) FileUtils.writeFile(new File(mirror, name), "");
+    }
+}